@@ -0,0 +1,103 @@
+package com.neo.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 开放模型的压力源：按固定到达率发出请求，不等上一个请求返回，服务端变慢时请求会堆积而不是自动降速。
+ * 延迟从计划发出的时间算起，压力源自身落后于计划时等待的时间也计入，避免 coordinated omission 把排队时间藏掉。
+ * 请求随机访问 /users/{1..users}，只有 200 响应计入延迟直方图，其余状态码、超时和连接错误计为错误。
+ */
+public class LoadGenerator {
+
+    private final HttpClient client;
+
+    private final URI baseUri;
+
+    private final int users;
+
+    private final Duration timeout;
+
+    public LoadGenerator(URI baseUri, int users, Duration timeout) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+        this.baseUri = baseUri;
+        this.users = users;
+        this.timeout = timeout;
+    }
+
+    /**
+     * 以 rate 次/秒持续 duration，发完后等待未完成的请求，最长 timeout
+     */
+    public Result run(int rate, Duration duration) {
+        Recorder recorder = new Recorder(3);
+        LongAdder ok = new LongAdder();
+        LongAdder errors = new LongAdder();
+        AtomicLong pending = new AtomicLong();
+        AtomicLong lastCompletion = new AtomicLong();
+        long total = duration.toNanos() * rate / 1_000_000_000L;
+        long start = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long intended = start + i * 1_000_000_000L / rate;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            pending.incrementAndGet();
+            client.sendAsync(request(), HttpResponse.BodyHandlers.discarding()).whenComplete((response, e) -> {
+                long now = System.nanoTime();
+                if (e == null && response.statusCode() == 200) {
+                    recorder.recordValue(now - intended);
+                    ok.increment();
+                } else {
+                    errors.increment();
+                }
+                lastCompletion.accumulateAndGet(now, Math::max);
+                pending.decrementAndGet();
+            });
+        }
+        long deadline = System.nanoTime() + timeout.toNanos() + TimeUnit.SECONDS.toNanos(1);
+        while (pending.get() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        long end = Math.max(lastCompletion.get(), start + duration.toNanos());
+        return new Result(rate, total, ok.sum(), errors.sum() + pending.get(), end - start,
+                recorder.getIntervalHistogram());
+    }
+
+    private HttpRequest request() {
+        int id = ThreadLocalRandom.current().nextInt(users) + 1;
+        return HttpRequest.newBuilder(baseUri.resolve("/users/" + id)).timeout(timeout).GET().build();
+    }
+
+    /**
+     * 一轮压测的统计，延迟单位为纳秒；没有在超时内返回的请求计入 errors
+     */
+    public record Result(int rate, long requests, long ok, long errors, long elapsedNanos, Histogram histogram) {
+
+        public double throughput() {
+            return ok * 1_000_000_000D / elapsedNanos;
+        }
+
+        public double percentileMillis(double percentile) {
+            return ok == 0 ? Double.NaN : histogram.getValueAtPercentile(percentile) / 1_000_000.0;
+        }
+
+        public double maxMillis() {
+            return ok == 0 ? Double.NaN : histogram.getMaxValue() / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.neo.loadtest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 对比 Spring MVC（Tomcat 平台线程）、同一应用改用虚拟线程、WebFlux（Netty）在相同内存数据和相同下游延迟下的表现：
+ * 每种栈在独立的子进程中启动，预热后按 load.rates 中的每个到达率用开放模型压测 load.duration，
+ * 记录吞吐、p50 / p99 / 最大延迟、错误数，以及子进程的堆峰值和线程数峰值，最后汇总成一份 Markdown 报告。
+ * 子进程所在 JDK 不支持虚拟线程时，virtual 一栏标记为跳过。
+ * <p>
+ * 运行：mvn compile exec:exec，参数见 {@link LoadTestOptions}，如 -Dload.rates=500,2000,4000 -Dload.duration=30s。
+ * 压力源和被测进程在同一台机器上，CPU 会互相影响，结果用于同一环境下几种栈之间的相对比较。
+ */
+public class LoadTest {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(60);
+
+    private final LoadTestOptions options;
+
+    public LoadTest(LoadTestOptions options) {
+        this.options = options;
+    }
+
+    public List<ScenarioResult> run() throws IOException, InterruptedException {
+        Path directory = options.report().toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        List<ScenarioResult> results = new ArrayList<>();
+        for (Stack stack : options.stacks()) {
+            Path log = directory.resolve("load-test-" + stack.id() + ".log");
+            try (TargetProcess target = TargetProcess.start(stack, options, log)) {
+                target.awaitReady(STARTUP_TIMEOUT);
+                LoadGenerator generator = new LoadGenerator(target.baseUri(), options.users(), options.timeout());
+                if (!options.warmup().isZero()) {
+                    generator.run(options.rates()[0], options.warmup());
+                }
+                for (int rate : options.rates()) {
+                    target.resetStats();
+                    LoadGenerator.Result load = generator.run(rate, options.duration());
+                    ScenarioResult result = new ScenarioResult(stack, load, target.stats(), null);
+                    System.out.println(row(result));
+                    results.add(result);
+                }
+            } catch (TargetProcess.UnsupportedStackException e) {
+                ScenarioResult result = new ScenarioResult(stack, null, null, e.getMessage());
+                System.out.println(row(result));
+                results.add(result);
+            }
+        }
+        return results;
+    }
+
+    public String report(List<ScenarioResult> results) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("# MVC vs virtual threads vs WebFlux\n\n");
+        sb.append(String.format(Locale.ROOT,
+                "load generator on Java %s, %d CPUs; target JVM `%s` -Xmx%s %s; downstream latency %dms; "
+                        + "%d users; %ds per rate after %ds warm-up; request timeout %ds\n\n",
+                System.getProperty("java.version"), Runtime.getRuntime().availableProcessors(), options.java(),
+                options.heap(), String.join(" ", options.jvmArgs()), options.latency().toMillis(), options.users(),
+                options.duration().toSeconds(), options.warmup().toSeconds(), options.timeout().toSeconds()));
+        sb.append("| stack | rate (req/s) | throughput (req/s) | p50 (ms) | p99 (ms) | max (ms) | errors "
+                + "| heap peak (MB) | platform threads peak |\n");
+        sb.append("|---|---:|---:|---:|---:|---:|---:|---:|---:|\n");
+        for (ScenarioResult result : results) {
+            sb.append(row(result)).append('\n');
+        }
+        sb.append("\nLatency is measured from the scheduled send time (open model), so queueing in the target "
+                + "and in the generator is included. Virtual threads are not counted in the thread peak.\n");
+        return sb.toString();
+    }
+
+    private static String row(ScenarioResult result) {
+        if (result.skipped() != null) {
+            return "| " + result.stack().id() + " | skipped: " + result.skipped() + " | | | | | | | |";
+        }
+        LoadGenerator.Result load = result.load();
+        return String.format(Locale.ROOT, "| %s | %d | %.0f | %.1f | %.1f | %.1f | %d | %.0f | %d |",
+                result.stack().id(), load.rate(), load.throughput(), load.percentileMillis(50),
+                load.percentileMillis(99), load.maxMillis(), load.errors(),
+                result.jvm().peakHeapBytes() / (1024.0 * 1024.0), result.jvm().peakThreads());
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.fromSystemProperties();
+        LoadTest loadTest = new LoadTest(options);
+        String report = loadTest.report(loadTest.run());
+        Files.writeString(options.report(), report, StandardCharsets.UTF_8);
+        System.out.println();
+        System.out.println(report);
+        System.out.println("report written to " + options.report().toAbsolutePath());
+    }
+
+    /**
+     * 一种栈在一个到达率下的结果；skipped 不为 null 时该栈没有运行，其余字段为 null
+     */
+    public record ScenarioResult(Stack stack, LoadGenerator.Result load, TargetProcess.JvmStats jvm, String skipped) {
+    }
+}
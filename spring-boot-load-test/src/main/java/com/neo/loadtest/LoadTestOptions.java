@@ -0,0 +1,54 @@
+package com.neo.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 压测参数，从 -Dload.xxx 系统属性读取：
+ * <ul>
+ *     <li>load.stacks：参与对比的栈，默认 mvc,virtual,webflux</li>
+ *     <li>load.rates：依次压测的到达率（次/秒），默认 1000,3000</li>
+ *     <li>load.duration / load.warmup：每个到达率的压测时长，和每种栈开始前以第一个到达率预热的时长，
+ *     预热太短时 JIT 还没有完成，先测的到达率延迟会偏高</li>
+ *     <li>load.latency：模拟的下游延迟，默认 100ms，MVC 默认 200 个线程时容量约为 200 / 0.1s = 2000 次/秒</li>
+ *     <li>load.users：内存中的用户数</li>
+ *     <li>load.timeout：单个请求的超时</li>
+ *     <li>load.heap：子进程的 -Xms / -Xmx</li>
+ *     <li>load.java / load.jvm-args：启动子进程的 java 命令和额外参数，用于在 JDK 21 上跑虚拟线程，
+ *     或在 JDK 19/20 上加 --enable-preview</li>
+ *     <li>load.report：报告文件，子进程日志写在同一目录下</li>
+ * </ul>
+ */
+public record LoadTestOptions(List<Stack> stacks, int[] rates, Duration duration, Duration warmup, Duration latency,
+                              int users, Duration timeout, String heap, String java, List<String> jvmArgs,
+                              Path report) {
+
+    public static LoadTestOptions fromSystemProperties() {
+        return new LoadTestOptions(
+                Arrays.stream(property("load.stacks", "mvc,virtual,webflux").split(",")).map(Stack::of).toList(),
+                Arrays.stream(property("load.rates", "1000,3000").split(",")).map(String::trim)
+                        .mapToInt(Integer::parseInt).toArray(),
+                duration("load.duration", "15s"),
+                duration("load.warmup", "10s"),
+                duration("load.latency", "100ms"),
+                Integer.parseInt(property("load.users", "10000")),
+                duration("load.timeout", "10s"),
+                property("load.heap", "512m"),
+                property("load.java", Path.of(System.getProperty("java.home"), "bin", "java").toString()),
+                Arrays.stream(property("load.jvm-args", "").split("\\s+")).filter(arg -> !arg.isEmpty()).toList(),
+                Path.of(property("load.report", "target/load-test-report.md")));
+    }
+
+    private static String property(String name, String defaultValue) {
+        String value = System.getProperty(name);
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    private static Duration duration(String name, String defaultValue) {
+        return DurationStyle.detectAndParse(property(name, defaultValue));
+    }
+}
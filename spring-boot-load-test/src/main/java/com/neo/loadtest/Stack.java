@@ -0,0 +1,45 @@
+package com.neo.loadtest;
+
+import org.springframework.boot.WebApplicationType;
+
+import java.util.Locale;
+
+/**
+ * 参与对比的三种栈，下游延迟分别用各自习惯的方式模拟：
+ * MVC 和虚拟线程在请求线程上阻塞等待（相当于 JDBC、RestTemplate），WebFlux 用非阻塞的定时器（相当于 R2DBC、WebClient）
+ */
+public enum Stack {
+
+    /**
+     * Tomcat + Spring MVC，平台线程池（server.tomcat.threads.max，默认 200）
+     */
+    MVC(WebApplicationType.SERVLET),
+
+    /**
+     * 同一个 MVC 应用，Tomcat 改为每个请求一个虚拟线程，需要 JDK 21（或 19/20 加 --enable-preview）
+     */
+    VIRTUAL(WebApplicationType.SERVLET),
+
+    /**
+     * Netty + WebFlux 函数式路由
+     */
+    WEBFLUX(WebApplicationType.REACTIVE);
+
+    private final WebApplicationType webApplicationType;
+
+    Stack(WebApplicationType webApplicationType) {
+        this.webApplicationType = webApplicationType;
+    }
+
+    public WebApplicationType getWebApplicationType() {
+        return webApplicationType;
+    }
+
+    public String id() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static Stack of(String id) {
+        return valueOf(id.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,211 @@
+package com.neo.loadtest;
+
+import com.neo.loadtest.target.TargetApplication;
+
+import javax.management.MBeanServerConnection;
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 在子进程中启动一种栈的 TargetApplication，输出写入日志文件；
+ * 通过 JMX 每 100ms 采样子进程的堆使用量和线程数，压测进程自己的开销不计入
+ */
+public class TargetProcess implements AutoCloseable {
+
+    private final Stack stack;
+
+    private final Process process;
+
+    private final int port;
+
+    private final int jmxPort;
+
+    private final Path log;
+
+    private final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "load-test-jvm-sampler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong peakHeap = new AtomicLong();
+
+    private final AtomicInteger peakThreads = new AtomicInteger();
+
+    private JMXConnector connector;
+
+    private MemoryMXBean memory;
+
+    private ThreadMXBean threads;
+
+    private TargetProcess(Stack stack, Process process, int port, int jmxPort, Path log) {
+        this.stack = stack;
+        this.process = process;
+        this.port = port;
+        this.jmxPort = jmxPort;
+        this.log = log;
+    }
+
+    public static TargetProcess start(Stack stack, LoadTestOptions options, Path log) throws IOException {
+        int port = freePort();
+        int jmxPort = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(options.java());
+        command.add("-Xms" + options.heap());
+        command.add("-Xmx" + options.heap());
+        command.add("-Dcom.sun.management.jmxremote.port=" + jmxPort);
+        command.add("-Dcom.sun.management.jmxremote.rmi.port=" + jmxPort);
+        command.add("-Dcom.sun.management.jmxremote.host=127.0.0.1");
+        command.add("-Dcom.sun.management.jmxremote.authenticate=false");
+        command.add("-Dcom.sun.management.jmxremote.ssl=false");
+        command.add("-Djava.rmi.server.hostname=127.0.0.1");
+        command.addAll(options.jvmArgs());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(TargetApplication.class.getName());
+        command.add("--load.stack=" + stack.id());
+        command.add("--load.latency=" + options.latency().toMillis() + "ms");
+        command.add("--load.users=" + options.users());
+        command.add("--server.port=" + port);
+        command.add("--server.address=127.0.0.1");
+        command.add("--logging.level.root=WARN");
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        return new TargetProcess(stack, process, port, jmxPort, log);
+    }
+
+    public URI baseUri() {
+        return URI.create("http://127.0.0.1:" + port);
+    }
+
+    /**
+     * 轮询 /users/1 直到返回 200，再连接 JMX
+     *
+     * @throws UnsupportedStackException 子进程所在 JDK 不支持该栈（虚拟线程）
+     */
+    public void awaitReady(Duration timeout) throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest probe = HttpRequest.newBuilder(baseUri().resolve("/users/1")).timeout(Duration.ofSeconds(2)).build();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            if (!process.isAlive()) {
+                if (process.exitValue() == TargetApplication.UNSUPPORTED_EXIT_CODE) {
+                    throw new UnsupportedStackException(stack + " is not supported by the target JVM, see " + log);
+                }
+                throw new IllegalStateException(stack + " exited with " + process.exitValue() + ", see " + log);
+            }
+            try {
+                if (client.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    break;
+                }
+            } catch (IOException e) {
+                // 还没有开始监听
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException(stack + " did not start within " + timeout + ", see " + log);
+            }
+            Thread.sleep(200);
+        }
+        connector = JMXConnectorFactory.connect(
+                new JMXServiceURL("service:jmx:rmi:///jndi/rmi://127.0.0.1:" + jmxPort + "/jmxrmi"));
+        MBeanServerConnection connection = connector.getMBeanServerConnection();
+        memory = ManagementFactory.newPlatformMXBeanProxy(connection, ManagementFactory.MEMORY_MXBEAN_NAME,
+                MemoryMXBean.class);
+        threads = ManagementFactory.newPlatformMXBeanProxy(connection, ManagementFactory.THREAD_MXBEAN_NAME,
+                ThreadMXBean.class);
+        sampler.scheduleAtFixedRate(this::sample, 0, 100, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 开始一轮压测前调用：先 GC 一次，清零峰值
+     */
+    public void resetStats() {
+        peakHeap.set(0);
+        peakThreads.set(0);
+        try {
+            memory.gc();
+            threads.resetPeakThreadCount();
+        } catch (RuntimeException e) {
+            // 上一轮过载时 JMX 调用可能失败，峰值只靠采样
+        }
+        sample();
+    }
+
+    /**
+     * 上次 resetStats 以来的峰值。线程数只包含平台线程，虚拟线程不在其中
+     */
+    public JvmStats stats() {
+        sample();
+        try {
+            peakThreads.accumulateAndGet(threads.getPeakThreadCount(), Math::max);
+        } catch (RuntimeException e) {
+            // 目标进程过载时 JMX 连接可能被重置，只使用采样到的峰值
+        }
+        return new JvmStats(peakHeap.get(), peakThreads.get());
+    }
+
+    private void sample() {
+        try {
+            peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+            peakThreads.accumulateAndGet(threads.getThreadCount(), Math::max);
+        } catch (RuntimeException e) {
+            // 子进程过载或退出时 JMX 调用失败，跳过这次采样
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        sampler.shutdownNow();
+        if (connector != null) {
+            try {
+                connector.close();
+            } catch (IOException e) {
+                // 子进程即将被结束
+            }
+        }
+        process.destroy();
+        if (!process.waitFor(10, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * 堆峰值单位为字节
+     */
+    public record JvmStats(long peakHeapBytes, int peakThreads) {
+    }
+
+    public static class UnsupportedStackException extends IllegalStateException {
+
+        public UnsupportedStackException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.neo.loadtest.target;
+
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Tomcat + Spring MVC：请求线程阻塞等待下游延迟；load.stack=virtual 时 Tomcat 的请求线程换成虚拟线程
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableAutoConfiguration
+@Import({UserStore.class, MvcTarget.UserController.class})
+public class MvcTarget {
+
+    @Bean
+    @ConditionalOnProperty(name = "load.stack", havingValue = "virtual")
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.newThreadPerTaskExecutor("tomcat-virtual-"));
+    }
+
+    @RestController
+    static class UserController {
+
+        private final UserStore userStore;
+
+        UserController(UserStore userStore) {
+            this.userStore = userStore;
+        }
+
+        @GetMapping("/users/{id}")
+        public ResponseEntity<User> getUser(@PathVariable("id") long id) throws InterruptedException {
+            Thread.sleep(userStore.getLatency().toMillis());
+            User user = userStore.get(id);
+            return user == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(user);
+        }
+    }
+}
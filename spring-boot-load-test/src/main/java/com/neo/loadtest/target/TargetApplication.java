@@ -0,0 +1,35 @@
+package com.neo.loadtest.target;
+
+import com.neo.loadtest.Stack;
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+/**
+ * 被测应用的入口，由 LoadTest 在独立的子进程中启动，每种栈一个进程，堆和线程数互不影响。
+ * 参数：--load.stack=mvc|virtual|webflux --server.port=... --load.latency=100ms --load.users=10000
+ */
+public class TargetApplication {
+
+    /**
+     * 运行时的 JDK 不支持虚拟线程时的退出码
+     */
+    public static final int UNSUPPORTED_EXIT_CODE = 3;
+
+    public static void main(String[] args) {
+        Stack stack = Stack.MVC;
+        for (String arg : args) {
+            if (arg.startsWith("--load.stack=")) {
+                stack = Stack.of(arg.substring("--load.stack=".length()));
+            }
+        }
+        if (stack == Stack.VIRTUAL && !VirtualThreads.isAvailable()) {
+            System.err.println("Virtual threads are not available on Java " + System.getProperty("java.version"));
+            System.exit(UNSUPPORTED_EXIT_CODE);
+        }
+        new SpringApplicationBuilder(stack == Stack.WEBFLUX ? WebFluxTarget.class : MvcTarget.class)
+                .web(stack.getWebApplicationType())
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .run(args);
+    }
+}
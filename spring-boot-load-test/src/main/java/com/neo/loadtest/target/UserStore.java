@@ -0,0 +1,36 @@
+package com.neo.loadtest.target;
+
+import org.springframework.beans.factory.annotation.Value;
+
+import java.time.Duration;
+
+/**
+ * 三种栈共用的内存数据：启动时生成 load.users 个用户，id 从 1 开始；
+ * load.latency 为每次查询模拟的下游延迟，由各栈自己决定阻塞还是非阻塞地等待
+ */
+public class UserStore {
+
+    private final User[] users;
+
+    private final Duration latency;
+
+    public UserStore(@Value("${load.users:10000}") int size, @Value("${load.latency:100ms}") Duration latency) {
+        this.users = new User[size];
+        for (int i = 0; i < size; i++) {
+            long id = i + 1;
+            users[i] = new User(id, "aa" + id, "123456" + id, "ityouknow" + id + "@126.com", "微笑" + id, "2022-12-20");
+        }
+        this.latency = latency;
+    }
+
+    /**
+     * @return 不存在时返回 null
+     */
+    public User get(long id) {
+        return id >= 1 && id <= users.length ? users[(int) (id - 1)] : null;
+    }
+
+    public Duration getLatency() {
+        return latency;
+    }
+}
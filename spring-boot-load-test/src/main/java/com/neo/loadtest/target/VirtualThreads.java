@@ -0,0 +1,40 @@
+package com.neo.loadtest.target;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 通过反射创建虚拟线程，编译目标仍为 JDK 17；运行时的 JDK 不支持虚拟线程时 isAvailable() 为 false
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    static boolean isAvailable() {
+        try {
+            newThreadPerTaskExecutor("probe-").shutdown();
+            return true;
+        } catch (IllegalStateException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Thread.ofVirtual().name(prefix, 0).factory() + Executors.newThreadPerTaskExecutor(factory)
+     */
+    static ExecutorService newThreadPerTaskExecutor(String prefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new IllegalStateException("Virtual threads are not available on Java "
+                    + System.getProperty("java.version"), e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.neo.loadtest.target;
+
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+/**
+ * Netty + WebFlux：下游延迟用 Mono.delay 模拟，等待期间不占用事件循环线程
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableAutoConfiguration
+@Import(UserStore.class)
+public class WebFluxTarget {
+
+    @Bean
+    public RouterFunction<ServerResponse> userRoutes(UserStore userStore) {
+        return RouterFunctions.route()
+                .GET("/users/{id}", request -> {
+                    long id = Long.parseLong(request.pathVariable("id"));
+                    return Mono.delay(userStore.getLatency())
+                            .flatMap(tick -> Mono.justOrEmpty(userStore.get(id)))
+                            .flatMap(user -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(user))
+                            .switchIfEmpty(ServerResponse.notFound().build());
+                })
+                .build();
+    }
+}
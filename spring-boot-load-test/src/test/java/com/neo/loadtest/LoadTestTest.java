@@ -0,0 +1,41 @@
+package com.neo.loadtest;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+public class LoadTestTest {
+
+    /**
+     * 每种栈以很低的到达率跑 1 秒，检查子进程启动、压测、采样和报告的流程；
+     * 运行测试的 JDK 不支持虚拟线程时 virtual 应标记为跳过
+     */
+    @Test
+    public void smoke() throws Exception {
+        LoadTestOptions options = new LoadTestOptions(List.of(Stack.values()), new int[]{50}, Duration.ofSeconds(1),
+                Duration.ZERO, Duration.ofMillis(20), 100, Duration.ofSeconds(5), "256m",
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(), List.of(),
+                Path.of("target", "load-test-smoke.md"));
+        LoadTest loadTest = new LoadTest(options);
+        List<LoadTest.ScenarioResult> results = loadTest.run();
+
+        Assert.assertEquals(3, results.size());
+        for (LoadTest.ScenarioResult result : results) {
+            if (result.skipped() != null) {
+                Assert.assertEquals(Stack.VIRTUAL, result.stack());
+                continue;
+            }
+            Assert.assertEquals(50, result.load().ok());
+            Assert.assertEquals(0, result.load().errors());
+            Assert.assertTrue(result.load().percentileMillis(50) >= 20);
+            Assert.assertTrue(result.jvm().peakHeapBytes() > 0);
+            Assert.assertTrue(result.jvm().peakThreads() > 0);
+        }
+        String report = loadTest.report(results);
+        Assert.assertTrue(report.contains("| mvc | 50 |"));
+        Assert.assertTrue(report.contains("| webflux | 50 |"));
+    }
+}
@@ -0,0 +1,31 @@
+package com.neo.config;
+
+import com.neo.memcache.MemcachedCacheManager;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+@Configuration
+@EnableCaching
+public class MemcacheCacheConfig {
+
+    @Bean
+    public CacheManager cacheManager(MemcachedClientManager memcachedClientManager, MemcacheSource memcacheSource) {
+        return new MemcachedCacheManager(memcachedClientManager::getClient, memcacheSource, memcacheBatchScheduler());
+    }
+
+    /**
+     * 到时发出合并读取的单线程定时器，守护线程
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService memcacheBatchScheduler() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("memcache-batch-");
+        threadFactory.setDaemon(true);
+        return Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+}
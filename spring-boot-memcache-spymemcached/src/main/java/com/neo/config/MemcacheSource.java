@@ -1,8 +1,13 @@
 package com.neo.config;
 
+import net.spy.memcached.FailureMode;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 @Component
 @ConfigurationProperties(prefix = "memcache")
 public class MemcacheSource {
@@ -11,6 +16,36 @@ public class MemcacheSource {
 
     private int port;
 
+    /**
+     * 多节点配置，按 Ketama 一致性哈希分布 key；为空时使用 ip/port 单节点
+     */
+    private List<Server> servers = new ArrayList<>();
+
+    /**
+     * MemcachedClient 实例数，每个实例与每个节点各保持一条连接，调用方轮询使用
+     */
+    private int connections = 1;
+
+    /**
+     * 单个操作的超时时间
+     */
+    private Duration operationTimeout = Duration.ofMillis(2500);
+
+    /**
+     * 节点不可用时的处理方式：Redistribute 把该节点的 key 顺延到哈希环上的下一个节点，其它 key 不受影响；
+     * Retry 继续等待原节点；Cancel 直接取消请求
+     */
+    private FailureMode failureMode = FailureMode.Redistribute;
+
+    /**
+     * 断线重连的最大间隔
+     */
+    private Duration maxReconnectDelay = Duration.ofSeconds(30);
+
+    private final Cache cache = new Cache();
+
+    private final WarmUp warmUp = new WarmUp();
+
     public String getIp() {
         return ip;
     }
@@ -26,4 +61,221 @@ public class MemcacheSource {
     public void setPort(int port) {
         this.port = port;
     }
+
+    public List<Server> getServers() {
+        return servers;
+    }
+
+    public void setServers(List<Server> servers) {
+        this.servers = servers;
+    }
+
+    public int getConnections() {
+        return connections;
+    }
+
+    public void setConnections(int connections) {
+        this.connections = connections;
+    }
+
+    public Duration getOperationTimeout() {
+        return operationTimeout;
+    }
+
+    public void setOperationTimeout(Duration operationTimeout) {
+        this.operationTimeout = operationTimeout;
+    }
+
+    public FailureMode getFailureMode() {
+        return failureMode;
+    }
+
+    public void setFailureMode(FailureMode failureMode) {
+        this.failureMode = failureMode;
+    }
+
+    public Duration getMaxReconnectDelay() {
+        return maxReconnectDelay;
+    }
+
+    public void setMaxReconnectDelay(Duration maxReconnectDelay) {
+        this.maxReconnectDelay = maxReconnectDelay;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public WarmUp getWarmUp() {
+        return warmUp;
+    }
+
+    /**
+     * 实际使用的节点列表，未配置 servers 时退回到 ip/port
+     */
+    public List<Server> resolveServers() {
+        if (!servers.isEmpty()) {
+            return servers;
+        }
+        Server server = new Server();
+        server.setHost(ip);
+        server.setPort(port);
+        return List.of(server);
+    }
+
+    public static class Server {
+
+        private String host;
+
+        private int port = 11211;
+
+        /**
+         * 权重，决定该节点在哈希环上的虚拟节点数，即分到的 key 的比例
+         */
+        private int weight = 1;
+
+        public String getHost() {
+            return host;
+        }
+
+        public void setHost(String host) {
+            this.host = host;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        public void setPort(int port) {
+            this.port = port;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public void setWeight(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Spring Cache 使用 Memcached 时的配置，对应 memcache.cache.* 前缀
+     */
+    public static class Cache {
+
+        /**
+         * 缓存条目过期时间，0 表示不过期；Memcached 最长支持 30 天
+         */
+        private Duration expiration = Duration.ZERO;
+
+        /**
+         * 单 key 读取先等待这么久，把同一时间窗口内的读取合并成一次 asyncGetBulk
+         */
+        private Duration batchWindow = Duration.ofMillis(2);
+
+        /**
+         * 一批最多合并的 key 数，达到后立即发出，不再等待时间窗口
+         */
+        private int maxBatchSize = 100;
+
+        /**
+         * 序列化后达到该字节数的值使用 GZIP 压缩存放
+         */
+        private int compressionThreshold = 1024;
+
+        private boolean allowNullValues = true;
+
+        public Duration getExpiration() {
+            return expiration;
+        }
+
+        public void setExpiration(Duration expiration) {
+            this.expiration = expiration;
+        }
+
+        public Duration getBatchWindow() {
+            return batchWindow;
+        }
+
+        public void setBatchWindow(Duration batchWindow) {
+            this.batchWindow = batchWindow;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        public int getCompressionThreshold() {
+            return compressionThreshold;
+        }
+
+        public void setCompressionThreshold(int compressionThreshold) {
+            this.compressionThreshold = compressionThreshold;
+        }
+
+        public boolean isAllowNullValues() {
+            return allowNullValues;
+        }
+
+        public void setAllowNullValues(boolean allowNullValues) {
+            this.allowNullValues = allowNullValues;
+        }
+    }
+
+    /**
+     * 启动预热：连接建立后批量读取配置的 key，未命中的交给 MemcacheWarmUpLoader 加载并写入，完成前健康检查为 OUT_OF_SERVICE
+     */
+    public static class WarmUp {
+
+        private boolean enabled = false;
+
+        /**
+         * 预热 key 所属的缓存名，与 @Cacheable 的 value 对应
+         */
+        private String cacheName;
+
+        private List<String> keys = new ArrayList<>();
+
+        /**
+         * 预热最长等待时间，超时后不再等待，直接进入就绪状态
+         */
+        private Duration timeout = Duration.ofSeconds(30);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getCacheName() {
+            return cacheName;
+        }
+
+        public void setCacheName(String cacheName) {
+            this.cacheName = cacheName;
+        }
+
+        public List<String> getKeys() {
+            return keys;
+        }
+
+        public void setKeys(List<String> keys) {
+            this.keys = keys;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
 }
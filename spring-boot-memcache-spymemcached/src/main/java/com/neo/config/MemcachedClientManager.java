@@ -0,0 +1,257 @@
+package com.neo.config;
+
+import com.neo.memcache.MemcacheWarmUpLoader;
+import com.neo.memcache.MemcachedCache;
+import com.neo.memcache.MemcachedClientPool;
+import com.neo.memcache.WeightedKetamaConnectionFactory;
+import net.spy.memcached.MemcachedClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 管理 MemcachedClientPool 的生命周期：应用启动时在后台线程创建客户端并预热，不阻塞启动；
+ * 创建失败或创建后 max-reconnect-delay 内没有节点连上时继续重试。getClient 在客户端就绪前最多等待 operation-timeout。
+ * 当前状态由 MemcachedHealthIndicator 报告给 /actuator/health 和 readiness 探针。
+ */
+@Component
+public class MemcachedClientManager implements SmartLifecycle {
+
+    protected Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    /**
+     * 等待节点连上时检查的间隔，毫秒
+     */
+    private static final long CONNECT_POLL_INTERVAL = 50;
+
+    public enum State {
+        CONNECTING, WARMING_UP, READY, STOPPED
+    }
+
+    private final MemcacheSource memcacheSource;
+
+    private final ObjectProvider<CacheManager> cacheManager;
+
+    private final ObjectProvider<MemcacheWarmUpLoader> warmUpLoader;
+
+    private volatile CompletableFuture<MemcachedClientPool> connected = new CompletableFuture<>();
+
+    private volatile State state = State.STOPPED;
+
+    private volatile Throwable lastError;
+
+    private volatile Map<String, Object> warmUpResult = Map.of();
+
+    private volatile Thread connectThread;
+
+    public MemcachedClientManager(MemcacheSource memcacheSource, ObjectProvider<CacheManager> cacheManager,
+                                  ObjectProvider<MemcacheWarmUpLoader> warmUpLoader) {
+        this.memcacheSource = memcacheSource;
+        this.cacheManager = cacheManager;
+        this.warmUpLoader = warmUpLoader;
+    }
+
+    @Override
+    public synchronized void start() {
+        // 每次启动使用新的 future，重启后 getClient 不会拿到上一次关闭的客户端
+        CompletableFuture<MemcachedClientPool> future = new CompletableFuture<>();
+        connected = future;
+        state = State.CONNECTING;
+        Thread thread = new Thread(() -> connect(future), "memcache-connect");
+        thread.setDaemon(true);
+        connectThread = thread;
+        thread.start();
+    }
+
+    /**
+     * MemcachedClient 创建时不会因为节点不可达而失败，连接在 IO 线程中异步建立，
+     * 因此创建后还要等到至少一个节点连上才算连接成功；之后的断线重连由 spymemcached 自己处理
+     */
+    private void connect(CompletableFuture<MemcachedClientPool> future) {
+        MemcachedClientPool pool = null;
+        while (state != State.STOPPED && connected == future) {
+            try {
+                if (pool == null) {
+                    pool = createPool();
+                }
+                if (awaitConnected(pool, memcacheSource.getMaxReconnectDelay())) {
+                    break;
+                }
+                lastError = new IllegalStateException("no memcached node reachable: " + describeServers());
+                logger.warn("memcached not reachable yet, servers={}", describeServers());
+            } catch (IOException | RuntimeException e) {
+                lastError = e;
+                logger.error("init MemcachedClient failed, retry in {}", memcacheSource.getMaxReconnectDelay(), e);
+                try {
+                    Thread.sleep(memcacheSource.getMaxReconnectDelay().toMillis());
+                } catch (InterruptedException interrupted) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+        synchronized (this) {
+            if (state == State.STOPPED || connected != future) {
+                if (pool != null) {
+                    pool.shutdown();
+                }
+                return;
+            }
+            lastError = null;
+            future.complete(pool);
+        }
+        if (memcacheSource.getWarmUp().isEnabled()) {
+            state = State.WARMING_UP;
+            warmUp();
+        }
+        synchronized (this) {
+            if (state != State.STOPPED && connected == future) {
+                state = State.READY;
+            }
+        }
+    }
+
+    protected MemcachedClientPool createPool() throws IOException {
+        return new MemcachedClientPool(new WeightedKetamaConnectionFactory(memcacheSource),
+                WeightedKetamaConnectionFactory.addresses(memcacheSource.resolveServers()),
+                memcacheSource.getConnections());
+    }
+
+    /**
+     * 轮询到至少一个节点连上，最多等待 timeout
+     */
+    private static boolean awaitConnected(MemcachedClientPool pool, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (pool.getClient().getAvailableServers().isEmpty()) {
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            Thread.sleep(CONNECT_POLL_INTERVAL);
+        }
+        return true;
+    }
+
+    private String describeServers() {
+        StringBuilder servers = new StringBuilder();
+        for (MemcacheSource.Server server : memcacheSource.resolveServers()) {
+            if (servers.length() > 0) {
+                servers.append(',');
+            }
+            servers.append(server.getHost()).append(':').append(server.getPort());
+        }
+        return servers.toString();
+    }
+
+    /**
+     * 按批读取预热 key，未命中的交给 MemcacheWarmUpLoader 一次加载并写回；失败只记录日志，不阻止进入就绪状态
+     */
+    private void warmUp() {
+        MemcacheSource.WarmUp config = memcacheSource.getWarmUp();
+        Cache cache = cacheManager.getObject().getCache(config.getCacheName());
+        if (!(cache instanceof MemcachedCache memcachedCache) || config.getKeys().isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        long deadline = start + config.getTimeout().toNanos();
+        int batchSize = memcacheSource.getCache().getMaxBatchSize();
+        int hits = 0;
+        int loaded = 0;
+        try {
+            List<String> keys = config.getKeys();
+            for (int from = 0; from < keys.size() && System.nanoTime() < deadline; from += batchSize) {
+                List<String> batch = keys.subList(from, Math.min(keys.size(), from + batchSize));
+                Map<Object, Object> values = memcachedCache.getAll(batch);
+                hits += values.size();
+                List<String> misses = new ArrayList<>();
+                for (String key : batch) {
+                    if (!values.containsKey(key)) {
+                        misses.add(key);
+                    }
+                }
+                MemcacheWarmUpLoader loader = warmUpLoader.getIfAvailable();
+                if (loader != null && !misses.isEmpty()) {
+                    Map<String, Object> loadedValues = loader.load(config.getCacheName(), misses);
+                    loadedValues.forEach(memcachedCache::put);
+                    loaded += loadedValues.size();
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("memcached warm-up failed, cache={}", config.getCacheName(), e);
+        }
+        Map<String, Object> result = new HashMap<>();
+        result.put("keys", config.getKeys().size());
+        result.put("hits", hits);
+        result.put("loaded", loaded);
+        result.put("elapsedMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        warmUpResult = result;
+        logger.info("memcached warm-up finished, cache={}, result={}", config.getCacheName(), result);
+    }
+
+    public MemcachedClient getClient() {
+        try {
+            return connected.get(memcacheSource.getOperationTimeout().toMillis(), TimeUnit.MILLISECONDS).getClient();
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("memcached client is not connected yet", lastError);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted waiting for memcached client", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("memcached client init failed", e.getCause());
+        }
+    }
+
+    /**
+     * 已创建的客户端，尚未创建时返回 null，不等待
+     */
+    public MemcachedClient getClientIfConnected() {
+        MemcachedClientPool pool = connected.getNow(null);
+        return pool == null ? null : pool.getClient();
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public Throwable getLastError() {
+        return lastError;
+    }
+
+    public Map<String, Object> getWarmUpResult() {
+        return warmUpResult;
+    }
+
+    @Override
+    public synchronized void stop() {
+        state = State.STOPPED;
+        Thread thread = connectThread;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        MemcachedClientPool pool = connected.getNow(null);
+        connected = new CompletableFuture<>();
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return state != State.STOPPED;
+    }
+}
@@ -0,0 +1,53 @@
+package com.neo.config;
+
+import net.spy.memcached.MemcachedClient;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.stereotype.Component;
+
+import java.net.SocketAddress;
+import java.util.Collection;
+
+/**
+ * 客户端创建并预热完成、且至少有一个节点可用时为 UP；连接或预热中为 OUT_OF_SERVICE；所有节点不可用为 DOWN。
+ * 已加入 readiness 健康组，预热完成前实例不接收流量。
+ */
+@Component
+public class MemcachedHealthIndicator extends AbstractHealthIndicator {
+
+    private final MemcachedClientManager memcachedClientManager;
+
+    public MemcachedHealthIndicator(MemcachedClientManager memcachedClientManager) {
+        super("Memcached health check failed");
+        this.memcachedClientManager = memcachedClientManager;
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        MemcachedClientManager.State state = memcachedClientManager.getState();
+        builder.withDetail("state", state);
+        if (!memcachedClientManager.getWarmUpResult().isEmpty()) {
+            builder.withDetail("warmUp", memcachedClientManager.getWarmUpResult());
+        }
+        MemcachedClient client = memcachedClientManager.getClientIfConnected();
+        if (client == null) {
+            Throwable error = memcachedClientManager.getLastError();
+            if (error != null) {
+                builder.down(error);
+            } else {
+                builder.outOfService();
+            }
+            return;
+        }
+        Collection<SocketAddress> available = client.getAvailableServers();
+        builder.withDetail("available", available.toString())
+                .withDetail("unavailable", client.getUnavailableServers().toString());
+        if (available.isEmpty()) {
+            builder.down();
+        } else if (state == MemcachedClientManager.State.READY) {
+            builder.up();
+        } else {
+            builder.outOfService();
+        }
+    }
+}
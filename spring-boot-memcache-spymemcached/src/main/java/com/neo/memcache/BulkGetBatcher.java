@@ -0,0 +1,128 @@
+package com.neo.memcache;
+
+import net.spy.memcached.MemcachedClientIF;
+import net.spy.memcached.internal.BulkFuture;
+import net.spy.memcached.transcoders.Transcoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 把一个时间窗口内的单 key 读取合并成一次 asyncGetBulk：窗口内第一个请求开启一批并定时发出，
+ * 这批达到 maxBatchSize 时立即发出。同一批内重复的 key 共用一个结果。
+ * 结果通过 BulkFuture 的回调分发，发出请求的线程不阻塞等待。
+ * <p>
+ * client 可能阻塞等待连接建立，因此在调用方线程上取得，随这一批一起保存；定时器线程只负责发出，不会被连接卡住。
+ * 连接重建后取到的 client 不同，已有的一批先用旧 client 发出。
+ */
+public class BulkGetBatcher {
+
+    protected Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final Supplier<? extends MemcachedClientIF> client;
+
+    private final Transcoder<Object> transcoder;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final long batchWindowNanos;
+
+    private final int maxBatchSize;
+
+    private Batch batch;
+
+    public BulkGetBatcher(Supplier<? extends MemcachedClientIF> client, Transcoder<Object> transcoder,
+                          ScheduledExecutorService scheduler, Duration batchWindow, int maxBatchSize) {
+        this.client = client;
+        this.transcoder = transcoder;
+        this.scheduler = scheduler;
+        this.batchWindowNanos = batchWindow.toNanos();
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+    }
+
+    /**
+     * 返回的 future 在未命中时以 null 完成
+     */
+    public CompletableFuture<Object> get(String key) {
+        MemcachedClientIF current = client.get();
+        Batch stale = null;
+        Batch full = null;
+        CompletableFuture<Object> future;
+        synchronized (this) {
+            if (batch != null && batch.client != current) {
+                stale = batch;
+                batch = null;
+            }
+            if (batch == null) {
+                Batch opened = new Batch(current);
+                batch = opened;
+                if (batchWindowNanos > 0 && maxBatchSize > 1) {
+                    scheduler.schedule(() -> flush(opened), batchWindowNanos, TimeUnit.NANOSECONDS);
+                }
+            }
+            future = batch.pending.computeIfAbsent(key, k -> new CompletableFuture<>());
+            if (batch.pending.size() >= maxBatchSize || batchWindowNanos <= 0) {
+                full = batch;
+                batch = null;
+            }
+        }
+        if (stale != null) {
+            send(stale);
+        }
+        if (full != null) {
+            send(full);
+        }
+        return future;
+    }
+
+    private void flush(Batch expected) {
+        synchronized (this) {
+            // 这一批已经因为达到上限或 client 变化被发出
+            if (batch != expected) {
+                return;
+            }
+            batch = null;
+        }
+        send(expected);
+    }
+
+    private void send(Batch batch) {
+        Map<String, CompletableFuture<Object>> pending = batch.pending;
+        BulkFuture<Map<String, Object>> bulk;
+        try {
+            bulk = batch.client.asyncGetBulk(pending.keySet(), transcoder);
+        } catch (RuntimeException e) {
+            pending.values().forEach(future -> future.completeExceptionally(e));
+            return;
+        }
+        bulk.addListener(completed -> {
+            Map<String, Object> values;
+            try {
+                values = bulk.getSome(0, TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                logger.warn("memcached bulk get failed, keys={}", pending.size(), e);
+                pending.values().forEach(future -> future.completeExceptionally(e));
+                return;
+            }
+            pending.forEach((key, future) -> future.complete(values.get(key)));
+        });
+    }
+
+    private static final class Batch {
+
+        private final MemcachedClientIF client;
+
+        private final Map<String, CompletableFuture<Object>> pending = new HashMap<>();
+
+        private Batch(MemcachedClientIF client) {
+            this.client = client;
+        }
+    }
+}
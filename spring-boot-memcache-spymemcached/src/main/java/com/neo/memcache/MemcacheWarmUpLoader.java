@@ -0,0 +1,15 @@
+package com.neo.memcache;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 预热时加载 Memcached 中缺失的 key，由业务方提供；没有该 bean 时预热只读取不回填
+ */
+public interface MemcacheWarmUpLoader {
+
+    /**
+     * 一次加载一批 key，返回结果中没有的 key 视为不存在
+     */
+    Map<String, Object> load(String cacheName, Collection<String> keys);
+}
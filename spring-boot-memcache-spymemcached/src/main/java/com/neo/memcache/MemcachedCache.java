@@ -0,0 +1,218 @@
+package com.neo.memcache;
+
+import net.spy.memcached.MemcachedClientIF;
+import net.spy.memcached.OperationTimeoutException;
+import net.spy.memcached.transcoders.Transcoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Memcached 上的 Spring Cache，key 为 缓存名:key，超过 250 字节或含空白、控制字符时改用 缓存名:SHA-1。
+ * 读取经 BulkGetBatcher 合并；get(key, valueLoader) 未命中时同一节点内每个 key 只有一个线程加载，支持 @Cacheable(sync = true)。
+ * Memcached 不能按前缀删除，clear 不做任何事，只记录日志，避免 flush 清掉其它缓存和其它应用的数据。
+ */
+public class MemcachedCache extends AbstractValueAdaptingCache {
+
+    protected Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private static final int MAX_KEY_LENGTH = 250;
+
+    private final String name;
+
+    private final Supplier<? extends MemcachedClientIF> client;
+
+    private final Transcoder<Object> transcoder;
+
+    private final BulkGetBatcher batcher;
+
+    private final int expiration;
+
+    private final long operationTimeoutMillis;
+
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    public MemcachedCache(String name, Supplier<? extends MemcachedClientIF> client, Transcoder<Object> transcoder,
+                          BulkGetBatcher batcher, Duration expiration, Duration operationTimeout,
+                          boolean allowNullValues) {
+        super(allowNullValues);
+        this.name = name;
+        this.client = client;
+        this.transcoder = transcoder;
+        this.batcher = batcher;
+        this.expiration = (int) expiration.getSeconds();
+        this.operationTimeoutMillis = operationTimeout.toMillis();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return client.get();
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String cacheKey = toCacheKey(key);
+        return await(cacheKey, batcher.get(cacheKey));
+    }
+
+    /**
+     * 批量读取，所有 key 先一起交给合并器，再逐个等待结果；只返回命中的 key
+     */
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        Map<Object, String> cacheKeys = new LinkedHashMap<>();
+        Map<Object, CompletableFuture<Object>> futures = new LinkedHashMap<>();
+        for (Object key : keys) {
+            String cacheKey = toCacheKey(key);
+            cacheKeys.put(key, cacheKey);
+            futures.put(key, batcher.get(cacheKey));
+        }
+        Map<Object, Object> values = new LinkedHashMap<>();
+        futures.forEach((key, future) -> {
+            Object value = await(cacheKeys.get(key), future);
+            if (value != null) {
+                values.put(key, fromStoreValue(value));
+            }
+        });
+        return values;
+    }
+
+    private Object await(String cacheKey, CompletableFuture<Object> future) {
+        try {
+            return future.get(operationTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new OperationTimeoutException("Timeout waiting for value: " + cacheKey, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for value: " + cacheKey, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Exception waiting for value: " + cacheKey, e.getCause());
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        String cacheKey = toCacheKey(key);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(cacheKey, flight);
+        if (existing != null) {
+            return (T) join(key, existing);
+        }
+        try {
+            T value;
+            try {
+                value = valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+            put(key, value);
+            flight.complete(value);
+            return value;
+        } catch (Throwable e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cacheKey, flight);
+        }
+    }
+
+    private static Object join(Object key, CompletableFuture<Object> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new ValueRetrievalException(key, null, e.getCause());
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        client.get().set(toCacheKey(key), expiration, toStoreValue(value), transcoder);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        String cacheKey = toCacheKey(key);
+        try {
+            if (client.get().add(cacheKey, expiration, toStoreValue(value), transcoder).get()) {
+                return null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted adding value: " + cacheKey, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Exception adding value: " + cacheKey, e.getCause());
+        }
+        return get(key);
+    }
+
+    @Override
+    public void evict(Object key) {
+        client.get().delete(toCacheKey(key));
+    }
+
+    @Override
+    public void clear() {
+        logger.warn("clear is not supported by memcached cache {}, entries expire by TTL", name);
+    }
+
+    String toCacheKey(Object key) {
+        String cacheKey = name + ":" + key;
+        if (cacheKey.length() <= MAX_KEY_LENGTH && isValid(cacheKey)) {
+            return cacheKey;
+        }
+        return name + ":" + sha1(String.valueOf(key));
+    }
+
+    private static boolean isValid(String key) {
+        // 字符数不超过 250 时，只有全部是 ASCII 才能保证字节数也不超过 250
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c <= ' ' || c >= 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String sha1(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
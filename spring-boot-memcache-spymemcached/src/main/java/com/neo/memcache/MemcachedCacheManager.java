@@ -0,0 +1,58 @@
+package com.neo.memcache;
+
+import com.neo.config.MemcacheSource;
+import net.spy.memcached.MemcachedClientIF;
+import net.spy.memcached.transcoders.SerializingTranscoder;
+import net.spy.memcached.transcoders.Transcoder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * 按名字动态创建 MemcachedCache 的 CacheManager，所有缓存共用一个读取合并器和压缩 transcoder
+ */
+public class MemcachedCacheManager implements CacheManager {
+
+    private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+
+    private final Supplier<? extends MemcachedClientIF> client;
+
+    private final MemcacheSource memcacheSource;
+
+    private final Transcoder<Object> transcoder;
+
+    private final BulkGetBatcher batcher;
+
+    public MemcachedCacheManager(Supplier<? extends MemcachedClientIF> client, MemcacheSource memcacheSource,
+                                 ScheduledExecutorService scheduler) {
+        this.client = client;
+        this.memcacheSource = memcacheSource;
+        MemcacheSource.Cache cache = memcacheSource.getCache();
+        SerializingTranscoder serializingTranscoder = new SerializingTranscoder();
+        serializingTranscoder.setCompressionThreshold(cache.getCompressionThreshold());
+        this.transcoder = serializingTranscoder;
+        this.batcher = new BulkGetBatcher(client, transcoder, scheduler, cache.getBatchWindow(), cache.getMaxBatchSize());
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        MemcacheSource.Cache config = memcacheSource.getCache();
+        return caches.computeIfAbsent(name, n -> new MemcachedCache(n, client, transcoder, batcher,
+                config.getExpiration(), memcacheSource.getOperationTimeout(), config.isAllowNullValues()));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+}
@@ -0,0 +1,49 @@
+package com.neo.memcache;
+
+import net.spy.memcached.ConnectionFactory;
+import net.spy.memcached.MemcachedClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 多个 MemcachedClient 轮询使用。单个 MemcachedClient 对每个节点只有一条连接和一个 IO 线程，
+ * 并发高时增加实例数可以分摊请求队列；所有实例使用同一个连接工厂，key 的分布完全一致。
+ */
+public class MemcachedClientPool {
+
+    private final MemcachedClient[] clients;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    public MemcachedClientPool(ConnectionFactory connectionFactory, List<InetSocketAddress> addresses,
+                               int connections) throws IOException {
+        this.clients = new MemcachedClient[Math.max(1, connections)];
+        try {
+            for (int i = 0; i < clients.length; i++) {
+                clients[i] = new MemcachedClient(connectionFactory, addresses);
+            }
+        } catch (IOException e) {
+            shutdown();
+            throw e;
+        }
+    }
+
+    public MemcachedClient getClient() {
+        if (clients.length == 1) {
+            return clients[0];
+        }
+        return clients[Math.floorMod(next.getAndIncrement(), clients.length)];
+    }
+
+    public void shutdown() {
+        for (MemcachedClient client : clients) {
+            if (client != null) {
+                client.shutdown(1, TimeUnit.SECONDS);
+            }
+        }
+    }
+}
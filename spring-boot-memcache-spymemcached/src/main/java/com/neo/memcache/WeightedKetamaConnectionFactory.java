@@ -0,0 +1,60 @@
+package com.neo.memcache;
+
+import com.neo.config.MemcacheSource;
+import net.spy.memcached.DefaultHashAlgorithm;
+import net.spy.memcached.FailureMode;
+import net.spy.memcached.KetamaConnectionFactory;
+import net.spy.memcached.KetamaNodeKeyFormatter;
+
+import java.net.InetSocketAddress;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 带权重的 Ketama 一致性哈希连接工厂。ConnectionFactoryBuilder 生成的 Ketama 定位器不支持权重，
+ * 所以直接继承 KetamaConnectionFactory，并用 MemcacheSource 中的配置覆盖超时、失败处理等默认值。
+ */
+public class WeightedKetamaConnectionFactory extends KetamaConnectionFactory {
+
+    private final MemcacheSource memcacheSource;
+
+    public WeightedKetamaConnectionFactory(MemcacheSource memcacheSource) {
+        super(DEFAULT_OP_QUEUE_LEN, DEFAULT_READ_BUFFER_SIZE, DEFAULT_OP_QUEUE_MAX_BLOCK_TIME,
+                DefaultHashAlgorithm.KETAMA_HASH, KetamaNodeKeyFormatter.Format.SPYMEMCACHED,
+                weights(memcacheSource.resolveServers()));
+        this.memcacheSource = memcacheSource;
+    }
+
+    public static List<InetSocketAddress> addresses(List<MemcacheSource.Server> servers) {
+        return servers.stream().map(server -> new InetSocketAddress(server.getHost(), server.getPort())).toList();
+    }
+
+    private static Map<InetSocketAddress, Integer> weights(List<MemcacheSource.Server> servers) {
+        Map<InetSocketAddress, Integer> weights = new LinkedHashMap<>();
+        for (MemcacheSource.Server server : servers) {
+            weights.put(new InetSocketAddress(server.getHost(), server.getPort()), Math.max(1, server.getWeight()));
+        }
+        return weights;
+    }
+
+    @Override
+    public FailureMode getFailureMode() {
+        return memcacheSource.getFailureMode();
+    }
+
+    @Override
+    public long getOperationTimeout() {
+        return memcacheSource.getOperationTimeout().toMillis();
+    }
+
+    @Override
+    public long getMaxReconnectDelay() {
+        return memcacheSource.getMaxReconnectDelay().getSeconds();
+    }
+
+    @Override
+    public boolean isDaemon() {
+        return true;
+    }
+}
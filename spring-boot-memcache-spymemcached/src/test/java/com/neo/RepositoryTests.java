@@ -1,6 +1,6 @@
 package com.neo;
 
-import com.neo.config.MemcachedRunner;
+import com.neo.config.MemcachedClientManager;
 import net.spy.memcached.MemcachedClient;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -14,11 +14,11 @@ import jakarta.annotation.Resource;
 public class RepositoryTests {
 
 	@Resource
-    private MemcachedRunner memcachedRunner;
+    private MemcachedClientManager memcachedClientManager;
 
 	@Test
 	public void testSetGet()  {
-		MemcachedClient memcachedClient = memcachedRunner.getClient();
+		MemcachedClient memcachedClient = memcachedClientManager.getClient();
 		memcachedClient.set("testkey",1000,"666666");
 		System.out.println("***********  "+memcachedClient.get("testkey").toString());
 	}
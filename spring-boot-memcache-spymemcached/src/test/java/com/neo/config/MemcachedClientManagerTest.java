@@ -0,0 +1,183 @@
+package com.neo.config;
+
+import com.neo.memcache.MemcacheWarmUpLoader;
+import com.neo.memcache.MemcachedCache;
+import com.neo.memcache.MemcachedClientPool;
+import net.spy.memcached.MemcachedClient;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.cache.CacheManager;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MemcachedClientManagerTest {
+
+    private static final List<SocketAddress> NODE = List.of(new InetSocketAddress("127.0.0.1", 11211));
+
+    private final MemcacheSource memcacheSource = new MemcacheSource();
+
+    private final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+
+    private final Deque<MemcachedClientPool> pools = new ArrayDeque<>();
+
+    private final AtomicInteger created = new AtomicInteger();
+
+    private MemcachedClientManager manager;
+
+    @After
+    public void tearDown() {
+        if (manager != null) {
+            manager.stop();
+        }
+    }
+
+    private MemcachedClientManager manager() {
+        memcacheSource.setIp("127.0.0.1");
+        memcacheSource.setPort(11211);
+        memcacheSource.setMaxReconnectDelay(Duration.ofMillis(100));
+        memcacheSource.setOperationTimeout(Duration.ofSeconds(5));
+        manager = new MemcachedClientManager(memcacheSource, beanFactory.getBeanProvider(CacheManager.class),
+                beanFactory.getBeanProvider(MemcacheWarmUpLoader.class)) {
+            @Override
+            protected MemcachedClientPool createPool() throws IOException {
+                created.incrementAndGet();
+                MemcachedClientPool pool = pools.poll();
+                if (pool == null) {
+                    throw new IOException("no more pools");
+                }
+                return pool;
+            }
+        };
+        return manager;
+    }
+
+    /**
+     * 前 unreachableChecks 次检查时没有可用节点，之后节点连上
+     */
+    private static MemcachedClientPool pool(MemcachedClient client, int unreachableChecks) {
+        AtomicInteger checks = new AtomicInteger();
+        when(client.getAvailableServers()).thenAnswer(i -> checks.incrementAndGet() > unreachableChecks ? NODE : List.of());
+        when(client.getUnavailableServers()).thenAnswer(i -> checks.get() > unreachableChecks ? List.of() : NODE);
+        MemcachedClientPool pool = mock(MemcachedClientPool.class);
+        when(pool.getClient()).thenReturn(client);
+        return pool;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            Assert.assertTrue(System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void waitsUntilANodeIsReachable() throws Exception {
+        MemcachedClient client = mock(MemcachedClient.class);
+        // 每轮等待 100ms，约检查 3 次，前两轮都连不上
+        pools.add(pool(client, 8));
+        MemcachedClientManager manager = manager();
+        MemcachedHealthIndicator health = new MemcachedHealthIndicator(manager);
+
+        manager.start();
+        Assert.assertNull(manager.getClientIfConnected());
+        await(() -> manager.getLastError() != null);
+        Assert.assertEquals(Status.DOWN, health.health().getStatus());
+
+        Assert.assertSame(client, manager.getClient());
+        await(() -> manager.getState() == MemcachedClientManager.State.READY);
+        Assert.assertNull(manager.getLastError());
+        Assert.assertEquals(1, created.get());
+        Assert.assertEquals(Status.UP, health.health().getStatus());
+    }
+
+    @Test
+    public void restartCreatesNewClient() throws Exception {
+        MemcachedClient first = mock(MemcachedClient.class);
+        MemcachedClient second = mock(MemcachedClient.class);
+        MemcachedClientPool firstPool = pool(first, 0);
+        pools.add(firstPool);
+        pools.add(pool(second, 0));
+        MemcachedClientManager manager = manager();
+
+        manager.start();
+        Assert.assertSame(first, manager.getClient());
+        manager.stop();
+        verify(firstPool).shutdown();
+        Assert.assertNull(manager.getClientIfConnected());
+        Assert.assertFalse(manager.isRunning());
+
+        manager.start();
+        Assert.assertSame(second, manager.getClient());
+    }
+
+    @Test
+    public void warmUpLoadsMissesBeforeReady() throws Exception {
+        MemcachedClient client = mock(MemcachedClient.class);
+        pools.add(pool(client, 0));
+        MemcachedCache cache = mock(MemcachedCache.class);
+        when(cache.getAll(anyCollection())).thenReturn(Map.of("1", "cached"));
+        CacheManager cacheManager = mock(CacheManager.class);
+        when(cacheManager.getCache("user")).thenReturn(cache);
+        CountDownLatch release = new CountDownLatch(1);
+        beanFactory.registerSingleton("cacheManager", cacheManager);
+        beanFactory.registerSingleton("warmUpLoader", (MemcacheWarmUpLoader) (cacheName, keys) -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Map.of("2", "loaded");
+        });
+        memcacheSource.getWarmUp().setEnabled(true);
+        memcacheSource.getWarmUp().setCacheName("user");
+        memcacheSource.getWarmUp().setKeys(List.of("1", "2", "3"));
+        MemcachedClientManager manager = manager();
+        MemcachedHealthIndicator health = new MemcachedHealthIndicator(manager);
+
+        manager.start();
+        await(() -> manager.getState() == MemcachedClientManager.State.WARMING_UP);
+        Assert.assertEquals(Status.OUT_OF_SERVICE, health.health().getStatus());
+        release.countDown();
+        await(() -> manager.getState() == MemcachedClientManager.State.READY);
+
+        verify(cache).put("2", "loaded");
+        Map<String, Object> result = manager.getWarmUpResult();
+        Assert.assertEquals(3, result.get("keys"));
+        Assert.assertEquals(1, result.get("hits"));
+        Assert.assertEquals(1, result.get("loaded"));
+        Assert.assertEquals(Status.UP, health.health().getStatus());
+    }
+
+    @Test
+    public void allNodesDownAfterConnectIsDown() throws Exception {
+        MemcachedClient client = mock(MemcachedClient.class);
+        pools.add(pool(client, 0));
+        MemcachedClientManager manager = manager();
+        MemcachedHealthIndicator health = new MemcachedHealthIndicator(manager);
+        manager.start();
+        await(() -> manager.getState() == MemcachedClientManager.State.READY);
+
+        when(client.getAvailableServers()).thenReturn(List.of());
+        Assert.assertEquals(Status.DOWN, health.health().getStatus());
+    }
+}
@@ -0,0 +1,124 @@
+package com.neo.memcache;
+
+import net.spy.memcached.MemcachedClientIF;
+import net.spy.memcached.internal.BulkFuture;
+import net.spy.memcached.internal.BulkGetCompletionListener;
+import net.spy.memcached.transcoders.SerializingTranscoder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BulkGetBatcherTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    private final List<Set<String>> bulks = new CopyOnWriteArrayList<>();
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void readsInWindowAreMergedIntoOneBulkGet() throws Exception {
+        MemcachedClientIF client = client();
+        BulkGetBatcher batcher = new BulkGetBatcher(() -> client, new SerializingTranscoder(), scheduler,
+                Duration.ofMillis(50), 100);
+        List<CompletableFuture<Object>> futures = new ArrayList<>();
+        for (String key : new String[]{"user:1", "user:2", "user:1", "user:9"}) {
+            futures.add(batcher.get(key));
+        }
+        Assert.assertEquals("v1", futures.get(0).get(1, TimeUnit.SECONDS));
+        Assert.assertEquals("v2", futures.get(1).get(1, TimeUnit.SECONDS));
+        Assert.assertSame(futures.get(0), futures.get(2));
+        Assert.assertNull(futures.get(3).get(1, TimeUnit.SECONDS));
+        Assert.assertEquals(1, bulks.size());
+        Assert.assertEquals(Set.of("user:1", "user:2", "user:9"), bulks.get(0));
+    }
+
+    @Test
+    public void fullBatchIsSentWithoutWaiting() throws Exception {
+        MemcachedClientIF client = client();
+        BulkGetBatcher batcher = new BulkGetBatcher(() -> client, new SerializingTranscoder(), scheduler,
+                Duration.ofMinutes(1), 2);
+        CompletableFuture<Object> first = batcher.get("user:1");
+        CompletableFuture<Object> second = batcher.get("user:2");
+        Assert.assertEquals("v1", first.get(1, TimeUnit.SECONDS));
+        Assert.assertEquals("v2", second.get(1, TimeUnit.SECONDS));
+        Assert.assertEquals(1, bulks.size());
+    }
+
+    @Test
+    public void clientIsResolvedOnCallerThread() throws Exception {
+        MemcachedClientIF client = client();
+        List<Thread> resolvers = new CopyOnWriteArrayList<>();
+        BulkGetBatcher batcher = new BulkGetBatcher(() -> {
+            // 真实的 supplier 在连接建立前会阻塞，不能占住定时器线程
+            resolvers.add(Thread.currentThread());
+            return client;
+        }, new SerializingTranscoder(), scheduler, Duration.ofMillis(20), 100);
+        Assert.assertEquals("v1", batcher.get("user:1").get(1, TimeUnit.SECONDS));
+        Assert.assertEquals(List.of(Thread.currentThread()), resolvers);
+    }
+
+    @Test
+    public void newClientStartsNewBatch() throws Exception {
+        MemcachedClientIF first = client();
+        MemcachedClientIF second = client();
+        MemcachedClientIF[] current = {first};
+        BulkGetBatcher batcher = new BulkGetBatcher(() -> current[0], new SerializingTranscoder(), scheduler,
+                Duration.ofMinutes(1), 2);
+        CompletableFuture<Object> before = batcher.get("user:1");
+        current[0] = second;
+        CompletableFuture<Object> after = batcher.get("user:2");
+        Assert.assertEquals("v1", before.get(1, TimeUnit.SECONDS));
+        Assert.assertFalse(after.isDone());
+        Assert.assertEquals(List.of(Set.of("user:1")), bulks);
+        verify(first).asyncGetBulk(anyCollection(), any(SerializingTranscoder.class));
+        verify(second, never()).asyncGetBulk(anyCollection(), any(SerializingTranscoder.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private MemcachedClientIF client() {
+        MemcachedClientIF client = mock(MemcachedClientIF.class);
+        when(client.asyncGetBulk(anyCollection(), any(SerializingTranscoder.class))).thenAnswer(invocation -> {
+            Collection<String> keys = invocation.getArgument(0);
+            bulks.add(Set.copyOf(keys));
+            Map<String, Object> values = new HashMap<>();
+            for (String key : keys) {
+                if (!key.equals("user:9")) {
+                    values.put(key, "v" + key.substring(key.indexOf(':') + 1));
+                }
+            }
+            BulkFuture<Map<String, Object>> future = mock(BulkFuture.class);
+            when(future.getSome(anyLong(), any())).thenReturn(values);
+            when(future.addListener(any())).thenAnswer(listener -> {
+                ((BulkGetCompletionListener) listener.getArgument(0)).onComplete(null);
+                return future;
+            });
+            return future;
+        });
+        return client;
+    }
+}
@@ -0,0 +1,103 @@
+package com.neo.memcache;
+
+import net.spy.memcached.MemcachedClientIF;
+import net.spy.memcached.internal.BulkFuture;
+import net.spy.memcached.internal.BulkGetCompletionListener;
+import net.spy.memcached.transcoders.SerializingTranscoder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MemcachedCacheTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private MemcachedCache cache(MemcachedClientIF client) {
+        SerializingTranscoder transcoder = new SerializingTranscoder();
+        BulkGetBatcher batcher = new BulkGetBatcher(() -> client, transcoder, scheduler, Duration.ofMillis(1), 100);
+        return new MemcachedCache("user", () -> client, transcoder, batcher, Duration.ZERO, Duration.ofSeconds(5),
+                true);
+    }
+
+    /**
+     * Memcached 中什么都没有
+     */
+    @SuppressWarnings("unchecked")
+    private static MemcachedClientIF emptyClient() {
+        MemcachedClientIF client = mock(MemcachedClientIF.class);
+        when(client.asyncGetBulk(anyCollection(), any(SerializingTranscoder.class))).thenAnswer(invocation -> {
+            BulkFuture<Map<String, Object>> future = mock(BulkFuture.class);
+            when(future.getSome(anyLong(), any())).thenReturn(Map.of());
+            when(future.addListener(any())).thenAnswer(listener -> {
+                ((BulkGetCompletionListener) listener.getArgument(0)).onComplete(null);
+                return future;
+            });
+            return future;
+        });
+        return client;
+    }
+
+    @Test
+    public void concurrentMissesLoadOnce() throws Exception {
+        MemcachedClientIF client = emptyClient();
+        MemcachedCache cache = cache(client);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> cache.get(1, () -> {
+                    loads.incrementAndGet();
+                    release.await();
+                    return "neo";
+                })));
+            }
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<String> result : results) {
+                Assert.assertEquals("neo", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(1, loads.get());
+        verify(client, times(1)).set(eq("user:1"), anyInt(), eq("neo"), any());
+    }
+
+    @Test
+    public void clearDoesNotFlushMemcached() {
+        MemcachedClientIF client = emptyClient();
+        cache(client).clear();
+        verify(client, never()).flush();
+    }
+}
@@ -0,0 +1,79 @@
+package com.neo.memcache;
+
+import com.neo.config.MemcacheSource;
+import net.spy.memcached.MemcachedNode;
+import net.spy.memcached.NodeLocator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class WeightedKetamaConnectionFactoryTest {
+
+    private static final int KEYS = 20000;
+
+    @Test
+    public void weightDecidesShareOfKeys() {
+        MemcacheSource source = source(2, 1, 1);
+        List<MemcachedNode> nodes = nodes(source);
+        NodeLocator locator = new WeightedKetamaConnectionFactory(source).createLocator(nodes);
+
+        Map<MemcachedNode, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(locator.getPrimary("user:" + i), 1, Integer::sum);
+        }
+        // 权重 2:1:1，第一个节点大约分到一半
+        Assert.assertEquals(0.5, counts.get(nodes.get(0)) / (double) KEYS, 0.08);
+    }
+
+    @Test
+    public void removingNodeOnlyMovesItsKeys() {
+        MemcacheSource source = source(1, 1, 1, 1);
+        List<MemcachedNode> nodes = nodes(source);
+        WeightedKetamaConnectionFactory factory = new WeightedKetamaConnectionFactory(source);
+        NodeLocator before = factory.createLocator(nodes);
+        NodeLocator after = factory.createLocator(nodes.subList(0, 3));
+
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String key = "user:" + i;
+            MemcachedNode primary = before.getPrimary(key);
+            if (primary != nodes.get(3)) {
+                Assert.assertSame(primary, after.getPrimary(key));
+            } else {
+                moved++;
+            }
+        }
+        Assert.assertEquals(0.25, moved / (double) KEYS, 0.08);
+    }
+
+    private static MemcacheSource source(int... weights) {
+        MemcacheSource source = new MemcacheSource();
+        List<MemcacheSource.Server> servers = new ArrayList<>();
+        for (int i = 0; i < weights.length; i++) {
+            MemcacheSource.Server server = new MemcacheSource.Server();
+            server.setHost("10.0.0." + (i + 1));
+            server.setWeight(weights[i]);
+            servers.add(server);
+        }
+        source.setServers(servers);
+        return source;
+    }
+
+    private static List<MemcachedNode> nodes(MemcacheSource source) {
+        List<MemcachedNode> nodes = new ArrayList<>();
+        for (InetSocketAddress address : WeightedKetamaConnectionFactory.addresses(source.getServers())) {
+            MemcachedNode node = mock(MemcachedNode.class);
+            when(node.getSocketAddress()).thenReturn(address);
+            nodes.add(node);
+        }
+        return nodes;
+    }
+}
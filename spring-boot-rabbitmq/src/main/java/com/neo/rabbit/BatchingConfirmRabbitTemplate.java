@@ -0,0 +1,232 @@
+package com.neo.rabbit;
+
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.batch.MessageBatch;
+import org.springframework.amqp.rabbit.batch.SimpleBatchingStrategy;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 带发布确认的批量发送 RabbitTemplate。
+ * <p>
+ * sendBatched 把发往同一 exchange + routingKey 的消息攒成一批，按 SimpleBatchingStrategy 的格式合并成一条 AMQP 消息发出，
+ * 消费端容器默认会自动拆批，原有的 @RabbitHandler 不需要改动。每条消息返回一个 CompletableFuture，
+ * 所在批次被 broker ack 时完成，nack 或发送失败时异常完成。
+ * <p>
+ * BatchingRabbitTemplate 在带 CorrelationData 时不做批量，且一批只能发往一个目的地，所以这里按目的地分别攒批，
+ * 每批使用一个 CorrelationData。需要 spring.rabbitmq.publisher-confirm-type=correlated，未开启时启动失败；
+ * 一批超过 rabbit.publish.confirm-timeout 仍未确认时，它的 future 以 TimeoutException 结束。
+ * <p>
+ * 拆批后的消息共用批消息的属性，因此只有除 messageId 外属性都相同（头、contentType、correlationId 等）的消息才合并，
+ * 属性不同的消息到来时先把已有的一批发出去。为了让消费端仍能按 messageId 去重，批消息带一个生成的 messageId，
+ * 调用方自己设置的 messageId 按下标放在 x-message-ids 头中，由 MessageIdBatchingStrategy 在拆批时还原。
+ */
+public class BatchingConfirmRabbitTemplate extends RabbitTemplate {
+
+    private final Map<Destination, Batch> batches = new ConcurrentHashMap<>();
+
+    private final RabbitSource.Publish publish;
+
+    private final TaskScheduler scheduler;
+
+    /**
+     * 生成 messageId 用的前缀和序号，前缀每个实例随机一次，避免每条消息调用 UUID.randomUUID
+     */
+    private final String idPrefix = UUID.randomUUID().toString();
+
+    private final AtomicLong idSequence = new AtomicLong();
+
+    public BatchingConfirmRabbitTemplate(ConnectionFactory connectionFactory, RabbitSource.Publish publish,
+                                         TaskScheduler scheduler) {
+        super(connectionFactory);
+        this.publish = publish;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * 没有发布确认时 CorrelationData 永远不会完成，所有 sendBatched 的 future 都会挂起，因此直接拒绝启动
+     */
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        if (!getConnectionFactory().isPublisherConfirms()) {
+            throw new IllegalStateException("BatchingConfirmRabbitTemplate requires publisher confirms, "
+                    + "set spring.rabbitmq.publisher-confirm-type=correlated");
+        }
+    }
+
+    public CompletableFuture<Void> sendBatched(String exchange, String routingKey, Object payload) {
+        return sendBatched(exchange, routingKey, getMessageConverter().toMessage(payload, new MessageProperties()));
+    }
+
+    public CompletableFuture<Void> sendBatched(String exchange, String routingKey, Message message) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        if (publish.getBatchSize() <= 1) {
+            send(exchange, routingKey, List.of(message), List.of(future));
+            return future;
+        }
+        Destination destination = new Destination(exchange, routingKey);
+        Batch batch = batches.computeIfAbsent(destination, d -> new Batch());
+        synchronized (batch) {
+            int bytes = message.getBody().length + Integer.BYTES;
+            // 加入后超出字节上限，或属性与这一批不同（拆批后会丢失）时，先把已有的发出去
+            if (!batch.messages.isEmpty() && (batch.bytes + bytes > publish.getBufferLimit()
+                    || !sameProperties(batch.messages.get(0).getMessageProperties(), message.getMessageProperties()))) {
+                release(destination, batch);
+            }
+            batch.messages.add(message);
+            batch.futures.add(future);
+            batch.bytes += bytes;
+            if (batch.messages.size() >= publish.getBatchSize() || batch.bytes >= publish.getBufferLimit()) {
+                release(destination, batch);
+            } else if (batch.timer == null) {
+                batch.timer = scheduler.schedule(() -> flush(destination, batch),
+                        Instant.now().plus(publish.getTimeout()));
+            }
+        }
+        return future;
+    }
+
+    /**
+     * 立即发出所有未满的批次
+     */
+    public void flush() {
+        batches.forEach(this::flush);
+    }
+
+    private void flush(Destination destination, Batch batch) {
+        synchronized (batch) {
+            if (!batch.messages.isEmpty()) {
+                release(destination, batch);
+            }
+        }
+    }
+
+    private void release(Destination destination, Batch batch) {
+        List<Message> messages = batch.messages;
+        List<CompletableFuture<Void>> futures = batch.futures;
+        batch.messages = new ArrayList<>();
+        batch.futures = new ArrayList<>();
+        batch.bytes = 0;
+        if (batch.timer != null) {
+            batch.timer.cancel(false);
+            batch.timer = null;
+        }
+        send(destination.exchange(), destination.routingKey(), messages, futures);
+    }
+
+    private void send(String exchange, String routingKey, List<Message> messages, List<CompletableFuture<Void>> futures) {
+        CorrelationData correlationData = new CorrelationData();
+        // 确认丢失（如连接断开）时不让调用方一直等待
+        correlationData.getFuture().orTimeout(publish.getConfirmTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        correlationData.getFuture().whenComplete((confirm, ex) -> {
+            for (CompletableFuture<Void> future : futures) {
+                if (ex != null) {
+                    future.completeExceptionally(ex);
+                } else if (confirm.isAck()) {
+                    future.complete(null);
+                } else {
+                    future.completeExceptionally(new AmqpException("Message nacked by broker: " + confirm.getReason()));
+                }
+            }
+        });
+        try {
+            send(exchange, routingKey, toBatchMessage(messages), correlationData);
+        } catch (RuntimeException e) {
+            // 失败通过每条消息的 future 通知调用方，不抛给恰好触发本批发送的那个调用方
+            correlationData.getFuture().completeExceptionally(e);
+        }
+    }
+
+    private Message toBatchMessage(List<Message> messages) {
+        if (messages.size() == 1) {
+            Message message = messages.get(0);
+            if (message.getMessageProperties().getMessageId() == null) {
+                message.getMessageProperties().setMessageId(nextMessageId());
+            }
+            return message;
+        }
+        Map<String, Object> messageIds = new HashMap<>();
+        for (int i = 0; i < messages.size(); i++) {
+            String messageId = messages.get(i).getMessageProperties().getMessageId();
+            if (messageId != null) {
+                messageIds.put(Integer.toString(i), messageId);
+            }
+        }
+        SimpleBatchingStrategy strategy = new SimpleBatchingStrategy(messages.size(), Integer.MAX_VALUE, 0);
+        MessageBatch batch = null;
+        for (Message message : messages) {
+            batch = strategy.addToBatch("", "", message);
+        }
+        // 批消息的属性就是第一条消息的属性对象，它原来的 messageId 已经记在 messageIds 中
+        MessageProperties properties = batch.getMessage().getMessageProperties();
+        properties.setMessageId(nextMessageId());
+        if (!messageIds.isEmpty()) {
+            properties.setHeader(MessageIdBatchingStrategy.MESSAGE_IDS_HEADER, messageIds);
+        }
+        return batch.getMessage();
+    }
+
+    /**
+     * 拆批时每条消息都会得到批消息（即第一条消息）的这些属性；messageId 单独记录，contentLength 随消息体变化，不比较
+     */
+    static boolean sameProperties(MessageProperties a, MessageProperties b) {
+        return Objects.equals(a.getHeaders(), b.getHeaders())
+                && Objects.equals(a.getContentType(), b.getContentType())
+                && Objects.equals(a.getContentEncoding(), b.getContentEncoding())
+                && Objects.equals(a.getCorrelationId(), b.getCorrelationId())
+                && Objects.equals(a.getReplyTo(), b.getReplyTo())
+                && Objects.equals(a.getType(), b.getType())
+                && Objects.equals(a.getUserId(), b.getUserId())
+                && Objects.equals(a.getAppId(), b.getAppId())
+                && Objects.equals(a.getClusterId(), b.getClusterId())
+                && Objects.equals(a.getPriority(), b.getPriority())
+                && Objects.equals(a.getExpiration(), b.getExpiration())
+                && Objects.equals(a.getTimestamp(), b.getTimestamp())
+                && a.getDeliveryMode() == b.getDeliveryMode();
+    }
+
+    private String nextMessageId() {
+        return idPrefix + "-" + Long.toString(idSequence.incrementAndGet(), 36);
+    }
+
+    /**
+     * 关闭前发出还在攒批的消息
+     */
+    @Override
+    public void destroy() {
+        flush();
+        super.destroy();
+    }
+
+    private record Destination(String exchange, String routingKey) {
+    }
+
+    private static final class Batch {
+
+        private List<Message> messages = new ArrayList<>();
+
+        private List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+        private int bytes;
+
+        private ScheduledFuture<?> timer;
+    }
+}
@@ -0,0 +1,47 @@
+package com.neo.rabbit;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.MessagePropertiesBuilder;
+import org.springframework.amqp.rabbit.batch.SimpleBatchingStrategy;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 消费端拆批策略：与 SimpleBatchingStrategy 格式相同，但每条拆出的消息有独立的属性和 messageId。
+ * 其余属性取自批消息，BatchingConfirmRabbitTemplate 只合并这些属性相同的消息，拆出后与发送时一致。
+ * 第 i 条消息的 messageId 优先取 x-message-ids 头中发送方设置的值，否则为 "批消息 messageId:i"，
+ * 同一条批消息重投时得到的 messageId 不变。
+ */
+public class MessageIdBatchingStrategy extends SimpleBatchingStrategy {
+
+    /**
+     * 批消息头，下标（字符串）到发送方设置的 messageId
+     */
+    public static final String MESSAGE_IDS_HEADER = "x-message-ids";
+
+    public MessageIdBatchingStrategy() {
+        super(0, 0, 0L);
+    }
+
+    @Override
+    public void deBatch(Message message, Consumer<Message> fragmentListener) {
+        MessageProperties batchProperties = message.getMessageProperties();
+        Object header = batchProperties.getHeaders().remove(MESSAGE_IDS_HEADER);
+        Map<?, ?> messageIds = header instanceof Map<?, ?> map ? map : Map.of();
+        String batchId = batchProperties.getMessageId();
+        int[] index = {0};
+        super.deBatch(message, fragment -> {
+            String key = Integer.toString(index[0]++);
+            Object messageId = messageIds.get(key);
+            // 父类拆出的消息共用同一个属性对象，批量消费时会被放进同一个 List，这里逐条复制
+            MessageProperties properties = MessagePropertiesBuilder
+                    .fromClonedProperties(fragment.getMessageProperties())
+                    .setMessageId(messageId != null ? messageId.toString()
+                            : batchId != null ? batchId + ":" + key : null)
+                    .build();
+            fragmentListener.accept(new Message(fragment.getBody(), properties));
+        });
+    }
+}
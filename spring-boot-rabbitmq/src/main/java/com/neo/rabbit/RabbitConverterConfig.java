@@ -0,0 +1,27 @@
+package com.neo.rabbit;
+
+import com.neo.rabbit.codec.CompactMessageConverter;
+import com.neo.rabbit.codec.MessageCodec;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.amqp.support.converter.SimpleMessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+
+@Configuration
+public class RabbitConverterConfig {
+
+    /**
+     * Spring Boot 会把唯一的 MessageConverter 同时用于 RabbitTemplate 和监听容器工厂
+     */
+    @Bean
+    public MessageConverter rabbitMessageConverter(RabbitSource rabbitSource, List<MessageCodec<?>> codecs) {
+        RabbitSource.Converter converter = rabbitSource.getConverter();
+        if (converter.getType() == RabbitSource.Converter.Type.JAVA) {
+            return new SimpleMessageConverter();
+        }
+        return new CompactMessageConverter(codecs, converter.getCompressThreshold(), new SimpleMessageConverter());
+    }
+}
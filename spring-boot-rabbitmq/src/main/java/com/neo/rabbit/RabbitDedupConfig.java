@@ -0,0 +1,39 @@
+package com.neo.rabbit;
+
+import com.neo.rabbit.dedup.DeduplicationInterceptor;
+import com.neo.rabbit.dedup.MessageDeduplicator;
+import com.neo.rabbit.dedup.RedisDedupStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+
+/**
+ * 消费端去重，只有配置了 rabbit.queues.{queue}.dedup=true 的队列创建容器时才会初始化
+ */
+@Configuration
+public class RabbitDedupConfig {
+
+    @Bean
+    @Lazy
+    public MessageDeduplicator messageDeduplicator(RabbitSource rabbitSource,
+                                                   ObjectProvider<RedisDedupStore> redisDedupStore) {
+        return new MessageDeduplicator(rabbitSource.getDedup(), redisDedupStore.getIfAvailable());
+    }
+
+    @Bean
+    @Lazy
+    public DeduplicationInterceptor deduplicationInterceptor(MessageDeduplicator messageDeduplicator) {
+        return new DeduplicationInterceptor(messageDeduplicator);
+    }
+
+    @Bean
+    @Lazy
+    @ConditionalOnProperty(prefix = "rabbit.dedup.redis", name = "enabled", havingValue = "true")
+    public RedisDedupStore redisDedupStore(StringRedisTemplate redisTemplate, RabbitSource rabbitSource) {
+        return new RedisDedupStore(redisTemplate, rabbitSource.getDedup().getRedis());
+    }
+}
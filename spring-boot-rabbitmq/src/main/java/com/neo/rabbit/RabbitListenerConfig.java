@@ -0,0 +1,153 @@
+package com.neo.rabbit;
+
+import com.neo.rabbit.dedup.DeduplicationInterceptor;
+import com.neo.rabbit.metrics.ListenerMetricsInterceptor;
+import com.neo.rabbit.virtual.VirtualThreadListenerContainer;
+import com.neo.rabbit.virtual.VirtualThreadRabbitListenerContainerFactory;
+import org.aopalliance.aop.Advice;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.rabbit.config.ContainerCustomizer;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+@Configuration
+public class RabbitListenerConfig {
+
+    protected Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final RabbitSource rabbitSource;
+
+    private final ObjectProvider<DeduplicationInterceptor> deduplicationInterceptor;
+
+    private final ObjectProvider<ListenerMetricsInterceptor> listenerMetricsInterceptor;
+
+    public RabbitListenerConfig(RabbitSource rabbitSource,
+                                ObjectProvider<DeduplicationInterceptor> deduplicationInterceptor,
+                                ObjectProvider<ListenerMetricsInterceptor> listenerMetricsInterceptor) {
+        this.rabbitSource = rabbitSource;
+        this.deduplicationInterceptor = deduplicationInterceptor;
+        this.listenerMetricsInterceptor = listenerMetricsInterceptor;
+    }
+
+    /**
+     * 逐条消费，替代 Spring Boot 默认的同名工厂，按队列应用 rabbit.queues.* 中的 prefetch、并发数和去重，
+     * 开启 rabbit.metrics 时记录监听指标。
+     * 各工厂都用 MessageIdBatchingStrategy 拆批，拆出的每条消息有自己的 messageId
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchingStrategy(new MessageIdBatchingStrategy());
+        factory.setContainerCustomizer(queueCustomizer(factory));
+        return factory;
+    }
+
+    /**
+     * 批量消费：监听方法参数为 List&lt;Message&gt;，凑满 batch-size 条或等待 receive-timeout 后调用一次，
+     * 方法正常返回后整批一起 ack，抛出异常则整批拒绝
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory batchRabbitListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchingStrategy(new MessageIdBatchingStrategy());
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setContainerCustomizer(queueCustomizer(factory));
+        return factory;
+    }
+
+    /**
+     * 阻塞型监听方法使用：每条投递在独立的虚拟线程中处理，处理完成后逐条确认，
+     * 同一队列同时处理的消息数由 rabbit.queues.{queue}.max-in-flight（默认 rabbit.virtual-threads.max-in-flight）限制。
+     * 不保证同一队列内的处理顺序，用法：@RabbitListener(containerFactory = "virtualThreadRabbitListenerContainerFactory")
+     */
+    @Bean
+    public VirtualThreadRabbitListenerContainerFactory virtualThreadRabbitListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory) {
+        VirtualThreadRabbitListenerContainerFactory factory = new VirtualThreadRabbitListenerContainerFactory(queue -> {
+            RabbitSource.QueueListener listener = rabbitSource.getQueues().get(queue);
+            return listener != null && listener.getMaxInFlight() != null ? listener.getMaxInFlight()
+                    : rabbitSource.getVirtualThreads().getMaxInFlight();
+        });
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchingStrategy(new MessageIdBatchingStrategy());
+        factory.setContainerCustomizer(queueCustomizer(factory));
+        return factory;
+    }
+
+    /**
+     * 按队列调整容器参数并组装拦截器链：指标、去重，最后是工厂上已有的 advice（spring.rabbitmq.listener.simple.retry.*
+     * 开启时为 Spring Boot 配置的重试拦截器）。容器创建时工厂的 advice 已经设置到容器上，这里整体替换，因此要带上它们
+     */
+    private ContainerCustomizer<SimpleMessageListenerContainer> queueCustomizer(
+            SimpleRabbitListenerContainerFactory factory) {
+        return container -> {
+            boolean dedup = false;
+            for (String queue : container.getQueueNames()) {
+                RabbitSource.QueueListener listener = rabbitSource.getQueues().get(queue);
+                if (listener != null) {
+                    apply(container, listener);
+                    dedup |= listener.isDedup();
+                }
+            }
+            // 指标在最外层，被去重跳过的消息也计入投递和确认
+            List<Advice> adviceChain = new ArrayList<>();
+            ListenerMetricsInterceptor metrics = listenerMetricsInterceptor.getIfAvailable();
+            if (metrics != null) {
+                metrics.track(container.getQueueNames());
+                adviceChain.add(metrics);
+            }
+            if (dedup) {
+                // 虚拟线程容器虽然是 MANUAL 模式，但同样在监听方法返回后由容器确认
+                if (container.getAcknowledgeMode() == AcknowledgeMode.AUTO
+                        || container instanceof VirtualThreadListenerContainer) {
+                    adviceChain.add(deduplicationInterceptor.getObject());
+                } else {
+                    logger.warn("Dedup ignored for {}: requires AcknowledgeMode.AUTO",
+                            String.join(",", container.getQueueNames()));
+                }
+            }
+            // 重试在最内层，一次投递的多次重试只计一次投递，去重也只判断一次
+            if (factory.getAdviceChain() != null) {
+                adviceChain.addAll(Arrays.asList(factory.getAdviceChain()));
+            }
+            if (!adviceChain.isEmpty()) {
+                container.setAdviceChain(adviceChain.toArray(new Advice[0]));
+            }
+        };
+    }
+
+    private static void apply(SimpleMessageListenerContainer container, RabbitSource.QueueListener listener) {
+        if (listener.getPrefetch() != null) {
+            container.setPrefetchCount(listener.getPrefetch());
+        }
+        if (listener.getMaxConcurrency() != null) {
+            container.setMaxConcurrentConsumers(listener.getMaxConcurrency());
+        }
+        if (listener.getConcurrency() != null) {
+            container.setConcurrentConsumers(listener.getConcurrency());
+        }
+        if (listener.getBatchSize() != null) {
+            container.setBatchSize(listener.getBatchSize());
+        }
+        if (listener.getReceiveTimeout() != null) {
+            container.setReceiveTimeout(listener.getReceiveTimeout().toMillis());
+        }
+    }
+}
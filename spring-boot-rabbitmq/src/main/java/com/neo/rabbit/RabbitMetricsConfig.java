@@ -0,0 +1,44 @@
+package com.neo.rabbit;
+
+import com.neo.rabbit.metrics.ListenerMetrics;
+import com.neo.rabbit.metrics.ListenerMetricsInterceptor;
+import com.neo.rabbit.metrics.QueueDepthSampler;
+import com.neo.rabbit.metrics.RabbitListenersEndpoint;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.boot.autoconfigure.amqp.RabbitProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+
+/**
+ * 每个监听队列的 Micrometer 指标和 rabbitlisteners 端点，rabbit.metrics.enabled=false 时关闭
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "rabbit.metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RabbitMetricsConfig {
+
+    @Bean
+    public ListenerMetrics listenerMetrics(MeterRegistry meterRegistry) {
+        return new ListenerMetrics(meterRegistry);
+    }
+
+    @Bean
+    public ListenerMetricsInterceptor listenerMetricsInterceptor(ListenerMetrics listenerMetrics,
+                                                                 RabbitProperties rabbitProperties) {
+        Boolean requeue = rabbitProperties.getListener().getSimple().getDefaultRequeueRejected();
+        return new ListenerMetricsInterceptor(listenerMetrics, requeue == null || requeue);
+    }
+
+    @Bean
+    public QueueDepthSampler queueDepthSampler(ListenerMetrics listenerMetrics, AmqpAdmin amqpAdmin,
+                                               RabbitSource rabbitSource) {
+        return new QueueDepthSampler(listenerMetrics, amqpAdmin, rabbitSource.getMetrics().getSampleInterval());
+    }
+
+    @Bean
+    public RabbitListenersEndpoint rabbitListenersEndpoint(ListenerMetrics listenerMetrics) {
+        return new RabbitListenersEndpoint(listenerMetrics);
+    }
+}
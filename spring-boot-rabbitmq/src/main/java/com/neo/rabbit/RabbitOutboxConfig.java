@@ -0,0 +1,37 @@
+package com.neo.rabbit;
+
+import com.neo.rabbit.outbox.JdbcOutboxStore;
+import com.neo.rabbit.outbox.Outbox;
+import com.neo.rabbit.outbox.OutboxRelay;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+
+/**
+ * rabbit.outbox.enabled=true 时启用，需要应用提供 DataSource
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "rabbit.outbox", name = "enabled", havingValue = "true")
+public class RabbitOutboxConfig {
+
+    @Bean
+    public JdbcOutboxStore outboxStore(RabbitSource rabbitSource) {
+        RabbitSource.Outbox outbox = rabbitSource.getOutbox();
+        return new JdbcOutboxStore(outbox.getTable(), outbox.isSkipLocked());
+    }
+
+    @Bean
+    public Outbox outbox(JdbcOutboxStore outboxStore, MessageConverter messageConverter) {
+        return new Outbox(outboxStore, messageConverter);
+    }
+
+    @Bean
+    public OutboxRelay outboxRelay(DataSource dataSource, JdbcOutboxStore outboxStore,
+                                   BatchingConfirmRabbitTemplate rabbitTemplate, RabbitSource rabbitSource) {
+        return new OutboxRelay(dataSource, outboxStore, rabbitTemplate, rabbitSource.getOutbox());
+    }
+}
@@ -0,0 +1,38 @@
+package com.neo.rabbit;
+
+import com.neo.rabbit.partition.PartitionedListener;
+import com.neo.rabbit.partition.PartitionedListenerConfigurer;
+import com.neo.rabbit.partition.PartitionedQueues;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.stream.Collectors;
+
+
+@Configuration
+public class RabbitPartitionConfig {
+
+    @Bean
+    public PartitionedQueues partitionedQueues(BatchingConfirmRabbitTemplate rabbitTemplate, RabbitSource rabbitSource) {
+        return new PartitionedQueues(rabbitTemplate, rabbitSource.getPartitions());
+    }
+
+    /**
+     * 每个分区流的 exchange、分区队列和绑定，由 RabbitAdmin 在连接建立时声明
+     */
+    @Bean
+    public Declarables partitionedDeclarables(PartitionedQueues partitionedQueues) {
+        return partitionedQueues.declarables();
+    }
+
+    @Bean
+    public PartitionedListenerConfigurer partitionedListenerConfigurer(PartitionedQueues partitionedQueues,
+                                                                       ObjectProvider<PartitionedListener<?>> listeners,
+                                                                       MessageConverter messageConverter) {
+        return new PartitionedListenerConfigurer(partitionedQueues,
+                listeners.orderedStream().collect(Collectors.toList()), messageConverter);
+    }
+}
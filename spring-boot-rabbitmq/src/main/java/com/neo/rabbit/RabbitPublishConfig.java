@@ -0,0 +1,36 @@
+package com.neo.rabbit;
+
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.boot.autoconfigure.amqp.RabbitTemplateConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+
+@Configuration
+public class RabbitPublishConfig {
+
+    /**
+     * 替代 Spring Boot 默认的 RabbitTemplate，spring.rabbitmq.template.* 配置仍然生效
+     */
+    @Bean
+    public BatchingConfirmRabbitTemplate rabbitTemplate(RabbitTemplateConfigurer configurer,
+                                                        ConnectionFactory connectionFactory,
+                                                        RabbitSource rabbitSource) {
+        BatchingConfirmRabbitTemplate template = new BatchingConfirmRabbitTemplate(connectionFactory,
+                rabbitSource.getPublish(), rabbitPublishScheduler());
+        configurer.configure(template, connectionFactory);
+        return template;
+    }
+
+    /**
+     * 到时发出未满批次的定时器
+     */
+    @Bean
+    public ThreadPoolTaskScheduler rabbitPublishScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix("rabbit-publish-");
+        scheduler.setDaemon(true);
+        return scheduler;
+    }
+}
@@ -0,0 +1,534 @@
+package com.neo.rabbit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 消息收发相关配置，对应 application.properties 中 rabbit.* 前缀
+ */
+@Component
+@ConfigurationProperties(prefix = "rabbit")
+public class RabbitSource {
+
+    private final Publish publish = new Publish();
+
+    private final Converter converter = new Converter();
+
+    private final Outbox outbox = new Outbox();
+
+    private final Dedup dedup = new Dedup();
+
+    private final VirtualThreads virtualThreads = new VirtualThreads();
+
+    private final Metrics metrics = new Metrics();
+
+    /**
+     * 按队列名配置的消费参数，未配置的项沿用 spring.rabbitmq.listener.simple.*
+     */
+    private Map<String, QueueListener> queues = new LinkedHashMap<>();
+
+    /**
+     * 按 key 分区的消息流，key 为流名称，同时用作 exchange 名和队列名前缀
+     */
+    private Map<String, Partitioned> partitions = new LinkedHashMap<>();
+
+    public Publish getPublish() {
+        return publish;
+    }
+
+    public Converter getConverter() {
+        return converter;
+    }
+
+    public Outbox getOutbox() {
+        return outbox;
+    }
+
+    public Dedup getDedup() {
+        return dedup;
+    }
+
+    public VirtualThreads getVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public Map<String, QueueListener> getQueues() {
+        return queues;
+    }
+
+    public void setQueues(Map<String, QueueListener> queues) {
+        this.queues = queues;
+    }
+
+    public Map<String, Partitioned> getPartitions() {
+        return partitions;
+    }
+
+    public void setPartitions(Map<String, Partitioned> partitions) {
+        this.partitions = partitions;
+    }
+
+    /**
+     * 批量发送配置：同一 exchange + routingKey 的消息攒够 batchSize 条、bufferLimit 字节或等待 timeout 后合并成一条发出
+     */
+    public static class Publish {
+
+        /**
+         * 每批最多消息数，1 表示不合并，逐条发送但仍异步确认
+         */
+        private int batchSize = 100;
+
+        /**
+         * 每批消息体总字节数上限
+         */
+        private int bufferLimit = 64 * 1024;
+
+        /**
+         * 一批中第一条消息最多等待多久就发出
+         */
+        private Duration timeout = Duration.ofMillis(10);
+
+        /**
+         * 一批发出后等待 broker 确认的最长时间，超时未确认时这批消息的 future 以 TimeoutException 结束
+         */
+        private Duration confirmTimeout = Duration.ofSeconds(30);
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getBufferLimit() {
+            return bufferLimit;
+        }
+
+        public void setBufferLimit(int bufferLimit) {
+            this.bufferLimit = bufferLimit;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public Duration getConfirmTimeout() {
+            return confirmTimeout;
+        }
+
+        public void setConfirmTimeout(Duration confirmTimeout) {
+            this.confirmTimeout = confirmTimeout;
+        }
+    }
+
+    /**
+     * 消息体编码方式，收发两端共用
+     */
+    public static class Converter {
+
+        /**
+         * COMPACT 使用注册的 MessageCodec 紧凑编码，没有 codec 的类型仍走 Java 序列化；JAVA 全部使用 Java 序列化
+         */
+        private Type type = Type.COMPACT;
+
+        /**
+         * 编码后不小于该字节数的消息体用 Snappy 压缩，0 表示不压缩
+         */
+        private int compressThreshold = 512;
+
+        public Type getType() {
+            return type;
+        }
+
+        public void setType(Type type) {
+            this.type = type;
+        }
+
+        public int getCompressThreshold() {
+            return compressThreshold;
+        }
+
+        public void setCompressThreshold(int compressThreshold) {
+            this.compressThreshold = compressThreshold;
+        }
+
+        public enum Type {
+            COMPACT, JAVA
+        }
+    }
+
+    /**
+     * 事务外发表（outbox）：业务在自己的 JDBC 事务中写入消息，后台 relay 批量发布并删除已确认的行。
+     * 需要应用中有 DataSource，建表语句见 outbox-schema.sql
+     */
+    public static class Outbox {
+
+        private boolean enabled = false;
+
+        private String table = "outbox";
+
+        /**
+         * 每次读取并发布的最大行数
+         */
+        private int batchSize = 100;
+
+        /**
+         * 表为空或上一批不满时，等待多久再查询
+         */
+        private Duration pollInterval = Duration.ofMillis(200);
+
+        /**
+         * 一批消息等待 broker 确认的最长时间，超时未确认的行保留到下一轮重发
+         */
+        private Duration confirmTimeout = Duration.ofSeconds(10);
+
+        /**
+         * 查询时加 FOR UPDATE SKIP LOCKED，多个实例同时运行 relay 时各自取不同的行；数据库需支持该语法
+         */
+        private boolean skipLocked = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getTable() {
+            return table;
+        }
+
+        public void setTable(String table) {
+            this.table = table;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public Duration getConfirmTimeout() {
+            return confirmTimeout;
+        }
+
+        public void setConfirmTimeout(Duration confirmTimeout) {
+            this.confirmTimeout = confirmTimeout;
+        }
+
+        public boolean isSkipLocked() {
+            return skipLocked;
+        }
+
+        public void setSkipLocked(boolean skipLocked) {
+            this.skipLocked = skipLocked;
+        }
+    }
+
+    /**
+     * 消费端按 messageId 去重，对 rabbit.queues.{queue}.dedup=true 的队列生效。
+     * 本地用两代轮换的 Bloom 过滤器快速排除新消息，过滤器命中时再查最近处理过的 messageId 确认；
+     * 开启 redis 后确认范围扩展到所有节点在 ttl 内处理过的消息
+     */
+    public static class Dedup {
+
+        /**
+         * 每代 Bloom 过滤器容纳的 messageId 数，写满后轮换，内存约为 2 * expectedInsertions * 14.4 bit（fpp=0.001 时）
+         */
+        private int expectedInsertions = 1_000_000;
+
+        /**
+         * 单代过滤器的误判率，两代同时查询时约为两倍
+         */
+        private double fpp = 0.001;
+
+        /**
+         * 本地精确记录的最近 messageId 数，不开启 redis 时也是能确认重复的窗口大小
+         */
+        private int recentSize = 10_000;
+
+        private final Redis redis = new Redis();
+
+        public int getExpectedInsertions() {
+            return expectedInsertions;
+        }
+
+        public void setExpectedInsertions(int expectedInsertions) {
+            this.expectedInsertions = expectedInsertions;
+        }
+
+        public double getFpp() {
+            return fpp;
+        }
+
+        public void setFpp(double fpp) {
+            this.fpp = fpp;
+        }
+
+        public int getRecentSize() {
+            return recentSize;
+        }
+
+        public void setRecentSize(int recentSize) {
+            this.recentSize = recentSize;
+        }
+
+        public Redis getRedis() {
+            return redis;
+        }
+
+        /**
+         * 跨节点去重，使用 spring.data.redis.* 配置的连接
+         */
+        public static class Redis {
+
+            private boolean enabled = false;
+
+            private String keyPrefix = "rabbit:dedup:";
+
+            /**
+             * 已处理 messageId 在 Redis 中保留的时间
+             */
+            private Duration ttl = Duration.ofHours(1);
+
+            /**
+             * 写入 Redis 的间隔，期间处理的 messageId 合并成一次 pipeline 写入
+             */
+            private Duration flushInterval = Duration.ofMillis(50);
+
+            /**
+             * false 时只有本地过滤器命中或 broker 标记为重投的消息才查询 Redis；
+             * true 时每条消息都查询，可以发现发送方重复发布到其它节点的消息，代价是每条消息一次往返
+             */
+            private boolean checkAll = false;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public String getKeyPrefix() {
+                return keyPrefix;
+            }
+
+            public void setKeyPrefix(String keyPrefix) {
+                this.keyPrefix = keyPrefix;
+            }
+
+            public Duration getTtl() {
+                return ttl;
+            }
+
+            public void setTtl(Duration ttl) {
+                this.ttl = ttl;
+            }
+
+            public Duration getFlushInterval() {
+                return flushInterval;
+            }
+
+            public void setFlushInterval(Duration flushInterval) {
+                this.flushInterval = flushInterval;
+            }
+
+            public boolean isCheckAll() {
+                return checkAll;
+            }
+
+            public void setCheckAll(boolean checkAll) {
+                this.checkAll = checkAll;
+            }
+        }
+    }
+
+    /**
+     * virtualThreadRabbitListenerContainerFactory 的参数：每条投递在一个虚拟线程中处理（JDK 21 以下为平台线程）
+     */
+    public static class VirtualThreads {
+
+        /**
+         * 每个队列同时处理的消息数上限，rabbit.queues.{queue}.max-in-flight 可按队列覆盖
+         */
+        private int maxInFlight = 1000;
+
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        public void setMaxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+    }
+
+    /**
+     * 监听指标，见 ListenerMetrics 和 /actuator/rabbitlisteners
+     */
+    public static class Metrics {
+
+        private boolean enabled = true;
+
+        /**
+         * 从 broker 查询队列积压的间隔，也是 deliveriesPerSecond 的统计周期
+         */
+        private Duration sampleInterval = Duration.ofSeconds(10);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getSampleInterval() {
+            return sampleInterval;
+        }
+
+        public void setSampleInterval(Duration sampleInterval) {
+            this.sampleInterval = sampleInterval;
+        }
+    }
+
+    /**
+     * 单个队列的消费参数，为 null 的项不覆盖默认值
+     */
+    public static class QueueListener {
+
+        /**
+         * 每个消费者未确认消息的上限
+         */
+        private Integer prefetch;
+
+        /**
+         * 最少消费者数
+         */
+        private Integer concurrency;
+
+        /**
+         * 最多消费者数，消息积压时在 concurrency 和它之间自动扩容
+         */
+        private Integer maxConcurrency;
+
+        /**
+         * 批量消费时一批最多的消息数
+         */
+        private Integer batchSize;
+
+        /**
+         * 批量消费时等待凑批的最长时间，超时后把已收到的消息作为一批交给监听方法
+         */
+        private Duration receiveTimeout;
+
+        /**
+         * 按 messageId 丢弃已处理过的消息，参数见 rabbit.dedup.*；只对自动确认（AUTO）的容器生效
+         */
+        private boolean dedup = false;
+
+        /**
+         * 使用 virtualThreadRabbitListenerContainerFactory 时该队列同时处理的消息数上限
+         */
+        private Integer maxInFlight;
+
+        public Integer getPrefetch() {
+            return prefetch;
+        }
+
+        public void setPrefetch(Integer prefetch) {
+            this.prefetch = prefetch;
+        }
+
+        public Integer getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(Integer concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public Integer getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public void setMaxConcurrency(Integer maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        public Integer getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(Integer batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getReceiveTimeout() {
+            return receiveTimeout;
+        }
+
+        public void setReceiveTimeout(Duration receiveTimeout) {
+            this.receiveTimeout = receiveTimeout;
+        }
+
+        public boolean isDedup() {
+            return dedup;
+        }
+
+        public void setDedup(boolean dedup) {
+            this.dedup = dedup;
+        }
+
+        public Integer getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        public void setMaxInFlight(Integer maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+    }
+
+    /**
+     * 分区消息流：count 个队列各由一个消费者按顺序消费，同一个 key 的消息总是进入同一个队列
+     */
+    public static class Partitioned {
+
+        /**
+         * 分区数；修改后约 1/count 的 key 会换到新的分区，切换期间这部分 key 的新旧消息可能乱序
+         */
+        private int count = 4;
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.neo.rabbit.codec;
+
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * CompactOutput 对应的读取端，直接在消息体字节数组上按位置读取，字段解码不经过中间流和拷贝
+ */
+public class CompactInput {
+
+    private final byte[] buf;
+
+    private int pos;
+
+    private final int limit;
+
+    CompactInput(byte[] buf, int offset, int limit) {
+        this.buf = buf;
+        this.pos = offset;
+        this.limit = limit;
+    }
+
+    /**
+     * 长度来自消息体，可能是损坏的超大值，写成 n > limit - pos 避免 pos + n 溢出
+     */
+    private void require(int n) {
+        if (n < 0 || n > limit - pos) {
+            throw new MessageConversionException("Unexpected end of compact message body");
+        }
+    }
+
+    public int readByte() {
+        require(1);
+        return buf[pos++] & 0xFF;
+    }
+
+    public boolean readBoolean() {
+        return readByte() != 0;
+    }
+
+    public long readUnsignedVarLong() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new MessageConversionException("Malformed varint");
+    }
+
+    public long readVarLong() {
+        long v = readUnsignedVarLong();
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    public int readVarInt() {
+        return (int) readVarLong();
+    }
+
+    public String readString() {
+        int length = (int) readUnsignedVarLong();
+        if (length == 0) {
+            return null;
+        }
+        length--;
+        require(length);
+        String value = new String(buf, pos, length, StandardCharsets.UTF_8);
+        pos += length;
+        return value;
+    }
+
+    int position() {
+        return pos;
+    }
+
+    public int remaining() {
+        return limit - pos;
+    }
+}
@@ -0,0 +1,18 @@
+package com.neo.rabbit.codec;
+
+/**
+ * 某个消息类型的紧凑二进制编码。schemaId 和 version 写在消息体头部，schemaId 一经使用不可更改；
+ * 字段变化时提升 version，read 按消息头中的版本号读取，新旧生产者和消费者可以同时在线。
+ */
+public interface MessageCodec<T> {
+
+    int schemaId();
+
+    int version();
+
+    Class<T> type();
+
+    void write(CompactOutput out, T value);
+
+    T read(CompactInput in, int version);
+}
@@ -0,0 +1,43 @@
+package com.neo.rabbit.codec;
+
+import com.neo.model.User;
+import org.springframework.stereotype.Component;
+
+/**
+ * com.neo.model.User 的紧凑编码，字段按固定顺序写出，不写字段名。
+ * User 增加字段时提升 VERSION 并在末尾追加，read 按版本号兼容旧生产者发出的消息。
+ */
+@Component
+public class UserCodec implements MessageCodec<User> {
+
+    private static final int VERSION = 1;
+
+    @Override
+    public int schemaId() {
+        return 1;
+    }
+
+    @Override
+    public int version() {
+        return VERSION;
+    }
+
+    @Override
+    public Class<User> type() {
+        return User.class;
+    }
+
+    @Override
+    public void write(CompactOutput out, User user) {
+        out.writeString(user.getName());
+        out.writeString(user.getPass());
+    }
+
+    @Override
+    public User read(CompactInput in, int version) {
+        User user = new User();
+        user.setName(in.readString());
+        user.setPass(in.readString());
+        return user;
+    }
+}
@@ -0,0 +1,98 @@
+package com.neo.rabbit.dedup;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 加在监听容器 adviceChain 上，包住 invokeListener(Channel, Object data)：
+ * data 为单条 Message 时，重复消息不调用监听方法直接返回，由容器正常 ack；
+ * data 为批量消费的 List&lt;Message&gt; 时，从列表中去掉重复的消息，全部重复则不调用。
+ * 去重 key 为 "队列名/messageId"，fanout 到多个队列的同一条消息互不影响；没有 messageId 的消息不去重。
+ * 只适用于 AUTO 确认模式，MANUAL 模式下跳过的消息不会被 ack。
+ */
+public class DeduplicationInterceptor implements MethodInterceptor {
+
+    protected Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final MessageDeduplicator deduplicator;
+
+    public DeduplicationInterceptor(MessageDeduplicator deduplicator) {
+        this.deduplicator = deduplicator;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object[] arguments = invocation.getArguments();
+        if (arguments.length == 2 && arguments[1] instanceof Message message) {
+            return invokeSingle(invocation, message);
+        }
+        if (arguments.length == 2 && arguments[1] instanceof List<?> messages) {
+            return invokeBatch(invocation, arguments, messages);
+        }
+        return invocation.proceed();
+    }
+
+    private Object invokeSingle(MethodInvocation invocation, Message message) throws Throwable {
+        String key = key(message);
+        if (key != null && deduplicator.isDuplicate(key, redelivered(message))) {
+            logger.debug("Skipping duplicate message {}", key);
+            return null;
+        }
+        Object result = invocation.proceed();
+        if (key != null) {
+            deduplicator.markProcessed(key);
+        }
+        return result;
+    }
+
+    private Object invokeBatch(MethodInvocation invocation, Object[] arguments, List<?> messages) throws Throwable {
+        List<Object> accepted = new ArrayList<>(messages.size());
+        Set<String> keys = new LinkedHashSet<>();
+        for (Object item : messages) {
+            String key = item instanceof Message message ? key(message) : null;
+            if (key != null && keys.contains(key)) {
+                // 同一批中重复出现，前一条还没有记录为已处理
+                deduplicator.recordDuplicate();
+                logger.debug("Skipping duplicate message {}", key);
+                continue;
+            }
+            if (key != null && deduplicator.isDuplicate(key, redelivered((Message) item))) {
+                logger.debug("Skipping duplicate message {}", key);
+                continue;
+            }
+            accepted.add(item);
+            if (key != null) {
+                keys.add(key);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return null;
+        }
+        if (accepted.size() < messages.size()) {
+            // ReflectiveMethodInvocation 返回的就是调用参数数组，替换后传给下一个 advice 和监听方法
+            arguments[1] = accepted;
+        }
+        Object result = invocation.proceed();
+        keys.forEach(deduplicator::markProcessed);
+        return result;
+    }
+
+    private static String key(Message message) {
+        MessageProperties properties = message.getMessageProperties();
+        String messageId = properties.getMessageId();
+        return messageId == null ? null : properties.getConsumerQueue() + "/" + messageId;
+    }
+
+    private static boolean redelivered(Message message) {
+        return Boolean.TRUE.equals(message.getMessageProperties().getRedelivered());
+    }
+}
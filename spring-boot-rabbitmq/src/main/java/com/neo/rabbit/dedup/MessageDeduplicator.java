@@ -0,0 +1,91 @@
+package com.neo.rabbit.dedup;
+
+import com.neo.rabbit.RabbitSource;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 判断消息是否已经处理过。绝大多数新消息在 Bloom 过滤器处直接放行，不加锁也不访问 Redis；
+ * 过滤器命中时查最近处理过的 messageId 精确确认，仍不能确认时（过滤器误判或已超出本地窗口）查询 Redis，
+ * 没有 Redis 时按新消息处理。宁可重复处理，也不丢弃没处理过的消息。
+ */
+public class MessageDeduplicator {
+
+    private final RotatingBloomFilter filter;
+
+    private final Map<String, Boolean> recent;
+
+    private final RedisDedupStore redisStore;
+
+    private final boolean checkAll;
+
+    private final LongAdder duplicates = new LongAdder();
+
+    /**
+     * @param redisStore 为 null 时只在本节点内去重
+     */
+    public MessageDeduplicator(RabbitSource.Dedup dedup, RedisDedupStore redisStore) {
+        this.filter = new RotatingBloomFilter(dedup.getExpectedInsertions(), dedup.getFpp());
+        int recentSize = dedup.getRecentSize();
+        this.recent = new LinkedHashMap<>(recentSize * 4 / 3 + 1) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > recentSize;
+            }
+        };
+        this.redisStore = redisStore;
+        this.checkAll = redisStore != null && dedup.getRedis().isCheckAll();
+    }
+
+    /**
+     * @param redelivered broker 是否标记为重投，重投的消息即使本地没见过也会查询 Redis，可能是其它节点处理过的
+     */
+    public boolean isDuplicate(String key, boolean redelivered) {
+        boolean duplicate;
+        if (filter.mightContain(key)) {
+            duplicate = recentContains(key) || redisContains(key);
+        } else {
+            duplicate = (redelivered || checkAll) && redisContains(key);
+        }
+        if (duplicate) {
+            duplicates.increment();
+        }
+        return duplicate;
+    }
+
+    /**
+     * 监听方法成功返回后调用；失败的消息不记录，重投时会再次处理
+     */
+    public void markProcessed(String key) {
+        filter.put(key);
+        synchronized (recent) {
+            recent.put(key, Boolean.TRUE);
+        }
+        if (redisStore != null) {
+            redisStore.add(key);
+        }
+    }
+
+    void recordDuplicate() {
+        duplicates.increment();
+    }
+
+    /**
+     * 启动以来丢弃的重复消息数
+     */
+    public long getDuplicates() {
+        return duplicates.sum();
+    }
+
+    private boolean recentContains(String key) {
+        synchronized (recent) {
+            return recent.containsKey(key);
+        }
+    }
+
+    private boolean redisContains(String key) {
+        return redisStore != null && redisStore.contains(key);
+    }
+}
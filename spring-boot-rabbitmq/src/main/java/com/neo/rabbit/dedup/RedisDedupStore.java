@@ -0,0 +1,82 @@
+package com.neo.rabbit.dedup;
+
+import com.neo.rabbit.RabbitSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已处理 messageId 的跨节点记录。写入先放进队列，由后台线程按 flush-interval 合并成一次 pipeline 写入，
+ * 消费线程不等待 Redis；进程退出前未写入的部分只影响跨节点去重，不影响本地。
+ */
+public class RedisDedupStore implements DisposableBean {
+
+    protected Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final RabbitSource.Dedup.Redis redis;
+
+    private final ConcurrentLinkedQueue<String> pending = new ConcurrentLinkedQueue<>();
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "rabbit-dedup-redis");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RedisDedupStore(StringRedisTemplate redisTemplate, RabbitSource.Dedup.Redis redis) {
+        this.redisTemplate = redisTemplate;
+        this.redis = redis;
+        long interval = redis.getFlushInterval().toMillis();
+        executor.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean contains(String key) {
+        return Boolean.TRUE.equals(redisTemplate.hasKey(redis.getKeyPrefix() + key));
+    }
+
+    public void add(String key) {
+        pending.add(key);
+    }
+
+    void flush() {
+        List<String> keys = new ArrayList<>();
+        for (String key = pending.poll(); key != null; key = pending.poll()) {
+            keys.add(key);
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+        Expiration expiration = Expiration.from(redis.getTtl());
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection strings = (StringRedisConnection) connection;
+                for (String key : keys) {
+                    strings.set(redis.getKeyPrefix() + key, "1", expiration, RedisStringCommands.SetOption.upsert());
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Failed to record {} processed message ids in Redis", keys.size(), e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+        flush();
+    }
+}
@@ -0,0 +1,127 @@
+package com.neo.rabbit.dedup;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 两代轮换的 Bloom 过滤器：写入当前代，当前代写满 capacity 个后变为上一代，原来的上一代丢弃。
+ * 查询同时查两代，所以最近 capacity 到 2 * capacity 个 key 一定能命中，内存固定为两代的位数组。
+ * 写入和查询不加锁，只有轮换时加锁。
+ */
+public class RotatingBloomFilter {
+
+    private final int capacity;
+
+    private final long bits;
+
+    private final int hashes;
+
+    private volatile Generation current;
+
+    private volatile Generation previous;
+
+    public RotatingBloomFilter(int capacity, double fpp) {
+        if (capacity <= 0 || fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("capacity must be positive and fpp in (0, 1)");
+        }
+        this.capacity = capacity;
+        this.bits = Math.max(64, (long) Math.ceil(-capacity * Math.log(fpp) / (Math.log(2) * Math.log(2))));
+        if (bits > 0xFFFFFFFFL) {
+            throw new IllegalArgumentException("Bloom filter too large: " + bits + " bits");
+        }
+        this.hashes = Math.max(1, (int) Math.round((double) bits / capacity * Math.log(2)));
+        this.current = new Generation(bits);
+        this.previous = new Generation(bits);
+    }
+
+    public boolean mightContain(String key) {
+        long h1 = hash(key);
+        long h2 = mix(h1);
+        return current.mightContain(h1, h2) || previous.mightContain(h1, h2);
+    }
+
+    public void put(String key) {
+        long h1 = hash(key);
+        long h2 = mix(h1);
+        Generation generation = current;
+        generation.put(h1, h2);
+        if (generation.count.incrementAndGet() == capacity) {
+            rotate(generation);
+        }
+    }
+
+    /**
+     * 两代位数组占用的字节数
+     */
+    public long memoryBytes() {
+        return 2 * ((bits + 63) / 64) * Long.BYTES;
+    }
+
+    private synchronized void rotate(Generation full) {
+        if (current == full) {
+            previous = full;
+            current = new Generation(bits);
+        }
+    }
+
+    /**
+     * 64 位 FNV-1a 后再做一次 murmur3 finalizer，保证低位也分布均匀
+     */
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private final class Generation {
+
+        private final AtomicLongArray words;
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        private Generation(long bits) {
+            this.words = new AtomicLongArray((int) ((bits + 63) / 64));
+        }
+
+        private boolean mightContain(long h1, long h2) {
+            for (int i = 0; i < hashes; i++) {
+                long index = index(h1 + i * h2);
+                if ((words.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void put(long h1, long h2) {
+            for (int i = 0; i < hashes; i++) {
+                long index = index(h1 + i * h2);
+                int word = (int) (index >>> 6);
+                long mask = 1L << index;
+                long value = words.get(word);
+                while ((value & mask) == 0 && !words.compareAndSet(word, value, value | mask)) {
+                    value = words.get(word);
+                }
+            }
+        }
+
+        /**
+         * 取高 32 位映射到 [0, bits)，位数不需要是 2 的幂
+         */
+        private long index(long combined) {
+            return ((combined >>> 32) * bits) >>> 32;
+        }
+    }
+}
@@ -1,19 +1,21 @@
 package com.neo.rabbit.fanout;
 
-import org.springframework.amqp.core.AmqpTemplate;
+import com.neo.rabbit.BatchingConfirmRabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+
 @Component
 public class FanoutSender {
 
 	@Autowired
-	private AmqpTemplate rabbitTemplate;
+	private BatchingConfirmRabbitTemplate rabbitTemplate;
 
-	public void send() {
+	public CompletableFuture<Void> send() {
 		String context = "hi, fanout msg ";
 		System.out.println("Sender : " + context);
-		this.rabbitTemplate.convertAndSend("fanoutExchange","", context);
+		return this.rabbitTemplate.sendBatched("fanoutExchange", "", context);
 	}
 
 }
\ No newline at end of file
@@ -1,22 +1,22 @@
 package com.neo.rabbit.hello;
 
-import org.springframework.amqp.core.AmqpTemplate;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import com.neo.rabbit.BatchingConfirmRabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.Date;
+import java.util.concurrent.CompletableFuture;
 
 @Component
 public class HelloSender {
 
 	@Autowired
-	private AmqpTemplate rabbitTemplate;
+	private BatchingConfirmRabbitTemplate rabbitTemplate;
 
-	public void send() {
+	public CompletableFuture<Void> send() {
 		String context = "hello " + new Date();
 		System.out.println("Sender : " + context);
-		this.rabbitTemplate.convertAndSend("hello", context);
+		return this.rabbitTemplate.sendBatched("", "hello", context);
 	}
 
 }
\ No newline at end of file
@@ -1,16 +1,20 @@
 package com.neo.rabbit.many;
 
-import org.springframework.amqp.rabbit.annotation.RabbitHandler;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
 @Component
-@RabbitListener(queues = "neo")
 public class NeoReceiver2 {
 
-    @RabbitHandler
-    public void process(String neo) {
-        System.out.println("Receiver 2: " + neo);
+    @RabbitListener(queues = "neo", containerFactory = "batchRabbitListenerContainerFactory")
+    public void process(List<Message> messages) {
+        for (Message message : messages) {
+            System.out.println("Receiver 2: " + new String(message.getBody(), StandardCharsets.UTF_8));
+        }
     }
 
 }
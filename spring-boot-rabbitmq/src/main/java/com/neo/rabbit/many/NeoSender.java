@@ -1,19 +1,21 @@
 package com.neo.rabbit.many;
 
-import org.springframework.amqp.core.AmqpTemplate;
+import com.neo.rabbit.BatchingConfirmRabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+
 @Component
 public class NeoSender {
 
 	@Autowired
-	private AmqpTemplate rabbitTemplate;
+	private BatchingConfirmRabbitTemplate rabbitTemplate;
 
-	public void send(int i) {
+	public CompletableFuture<Void> send(int i) {
 		String context = "spirng boot neo queue"+" ****** "+i;
 		System.out.println("Sender1 : " + context);
-		this.rabbitTemplate.convertAndSend("neo", context);
+		return this.rabbitTemplate.sendBatched("", "neo", context);
 	}
 
 }
\ No newline at end of file
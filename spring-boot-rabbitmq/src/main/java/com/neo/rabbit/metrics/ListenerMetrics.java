@@ -0,0 +1,141 @@
+package com.neo.rabbit.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 按队列登记的监听指标，tag 为 queue=队列名：
+ * <ul>
+ *     <li>rabbit.listener.deliveries：交给监听方法的消息数，生产端合并的批消息按拆开后的条数计</li>
+ *     <li>rabbit.listener.handler：监听方法耗时直方图，批量消费时一批记一次</li>
+ *     <li>rabbit.listener.acks{result=ack|nack|requeue}：处理成功确认、拒绝不重新入队、拒绝并重新入队的消息数</li>
+ *     <li>rabbit.queue.messages / rabbit.queue.consumers：定时从 broker 查询的队列积压和消费者数，查询失败时为 NaN</li>
+ * </ul>
+ */
+public class ListenerMetrics {
+
+    private final ConcurrentMap<String, Meters> meters = new ConcurrentHashMap<>();
+
+    private final MeterRegistry registry;
+
+    public ListenerMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public Meters forQueue(String queue) {
+        Meters queueMeters = meters.get(queue);
+        if (queueMeters != null) {
+            return queueMeters;
+        }
+        return meters.computeIfAbsent(queue, q -> new Meters(registry, Tags.of("queue", q)));
+    }
+
+    public Map<String, Meters> getMeters() {
+        return Collections.unmodifiableMap(meters);
+    }
+
+    public static final class Meters {
+
+        private final Counter deliveries;
+        private final Timer handlerTime;
+        private final Counter acks;
+        private final Counter nacks;
+        private final Counter requeues;
+
+        private volatile double depth = Double.NaN;
+        private volatile double consumers = Double.NaN;
+        private volatile double deliveryRate;
+        private volatile long sampledAt;
+
+        Meters(MeterRegistry registry, Tags tags) {
+            this.deliveries = Counter.builder("rabbit.listener.deliveries").tags(tags)
+                    .description("messages handed to the listener")
+                    .register(registry);
+            this.handlerTime = Timer.builder("rabbit.listener.handler").tags(tags)
+                    .description("time spent in the listener method")
+                    .publishPercentiles(0.5, 0.99)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            this.acks = Counter.builder("rabbit.listener.acks").tags(tags).tag("result", "ack")
+                    .description("messages acknowledged after the listener returned")
+                    .register(registry);
+            this.nacks = Counter.builder("rabbit.listener.acks").tags(tags).tag("result", "nack")
+                    .description("messages rejected without requeue")
+                    .register(registry);
+            this.requeues = Counter.builder("rabbit.listener.acks").tags(tags).tag("result", "requeue")
+                    .description("messages rejected and requeued")
+                    .register(registry);
+            Gauge.builder("rabbit.queue.messages", this, m -> m.depth).tags(tags)
+                    .description("messages ready in the queue, sampled from the broker")
+                    .register(registry);
+            Gauge.builder("rabbit.queue.consumers", this, m -> m.consumers).tags(tags)
+                    .description("consumers on the queue, sampled from the broker")
+                    .register(registry);
+        }
+
+        public Counter getDeliveries() {
+            return deliveries;
+        }
+
+        public Timer getHandlerTime() {
+            return handlerTime;
+        }
+
+        public Counter getAcks() {
+            return acks;
+        }
+
+        public Counter getNacks() {
+            return nacks;
+        }
+
+        public Counter getRequeues() {
+            return requeues;
+        }
+
+        public double getDepth() {
+            return depth;
+        }
+
+        public double getConsumers() {
+            return consumers;
+        }
+
+        /**
+         * 最近一个采样周期内每秒交给监听方法的消息数
+         */
+        public double getDeliveryRate() {
+            return deliveryRate;
+        }
+
+        /**
+         * 最近一次成功查询 broker 的时间，毫秒时间戳，0 表示还没有查询成功过
+         */
+        public long getSampledAt() {
+            return sampledAt;
+        }
+
+        void sampled(double depth, double consumers, long sampledAt) {
+            this.depth = depth;
+            this.consumers = consumers;
+            this.sampledAt = sampledAt;
+        }
+
+        void brokerUnavailable() {
+            this.depth = Double.NaN;
+            this.consumers = Double.NaN;
+        }
+
+        void deliveryRate(double deliveryRate) {
+            this.deliveryRate = deliveryRate;
+        }
+    }
+}
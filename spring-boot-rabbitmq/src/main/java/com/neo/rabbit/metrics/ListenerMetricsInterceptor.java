@@ -0,0 +1,72 @@
+package com.neo.rabbit.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.listener.ConditionalRejectingErrorHandler;
+import org.springframework.amqp.rabbit.listener.FatalExceptionStrategy;
+import org.springframework.amqp.rabbit.listener.support.ContainerUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 加在每个监听容器 adviceChain 的最外层，记录投递数、监听方法耗时和确认结果。
+ * 确认结果按容器的规则推断：正常返回为 ack；抛出异常时，消息转换等致命错误和 AmqpRejectAndDontRequeueException
+ * 为 nack，其余按 default-requeue-rejected 决定是否 requeue。被去重跳过的消息同样计为投递和 ack。
+ */
+public class ListenerMetricsInterceptor implements MethodInterceptor {
+
+    private static final Log requeueLog = LogFactory.getLog(ListenerMetricsInterceptor.class);
+
+    private final ListenerMetrics metrics;
+
+    private final boolean defaultRequeueRejected;
+
+    private final FatalExceptionStrategy fatalExceptionStrategy =
+            new ConditionalRejectingErrorHandler.DefaultExceptionStrategy();
+
+    public ListenerMetricsInterceptor(ListenerMetrics metrics, boolean defaultRequeueRejected) {
+        this.metrics = metrics;
+        this.defaultRequeueRejected = defaultRequeueRejected;
+    }
+
+    /**
+     * 容器创建时登记它的队列，还没有消息的队列也会采样积压
+     */
+    public void track(String... queues) {
+        for (String queue : queues) {
+            metrics.forQueue(queue);
+        }
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object[] arguments = invocation.getArguments();
+        Object data = arguments.length == 2 ? arguments[1] : null;
+        int count = data instanceof List<?> messages ? messages.size() : 1;
+        Object first = data instanceof List<?> messages && !messages.isEmpty() ? messages.get(0) : data;
+        if (!(first instanceof Message message) || message.getMessageProperties().getConsumerQueue() == null) {
+            return invocation.proceed();
+        }
+        ListenerMetrics.Meters meters = metrics.forQueue(message.getMessageProperties().getConsumerQueue());
+        meters.getDeliveries().increment(count);
+        long start = System.nanoTime();
+        try {
+            Object result = invocation.proceed();
+            meters.getAcks().increment(count);
+            return result;
+        } catch (Throwable e) {
+            if (fatalExceptionStrategy.isFatal(e) || !ContainerUtils.shouldRequeue(defaultRequeueRejected, e, requeueLog)) {
+                meters.getNacks().increment(count);
+            } else {
+                meters.getRequeues().increment(count);
+            }
+            throw e;
+        } finally {
+            meters.getHandlerTime().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
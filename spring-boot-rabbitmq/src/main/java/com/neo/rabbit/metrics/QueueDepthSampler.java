@@ -0,0 +1,91 @@
+package com.neo.rabbit.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按 interval 对已登记的每个队列做一次被动声明，取得积压消息数和消费者数，
+ * 同时按投递计数的增量计算每秒投递数。查询在单独的线程中进行，抓取指标时不访问 broker。
+ */
+public class QueueDepthSampler implements SmartLifecycle {
+
+    protected Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final ListenerMetrics metrics;
+
+    private final AmqpAdmin amqpAdmin;
+
+    private final Duration interval;
+
+    private final Map<String, double[]> lastCounts = new HashMap<>();
+
+    private volatile ScheduledExecutorService executor;
+
+    public QueueDepthSampler(ListenerMetrics metrics, AmqpAdmin amqpAdmin, Duration interval) {
+        this.metrics = metrics;
+        this.amqpAdmin = amqpAdmin;
+        this.interval = interval;
+    }
+
+    @Override
+    public void start() {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "rabbit-queue-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = interval.toMillis();
+        executor.scheduleWithFixedDelay(this::sample, millis, millis, TimeUnit.MILLISECONDS);
+        this.executor = executor;
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService executor = this.executor;
+        this.executor = null;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executor != null;
+    }
+
+    void sample() {
+        long now = System.currentTimeMillis();
+        metrics.getMeters().forEach((queue, meters) -> {
+            sampleRate(queue, meters, now);
+            try {
+                QueueInformation info = amqpAdmin.getQueueInfo(queue);
+                if (info != null) {
+                    meters.sampled(info.getMessageCount(), info.getConsumerCount(), now);
+                } else {
+                    meters.brokerUnavailable();
+                }
+            } catch (RuntimeException e) {
+                meters.brokerUnavailable();
+                logger.debug("Failed to sample queue {}: {}", queue, e.toString());
+            }
+        });
+    }
+
+    private void sampleRate(String queue, ListenerMetrics.Meters meters, long now) {
+        double count = meters.getDeliveries().count();
+        double[] last = lastCounts.put(queue, new double[]{count, now});
+        if (last != null && now > last[1]) {
+            meters.deliveryRate((count - last[0]) * 1000 / (now - last[1]));
+        }
+    }
+}
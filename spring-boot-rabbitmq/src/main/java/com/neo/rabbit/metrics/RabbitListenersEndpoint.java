@@ -0,0 +1,63 @@
+package com.neo.rabbit.metrics;
+
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /actuator/rabbitlisteners：每个队列的积压、消费速度、监听方法耗时和确认结果汇总，
+ * /actuator/rabbitlisteners/{queue} 查看单个队列
+ */
+@Endpoint(id = "rabbitlisteners")
+public class RabbitListenersEndpoint {
+
+    private final ListenerMetrics listenerMetrics;
+
+    public RabbitListenersEndpoint(ListenerMetrics listenerMetrics) {
+        this.listenerMetrics = listenerMetrics;
+    }
+
+    @ReadOperation
+    public Map<String, Map<String, Object>> queues() {
+        Map<String, Map<String, Object>> queues = new TreeMap<>();
+        listenerMetrics.getMeters().forEach((queue, meters) -> queues.put(queue, summary(meters)));
+        return queues;
+    }
+
+    @ReadOperation
+    public Map<String, Object> queue(@Selector String queue) {
+        ListenerMetrics.Meters meters = listenerMetrics.getMeters().get(queue);
+        return meters == null ? null : summary(meters);
+    }
+
+    private static Map<String, Object> summary(ListenerMetrics.Meters meters) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("depth", Double.isNaN(meters.getDepth()) ? null : (long) meters.getDepth());
+        summary.put("consumers", Double.isNaN(meters.getConsumers()) ? null : (long) meters.getConsumers());
+        summary.put("sampledAt", meters.getSampledAt() == 0 ? null : meters.getSampledAt());
+        summary.put("deliveries", (long) meters.getDeliveries().count());
+        summary.put("deliveriesPerSecond", meters.getDeliveryRate());
+        summary.put("acks", (long) meters.getAcks().count());
+        summary.put("nacks", (long) meters.getNacks().count());
+        summary.put("requeues", (long) meters.getRequeues().count());
+
+        HistogramSnapshot handler = meters.getHandlerTime().takeSnapshot();
+        Map<String, Object> handlerTime = new LinkedHashMap<>();
+        handlerTime.put("count", handler.count());
+        handlerTime.put("meanMs", handler.mean(TimeUnit.MILLISECONDS));
+        handlerTime.put("maxMs", handler.max(TimeUnit.MILLISECONDS));
+        for (ValueAtPercentile percentile : handler.percentileValues()) {
+            handlerTime.put("p" + Math.round(percentile.percentile() * 100) + "Ms",
+                    percentile.value(TimeUnit.MILLISECONDS));
+        }
+        summary.put("handlerTime", handlerTime);
+        return summary;
+    }
+}
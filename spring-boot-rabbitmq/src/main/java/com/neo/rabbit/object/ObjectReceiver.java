@@ -6,7 +6,7 @@ import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.stereotype.Component;
 
 @Component
-@RabbitListener(queues = "object")
+@RabbitListener(queues = "object", containerFactory = "virtualThreadRabbitListenerContainerFactory")
 public class ObjectReceiver {
 
     @RabbitHandler
@@ -1,21 +1,22 @@
 package com.neo.rabbit.object;
 
 import com.neo.model.User;
-import org.springframework.amqp.core.AmqpTemplate;
+import com.neo.rabbit.BatchingConfirmRabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.Date;
+import java.util.concurrent.CompletableFuture;
 
 @Component
 public class ObjectSender {
 
 	@Autowired
-	private AmqpTemplate rabbitTemplate;
+	private BatchingConfirmRabbitTemplate rabbitTemplate;
 
-	public void send(User user) {
+	public CompletableFuture<Void> send(User user) {
 		System.out.println("Sender object: " + user.toString());
-		this.rabbitTemplate.convertAndSend("object", user);
+		return this.rabbitTemplate.sendBatched("", "object", user);
 	}
 
 }
\ No newline at end of file
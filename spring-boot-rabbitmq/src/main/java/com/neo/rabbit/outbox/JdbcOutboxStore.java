@@ -0,0 +1,84 @@
+package com.neo.rabbit.outbox;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * outbox 表的读写，只用标准 JDBC，所有方法都在调用方传入的连接和事务中执行
+ */
+public class JdbcOutboxStore {
+
+    private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_.]*");
+
+    /**
+     * 单条 DELETE 语句中 IN 列表的最大长度
+     */
+    private static final int DELETE_CHUNK = 500;
+
+    private final String table;
+
+    private final String insertSql;
+
+    private final String selectSql;
+
+    public JdbcOutboxStore(String table, boolean skipLocked) {
+        if (!TABLE_NAME.matcher(table).matches()) {
+            throw new IllegalArgumentException("Invalid outbox table name: " + table);
+        }
+        this.table = table;
+        this.insertSql = "INSERT INTO " + table + " (exchange, routing_key, content_type, body) VALUES (?, ?, ?, ?)";
+        this.selectSql = "SELECT id, exchange, routing_key, content_type, body FROM " + table + " ORDER BY id"
+                + (skipLocked ? " FOR UPDATE SKIP LOCKED" : "");
+    }
+
+    public void insert(Connection connection, String exchange, String routingKey, String contentType, byte[] body)
+            throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(insertSql)) {
+            statement.setString(1, exchange);
+            statement.setString(2, routingKey);
+            statement.setString(3, contentType);
+            statement.setBytes(4, body);
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * 按 id 顺序读取最多 limit 行；行数限制用 setMaxRows 而不是 LIMIT，兼容不同数据库
+     */
+    public List<OutboxMessage> lockBatch(Connection connection, int limit) throws SQLException {
+        List<OutboxMessage> messages = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(selectSql)) {
+            statement.setMaxRows(limit);
+            statement.setFetchSize(limit);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    messages.add(new OutboxMessage(rs.getLong(1), rs.getString(2), rs.getString(3),
+                            rs.getString(4), rs.getBytes(5)));
+                }
+            }
+        }
+        return messages;
+    }
+
+    public int delete(Connection connection, List<Long> ids) throws SQLException {
+        int deleted = 0;
+        for (int from = 0; from < ids.size(); from += DELETE_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + DELETE_CHUNK));
+            String sql = "DELETE FROM " + table + " WHERE id IN ("
+                    + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    statement.setLong(i + 1, chunk.get(i));
+                }
+                deleted += statement.executeUpdate();
+            }
+        }
+        return deleted;
+    }
+}
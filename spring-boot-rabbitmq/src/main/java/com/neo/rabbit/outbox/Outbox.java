@@ -0,0 +1,33 @@
+package com.neo.rabbit.outbox;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 写入 outbox 的入口。append 使用调用方的连接，消息与业务数据在同一个事务中提交或回滚，
+ * 请求线程不访问 broker；事务提交后由 OutboxRelay 发布。
+ * 使用 Spring 管理的事务时，传入 DataSourceUtils.getConnection(dataSource) 取得的当前事务连接。
+ * <p>
+ * 消息体在写入时用 MessageConverter 转换好，只保留 content-type，其它消息属性不会写入表中。
+ */
+public class Outbox {
+
+    private final JdbcOutboxStore store;
+
+    private final MessageConverter messageConverter;
+
+    public Outbox(JdbcOutboxStore store, MessageConverter messageConverter) {
+        this.store = store;
+        this.messageConverter = messageConverter;
+    }
+
+    public void append(Connection connection, String exchange, String routingKey, Object payload) throws SQLException {
+        Message message = messageConverter.toMessage(payload, new MessageProperties());
+        store.insert(connection, exchange, routingKey, message.getMessageProperties().getContentType(),
+                message.getBody());
+    }
+}
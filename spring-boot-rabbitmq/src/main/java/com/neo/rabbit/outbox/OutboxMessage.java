@@ -0,0 +1,19 @@
+package com.neo.rabbit.outbox;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+/**
+ * outbox 表中的一行，body 为 MessageConverter 转换后的消息体。
+ * 发布时 messageId 为 outbox-{id}，relay 重发同一行时不变，消费端可以据此去重
+ */
+public record OutboxMessage(long id, String exchange, String routingKey, String contentType, byte[] body) {
+
+    public Message toMessage() {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(contentType);
+        properties.setContentLength(body.length);
+        properties.setMessageId("outbox-" + id);
+        return new Message(body, properties);
+    }
+}
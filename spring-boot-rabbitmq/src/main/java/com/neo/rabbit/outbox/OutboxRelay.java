@@ -0,0 +1,150 @@
+package com.neo.rabbit.outbox;
+
+import com.neo.rabbit.BatchingConfirmRabbitTemplate;
+import com.neo.rabbit.RabbitSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 后台把 outbox 表中的消息发布到 RabbitMQ：每轮在一个事务中按 id 顺序读取一批，
+ * 全部交给 BatchingConfirmRabbitTemplate 后立即 flush，等待 broker 确认，再用一条 DELETE 删除已确认的行并提交。
+ * 一批读满时马上读下一批，直到表中剩余不足一批，再按 poll-interval 轮询。
+ * <p>
+ * 语义为至少一次：确认后、提交前进程退出会导致整批重发，消费端需要幂等。
+ * 未确认或发送失败的行留在表中，下一轮与后面的消息一起重发，这部分消息的顺序可能落后于之后的消息。
+ */
+public class OutboxRelay implements SmartLifecycle {
+
+    protected Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final DataSource dataSource;
+
+    private final JdbcOutboxStore store;
+
+    private final BatchingConfirmRabbitTemplate rabbitTemplate;
+
+    private final RabbitSource.Outbox outbox;
+
+    private volatile ScheduledExecutorService executor;
+
+    public OutboxRelay(DataSource dataSource, JdbcOutboxStore store, BatchingConfirmRabbitTemplate rabbitTemplate,
+                       RabbitSource.Outbox outbox) {
+        this.dataSource = dataSource;
+        this.store = store;
+        this.rabbitTemplate = rabbitTemplate;
+        this.outbox = outbox;
+    }
+
+    @Override
+    public void start() {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "rabbit-outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = outbox.getPollInterval().toMillis();
+        executor.scheduleWithFixedDelay(this::drain, interval, interval, TimeUnit.MILLISECONDS);
+        this.executor = executor;
+    }
+
+    /**
+     * 在当前一批处理完后停止，未发布的行留到下次启动
+     */
+    @Override
+    public void stop() {
+        ScheduledExecutorService executor = this.executor;
+        this.executor = null;
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(outbox.getConfirmTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executor != null;
+    }
+
+    /**
+     * 比监听容器晚启动、早停止，停止时 RabbitTemplate 仍可用
+     */
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 100;
+    }
+
+    private void drain() {
+        try {
+            while (executor != null && relayBatch() == outbox.getBatchSize()) {
+                // 读满一批说明还有积压，继续
+            }
+        } catch (SQLException | RuntimeException e) {
+            logger.warn("Outbox relay failed, retrying in {}", outbox.getPollInterval(), e);
+        }
+    }
+
+    /**
+     * 发布一批并删除已确认的行，返回读到的行数；有行未确认时返回 0，结束本轮
+     */
+    public int relayBatch() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                List<OutboxMessage> batch = store.lockBatch(connection, outbox.getBatchSize());
+                if (batch.isEmpty()) {
+                    connection.commit();
+                    return 0;
+                }
+                List<Long> published = publish(batch);
+                store.delete(connection, published);
+                connection.commit();
+                return published.size() == batch.size() ? batch.size() : 0;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private List<Long> publish(List<OutboxMessage> batch) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>(batch.size());
+        for (OutboxMessage message : batch) {
+            futures.add(rabbitTemplate.sendBatched(message.exchange(), message.routingKey(), message.toMessage()));
+        }
+        rabbitTemplate.flush();
+        long deadline = System.nanoTime() + outbox.getConfirmTimeout().toNanos();
+        List<Long> published = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                published.add(batch.get(i).id());
+            } catch (ExecutionException | TimeoutException e) {
+                logger.warn("Outbox message {} not confirmed, will retry: {}", batch.get(i).id(), e.toString());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return published;
+    }
+}
@@ -0,0 +1,15 @@
+package com.neo.rabbit.partition;
+
+/**
+ * 分区消息流的消费者。每个分区队列由单独的容器、单个消费者消费，onMessage 对同一分区串行调用，
+ * 所以同一个 key 的消息按发送顺序处理；不同分区之间并行。抛出异常时消息按容器配置重新入队或拒绝。
+ */
+public interface PartitionedListener<T> {
+
+    /**
+     * 对应 rabbit.partitions 中的流名称
+     */
+    String stream();
+
+    void onMessage(T payload, int partition);
+}
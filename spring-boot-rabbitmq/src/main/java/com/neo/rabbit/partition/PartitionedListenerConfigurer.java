@@ -0,0 +1,50 @@
+package com.neo.rabbit.partition;
+
+import org.springframework.amqp.rabbit.annotation.RabbitListenerConfigurer;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistrar;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.util.List;
+
+/**
+ * 为每个 PartitionedListener 的每个分区队列注册一个监听容器，并发数固定为 1，
+ * 使用默认的 rabbitListenerContainerFactory，prefetch 等仍按 rabbit.queues.{stream}.{i} 配置
+ */
+public class PartitionedListenerConfigurer implements RabbitListenerConfigurer {
+
+    private final PartitionedQueues partitionedQueues;
+
+    private final List<PartitionedListener<?>> listeners;
+
+    private final MessageConverter messageConverter;
+
+    public PartitionedListenerConfigurer(PartitionedQueues partitionedQueues, List<PartitionedListener<?>> listeners,
+                                         MessageConverter messageConverter) {
+        this.partitionedQueues = partitionedQueues;
+        this.listeners = listeners;
+        this.messageConverter = messageConverter;
+    }
+
+    @Override
+    public void configureRabbitListeners(RabbitListenerEndpointRegistrar registrar) {
+        for (PartitionedListener<?> listener : listeners) {
+            int count = partitionedQueues.count(listener.stream());
+            for (int i = 0; i < count; i++) {
+                registrar.registerEndpoint(endpoint(listener, i));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private SimpleRabbitListenerEndpoint endpoint(PartitionedListener<?> listener, int partition) {
+        PartitionedListener<Object> target = (PartitionedListener<Object>) listener;
+        SimpleRabbitListenerEndpoint endpoint = new SimpleRabbitListenerEndpoint();
+        endpoint.setId("partition-" + listener.stream() + "-" + partition);
+        endpoint.setQueueNames(PartitionedQueues.queueName(listener.stream(), partition));
+        // 固定为 1-1，不受 spring.rabbitmq.listener.simple.max-concurrency 扩容影响，保证分区内顺序
+        endpoint.setConcurrency("1-1");
+        endpoint.setMessageListener(message -> target.onMessage(messageConverter.fromMessage(message), partition));
+        return endpoint;
+    }
+}
@@ -0,0 +1,65 @@
+package com.neo.rabbit.partition;
+
+import com.neo.rabbit.BatchingConfirmRabbitTemplate;
+import com.neo.rabbit.RabbitSource;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * rabbit.partitions 中配置的分区消息流。每个流对应一个同名 direct exchange 和 count 个队列 {stream}.{i}，
+ * 队列 i 以 routingKey "i" 绑定；队列开启 single-active-consumer，多个应用实例同时监听时每个分区也只有一个消费者在收消息。
+ */
+public class PartitionedQueues {
+
+    private final BatchingConfirmRabbitTemplate rabbitTemplate;
+
+    private final Map<String, RabbitSource.Partitioned> partitions;
+
+    private final Map<String, PartitionedSender> senders = new ConcurrentHashMap<>();
+
+    public PartitionedQueues(BatchingConfirmRabbitTemplate rabbitTemplate, Map<String, RabbitSource.Partitioned> partitions) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.partitions = partitions;
+    }
+
+    public PartitionedSender sender(String stream) {
+        int count = count(stream);
+        return senders.computeIfAbsent(stream, s -> new PartitionedSender(rabbitTemplate, s, count));
+    }
+
+    public int count(String stream) {
+        RabbitSource.Partitioned partitioned = partitions.get(stream);
+        if (partitioned == null) {
+            throw new IllegalArgumentException("Unknown partitioned stream '" + stream
+                    + "', configure rabbit.partitions." + stream + ".count");
+        }
+        return partitioned.getCount();
+    }
+
+    public static String queueName(String stream, int partition) {
+        return stream + "." + partition;
+    }
+
+    public Declarables declarables() {
+        List<Declarable> declarables = new ArrayList<>();
+        partitions.forEach((stream, partitioned) -> {
+            DirectExchange exchange = new DirectExchange(stream);
+            declarables.add(exchange);
+            for (int i = 0; i < partitioned.getCount(); i++) {
+                Queue queue = QueueBuilder.durable(queueName(stream, i)).singleActiveConsumer().build();
+                declarables.add(queue);
+                declarables.add(BindingBuilder.bind(queue).to(exchange).with(String.valueOf(i)));
+            }
+        });
+        return new Declarables(declarables);
+    }
+}
@@ -0,0 +1,40 @@
+package com.neo.rabbit.partition;
+
+import com.neo.rabbit.BatchingConfirmRabbitTemplate;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 向一个分区消息流发送消息：按 key 选出分区，以分区号作为 routingKey 发到流的 direct exchange。
+ * 同一分区的消息在 BatchingConfirmRabbitTemplate 中按发送顺序攒批，顺序不会被打乱。
+ */
+public class PartitionedSender {
+
+    private final BatchingConfirmRabbitTemplate rabbitTemplate;
+
+    private final String stream;
+
+    private final int partitions;
+
+    PartitionedSender(BatchingConfirmRabbitTemplate rabbitTemplate, String stream, int partitions) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.stream = stream;
+        this.partitions = partitions;
+    }
+
+    public CompletableFuture<Void> send(Object key, Object payload) {
+        return rabbitTemplate.sendBatched(stream, String.valueOf(partitionOf(key)), payload);
+    }
+
+    public int partitionOf(Object key) {
+        return Partitioner.partition(key, partitions);
+    }
+
+    public String getStream() {
+        return stream;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+}
@@ -0,0 +1,47 @@
+package com.neo.rabbit.partition;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 把 key 映射到 [0, partitions) 的一致性哈希：key.toString() 的 UTF-8 字节取 FNV-1a 64 位哈希，
+ * 再用 Jump Consistent Hash 选分区。结果只取决于 key 的字符串形式和分区数，不同进程、不同 JVM 一致；
+ * 分区数从 n 增加到 n + 1 时只有约 1/(n + 1) 的 key 改变分区，且不需要维护哈希环。
+ */
+public final class Partitioner {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private Partitioner() {
+    }
+
+    public static int partition(Object key, int partitions) {
+        if (partitions <= 0) {
+            throw new IllegalArgumentException("partitions must be positive: " + partitions);
+        }
+        return jump(hash(String.valueOf(key)), partitions);
+    }
+
+    static long hash(String key) {
+        long hash = FNV_OFFSET;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Lamping &amp; Veach, "A Fast, Minimal Memory, Consistent Hash Algorithm"
+     */
+    static int jump(long key, int buckets) {
+        long b = -1;
+        long j = 0;
+        while (j < buckets) {
+            b = j;
+            key = key * 2862933555777941757L + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+}
@@ -0,0 +1,23 @@
+package com.neo.rabbit.partitioned;
+
+import com.neo.model.User;
+import com.neo.rabbit.partition.PartitionedListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 同一个用户名的事件总在同一个分区，按发送顺序到达
+ */
+@Component
+public class UserEventReceiver implements PartitionedListener<User> {
+
+    @Override
+    public String stream() {
+        return "user";
+    }
+
+    @Override
+    public void onMessage(User user, int partition) {
+        System.out.println("Receiver user event (partition " + partition + ") : " + user);
+    }
+
+}
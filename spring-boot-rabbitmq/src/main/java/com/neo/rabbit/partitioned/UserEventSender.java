@@ -0,0 +1,21 @@
+package com.neo.rabbit.partitioned;
+
+import com.neo.model.User;
+import com.neo.rabbit.partition.PartitionedQueues;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+
+@Component
+public class UserEventSender {
+
+	@Autowired
+	private PartitionedQueues partitionedQueues;
+
+	public CompletableFuture<Void> send(User user) {
+		System.out.println("Sender user event : " + user);
+		return partitionedQueues.sender("user").send(user.getName(), user);
+	}
+
+}
@@ -1,33 +1,34 @@
 package com.neo.rabbit.topic;
 
-import org.springframework.amqp.core.AmqpTemplate;
+import com.neo.rabbit.BatchingConfirmRabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.Date;
+import java.util.concurrent.CompletableFuture;
 
 @Component
 public class TopicSender {
 
 	@Autowired
-	private AmqpTemplate rabbitTemplate;
+	private BatchingConfirmRabbitTemplate rabbitTemplate;
 
-	public void send() {
+	public CompletableFuture<Void> send() {
 		String context = "hi, i am message all";
 		System.out.println("Sender : " + context);
-		this.rabbitTemplate.convertAndSend("topicExchange", "topic.1", context);
+		return this.rabbitTemplate.sendBatched("topicExchange", "topic.1", context);
 	}
 
-	public void send1() {
+	public CompletableFuture<Void> send1() {
 		String context = "hi, i am message 1";
 		System.out.println("Sender : " + context);
-		this.rabbitTemplate.convertAndSend("topicExchange", "topic.message", context);
+		return this.rabbitTemplate.sendBatched("topicExchange", "topic.message", context);
 	}
 
-	public void send2() {
+	public CompletableFuture<Void> send2() {
 		String context = "hi, i am messages 2";
 		System.out.println("Sender : " + context);
-		this.rabbitTemplate.convertAndSend("topicExchange", "topic.messages", context);
+		return this.rabbitTemplate.sendBatched("topicExchange", "topic.messages", context);
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,190 @@
+package com.neo.rabbit.virtual;
+
+import com.rabbitmq.client.Channel;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.support.ContainerUtils;
+
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 消费线程只负责接收：每条投递（包括生产端合并的批消息、批量消费的一批）取得所在队列的信号量后交给一个虚拟线程，
+ * 在虚拟线程中完成拆批、adviceChain 和监听方法调用，成功后 basicAck，失败按 defaultRequeueRejected 和
+ * AmqpRejectAndDontRequeueException 决定 basicNack 是否重新入队。
+ * <p>
+ * 确认模式固定为 MANUAL，由容器在处理完成后逐个 delivery tag 确认（multiple=false），
+ * 处理完成的先后顺序与投递顺序无关，不会因为后面的消息先完成而确认到前面还在处理的消息；监听方法自己不能再 ack。
+ * 同一队列的消息不保证处理顺序，需要按序处理的队列（如分区队列）不要使用。
+ * <p>
+ * 停止时先不再派发新消息（新收到的立即 nack 重新入队），等待已派发的处理完成并确认，最长 shutdownTimeout，再关闭 channel。
+ */
+public class VirtualThreadListenerContainer extends SimpleMessageListenerContainer {
+
+    private final ExecutorService executor;
+
+    private final Function<String, Semaphore> limits;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final Object idle = new Object();
+
+    private volatile boolean draining;
+
+    /**
+     * @param limits 按队列名返回该队列共用的信号量，许可数即队列允许同时处理的消息数
+     */
+    public VirtualThreadListenerContainer(ExecutorService executor, Function<String, Semaphore> limits) {
+        this.executor = executor;
+        this.limits = limits;
+    }
+
+    /**
+     * 当前已派发、尚未确认的投递数
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    @Override
+    protected void doStart() {
+        draining = false;
+        super.doStart();
+    }
+
+    @Override
+    protected void doShutdown() {
+        drain();
+        super.doShutdown();
+    }
+
+    @Override
+    public void stop(Runnable callback) {
+        drain();
+        super.stop(callback);
+    }
+
+    @Override
+    protected void executeListener(Channel channel, Object data) {
+        Set<Long> deliveryTags = deliveryTags(data);
+        Semaphore semaphore = limits.apply(consumerQueue(data));
+        if (!acquire(semaphore)) {
+            basicNack(channel, deliveryTags, true);
+            return;
+        }
+        inFlight.incrementAndGet();
+        try {
+            executor.execute(() -> {
+                try {
+                    invoke(channel, data, deliveryTags);
+                } finally {
+                    release(semaphore);
+                }
+            });
+        } catch (RuntimeException e) {
+            release(semaphore);
+            basicNack(channel, deliveryTags, true);
+            throw e;
+        }
+    }
+
+    private void invoke(Channel channel, Object data, Set<Long> deliveryTags) {
+        try {
+            super.executeListener(channel, data);
+        } catch (RuntimeException e) {
+            // 错误处理器已在 executeListener 中调用并记录日志，这里只决定是否重新入队
+            basicNack(channel, deliveryTags, ContainerUtils.shouldRequeue(isDefaultRequeueRejected(), e, logger));
+            return;
+        }
+        try {
+            for (Long deliveryTag : deliveryTags) {
+                channel.basicAck(deliveryTag, false);
+            }
+        } catch (IOException | RuntimeException e) {
+            // channel 已关闭时 broker 会重投这些消息
+            logger.warn("Failed to ack deliveries " + deliveryTags + ": " + e);
+        }
+    }
+
+    /**
+     * 等待许可时每 100ms 检查一次是否在停止，停止后不再派发
+     */
+    private boolean acquire(Semaphore semaphore) {
+        try {
+            while (!draining) {
+                if (semaphore.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    private void release(Semaphore semaphore) {
+        semaphore.release();
+        if (inFlight.decrementAndGet() == 0) {
+            synchronized (idle) {
+                idle.notifyAll();
+            }
+        }
+    }
+
+    private void drain() {
+        draining = true;
+        long deadline = System.currentTimeMillis() + getShutdownTimeout();
+        synchronized (idle) {
+            long remaining;
+            while (inFlight.get() > 0 && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                try {
+                    idle.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        if (inFlight.get() > 0) {
+            logger.warn(inFlight.get() + " deliveries still in flight after " + getShutdownTimeout()
+                    + "ms, they will be redelivered");
+        }
+    }
+
+    private void basicNack(Channel channel, Set<Long> deliveryTags, boolean requeue) {
+        try {
+            for (Long deliveryTag : deliveryTags) {
+                channel.basicNack(deliveryTag, false, requeue);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to nack deliveries " + deliveryTags + ": " + e);
+        }
+    }
+
+    /**
+     * 生产端合并的批消息拆开后共用一个 delivery tag，批量消费的一批包含多个，去重后逐个确认
+     */
+    private static Set<Long> deliveryTags(Object data) {
+        Set<Long> deliveryTags = new LinkedHashSet<>();
+        if (data instanceof Message message) {
+            deliveryTags.add(message.getMessageProperties().getDeliveryTag());
+        } else if (data instanceof List<?> messages) {
+            for (Object message : messages) {
+                deliveryTags.add(((Message) message).getMessageProperties().getDeliveryTag());
+            }
+        }
+        return deliveryTags;
+    }
+
+    private static String consumerQueue(Object data) {
+        Object message = data instanceof List<?> messages && !messages.isEmpty() ? messages.get(0) : data;
+        return message instanceof Message m ? m.getMessageProperties().getConsumerQueue() : "";
+    }
+}
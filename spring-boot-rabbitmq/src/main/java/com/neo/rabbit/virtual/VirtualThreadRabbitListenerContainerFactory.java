@@ -0,0 +1,59 @@
+package com.neo.rabbit.virtual;
+
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.function.ToIntFunction;
+
+/**
+ * 创建 VirtualThreadListenerContainer 的工厂，所有容器共用一个虚拟线程 executor，
+ * 同一个队列的所有容器和消费者共用一个信号量，许可数由 maxInFlight 按队列名给出。
+ * 容器的 prefetch 默认提高到该队列的 maxInFlight，保证 broker 投递足够的消息；rabbit.queues.{queue}.prefetch 仍可覆盖。
+ */
+public class VirtualThreadRabbitListenerContainerFactory extends SimpleRabbitListenerContainerFactory
+        implements DisposableBean {
+
+    private final ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("rabbit-virtual-");
+
+    private final Map<String, Semaphore> limits = new ConcurrentHashMap<>();
+
+    private final ToIntFunction<String> maxInFlight;
+
+    public VirtualThreadRabbitListenerContainerFactory(ToIntFunction<String> maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public Semaphore limit(String queue) {
+        return limits.computeIfAbsent(queue, q -> new Semaphore(maxInFlight.applyAsInt(q)));
+    }
+
+    @Override
+    protected SimpleMessageListenerContainer createContainerInstance() {
+        return new VirtualThreadListenerContainer(executor, this::limit);
+    }
+
+    @Override
+    protected void initializeContainer(SimpleMessageListenerContainer instance, RabbitListenerEndpoint endpoint) {
+        super.initializeContainer(instance, endpoint);
+        instance.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        int prefetch = 0;
+        for (String queue : instance.getQueueNames()) {
+            prefetch = Math.max(prefetch, maxInFlight.applyAsInt(queue));
+        }
+        if (prefetch > 0) {
+            instance.setPrefetchCount(prefetch);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
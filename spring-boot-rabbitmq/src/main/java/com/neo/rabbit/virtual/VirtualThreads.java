@@ -0,0 +1,51 @@
+package com.neo.rabbit.virtual;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 创建每个任务一个线程的 ExecutorService：JDK 21 及以上使用虚拟线程，
+ * 低版本回退为按需创建的平台线程池（同样没有线程数上限，由调用方的信号量限流）。
+ * 项目仍以 Java 17 编译，虚拟线程 API 通过反射调用。
+ */
+public final class VirtualThreads {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreads.class);
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        if (isSupported()) {
+            try {
+                Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+                builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+                ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+                Method executor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+                return (ExecutorService) executor.invoke(null, factory);
+            } catch (ReflectiveOperationException e) {
+                logger.warn("Virtual threads unavailable, falling back to platform threads", e);
+            }
+        } else {
+            logger.info("Java {} has no virtual threads, {} uses platform threads", Runtime.version().feature(),
+                    namePrefix);
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, namePrefix + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
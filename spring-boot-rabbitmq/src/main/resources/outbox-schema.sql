@@ -0,0 +1,10 @@
+-- rabbit.outbox.enabled=true 时 OutboxRelay 读取的表，表名可通过 rabbit.outbox.table 修改
+-- PostgreSQL 中 id 使用 BIGSERIAL，body 使用 BYTEA
+CREATE TABLE outbox (
+    id           BIGINT AUTO_INCREMENT PRIMARY KEY,
+    exchange     VARCHAR(255) NOT NULL,
+    routing_key  VARCHAR(255) NOT NULL,
+    content_type VARCHAR(100),
+    body         BLOB         NOT NULL,
+    created_at   TIMESTAMP    DEFAULT CURRENT_TIMESTAMP NOT NULL
+);
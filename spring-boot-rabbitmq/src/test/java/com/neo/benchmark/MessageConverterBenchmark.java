@@ -0,0 +1,98 @@
+package com.neo.benchmark;
+
+import com.neo.model.User;
+import com.neo.rabbit.codec.CompactMessageConverter;
+import com.neo.rabbit.codec.UserCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.amqp.support.converter.SimpleMessageConverter;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对比 COMPACT / JDK / JSON 三种 MessageConverter 编码（生产端）和解码（消费端）User 消息的耗时，
+ * main 方法先打印各自的消息体字节数。passLength 较大时 COMPACT 会触发 Snappy 压缩。
+ * 运行：mvn test-compile 后执行本类 main 方法
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageConverterBenchmark {
+
+    @Param({"COMPACT", "JDK", "JSON"})
+    public String type;
+
+    @Param({"8", "2048"})
+    public int passLength;
+
+    private MessageConverter converter;
+
+    private User user;
+
+    private Message message;
+
+    @Setup
+    public void setUp() {
+        converter = create(type);
+        user = sample(passLength);
+        message = converter.toMessage(user, new MessageProperties());
+    }
+
+    @Benchmark
+    public Message encode() {
+        return converter.toMessage(user, new MessageProperties());
+    }
+
+    @Benchmark
+    public Object decode() {
+        return converter.fromMessage(message);
+    }
+
+    static MessageConverter create(String type) {
+        switch (type) {
+            case "JDK":
+                return new SimpleMessageConverter();
+            case "JSON":
+                return new Jackson2JsonMessageConverter("com.neo.model");
+            default:
+                return new CompactMessageConverter(List.of(new UserCodec()), 512, new SimpleMessageConverter());
+        }
+    }
+
+    static User sample(int passLength) {
+        User user = new User();
+        user.setName("neo");
+        user.setPass("123456".repeat(passLength / 6 + 1).substring(0, passLength));
+        return user;
+    }
+
+    public static void main(String[] args) throws Exception {
+        for (int passLength : new int[]{8, 2048}) {
+            for (String type : new String[]{"COMPACT", "JDK", "JSON"}) {
+                Message message = create(type).toMessage(sample(passLength), new MessageProperties());
+                System.out.println(type + " passLength=" + passLength + " body size: "
+                        + message.getBody().length + " bytes");
+            }
+        }
+        new Runner(new OptionsBuilder().include(MessageConverterBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,323 @@
+package com.neo.benchmark;
+
+import com.neo.benchmark.broker.InMemoryBroker;
+import com.neo.model.User;
+import com.neo.rabbit.BatchingConfirmRabbitTemplate;
+import com.neo.rabbit.FanoutRabbitConfig;
+import com.neo.rabbit.RabbitConfig;
+import com.neo.rabbit.RabbitConverterConfig;
+import com.neo.rabbit.RabbitDedupConfig;
+import com.neo.rabbit.RabbitListenerConfig;
+import com.neo.rabbit.RabbitPublishConfig;
+import com.neo.rabbit.RabbitSource;
+import com.neo.rabbit.TopicRabbitConfig;
+import com.neo.rabbit.codec.UserCodec;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.amqp.core.BatchMessageListener;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.amqp.CachingConnectionFactoryConfigurer;
+import org.springframework.boot.autoconfigure.amqp.RabbitAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.Environment;
+
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 端到端吞吐和延迟基准：在进程内的 InMemoryBroker 上启动与应用相同的 RabbitTemplate、MessageConverter、
+ * 队列声明和监听容器工厂（读取同一份 application.properties），多个生产者线程用 sendBatched 发送 User 消息，
+ * 消费者解码后按消息中携带的发送时间记录端到端延迟，输出 msgs/s 和 HDR 直方图的 p50 / p99 / p999。
+ * <p>
+ * 参数通过 -D 系统属性或 --name=value 传入：
+ * <ul>
+ *     <li>benchmark.pattern：neo（默认交换机到 neo 队列，批量消费）、fanout（fanoutExchange 到 fanout.A/B/C）、
+ *     topic（topicExchange 按 topic.message 路由到两个队列）</li>
+ *     <li>benchmark.producers：生产者线程数，默认 2</li>
+ *     <li>benchmark.consumers：每个队列的消费者数，默认使用 rabbit.queues.* 或 spring.rabbitmq.listener.simple.*</li>
+ *     <li>benchmark.message-size：消息中填充的字节数，默认 256</li>
+ *     <li>benchmark.messages / benchmark.warmup-messages：每个生产者正式和预热阶段发送的条数</li>
+ *     <li>benchmark.max-in-flight：每个生产者未确认消息的上限</li>
+ *     <li>benchmark.histogram-file：写出完整的延迟百分位分布（微秒）</li>
+ * </ul>
+ * rabbit.* 和 spring.rabbitmq.* 同样可以覆盖，例如 -Drabbit.converter.type=JAVA -Drabbit.publish.batch-size=1，
+ * -Drabbit.queues.neo.dedup=true 可以对比开启去重后的开销。
+ * 运行：mvn test-compile 后执行本类 main 方法
+ */
+public class RabbitBenchmark {
+
+    private final ConfigurableApplicationContext context;
+
+    private final Pattern pattern;
+
+    private final int producers;
+
+    private final Integer consumers;
+
+    private final int messageSize;
+
+    private final int maxInFlight;
+
+    private final LatencyListener listener;
+
+    private final List<SimpleMessageListenerContainer> containers = new ArrayList<>();
+
+    public RabbitBenchmark(String... args) {
+        this.context = new SpringApplicationBuilder(BenchmarkConfig.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .run(args);
+        Environment env = context.getEnvironment();
+        this.pattern = Pattern.valueOf(env.getProperty("benchmark.pattern", "neo").toUpperCase(Locale.ROOT));
+        this.producers = env.getProperty("benchmark.producers", Integer.class, 2);
+        this.consumers = env.getProperty("benchmark.consumers", Integer.class);
+        this.messageSize = env.getProperty("benchmark.message-size", Integer.class, 256);
+        this.maxInFlight = env.getProperty("benchmark.max-in-flight", Integer.class, 10_000);
+        this.listener = new LatencyListener(context.getBean(MessageConverter.class));
+    }
+
+    public void start() {
+        SimpleRabbitListenerContainerFactory factory =
+                context.getBean(pattern.containerFactory, SimpleRabbitListenerContainerFactory.class);
+        for (String queue : pattern.queues) {
+            SimpleRabbitListenerEndpoint endpoint = new SimpleRabbitListenerEndpoint();
+            endpoint.setId("benchmark-" + queue);
+            endpoint.setQueueNames(queue);
+            endpoint.setMessageListener(listener);
+            SimpleMessageListenerContainer container = factory.createListenerContainer(endpoint);
+            if (consumers != null) {
+                container.setMaxConcurrentConsumers(consumers);
+                container.setConcurrentConsumers(consumers);
+            }
+            container.start();
+            containers.add(container);
+        }
+    }
+
+    /**
+     * 每个生产者发送 messagesPerProducer 条，等待全部被消费后返回本阶段的统计
+     */
+    public Result run(int messagesPerProducer, long timeoutSeconds) throws InterruptedException {
+        BatchingConfirmRabbitTemplate template = context.getBean(BatchingConfirmRabbitTemplate.class);
+        long expected = (long) producers * messagesPerProducer * pattern.queues.length;
+        CountDownLatch done = listener.expect(expected);
+        LongAdder failures = new LongAdder();
+        List<Thread> threads = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int p = 0; p < producers; p++) {
+            Thread thread = new Thread(() -> produce(template, messagesPerProducer, failures), "benchmark-producer-" + p);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        boolean completed = done.await(timeoutSeconds, TimeUnit.SECONDS);
+        long elapsed = System.nanoTime() - start;
+        return new Result(expected, listener.received(), failures.sum(), completed, elapsed, listener.histogram());
+    }
+
+    private void produce(BatchingConfirmRabbitTemplate template, int count, LongAdder failures) {
+        String padding = padding(messageSize);
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        for (int i = 0; i < count; i++) {
+            inFlight.acquireUninterruptibly();
+            User user = new User();
+            user.setName(Long.toString(System.nanoTime()));
+            user.setPass(padding);
+            template.sendBatched(pattern.exchange, pattern.routingKey, user).whenComplete((v, e) -> {
+                inFlight.release();
+                if (e != null) {
+                    failures.increment();
+                }
+            });
+        }
+        inFlight.acquireUninterruptibly(maxInFlight);
+    }
+
+    /**
+     * 随机字母数字，避免压缩把填充内容压成几个字节
+     */
+    private static String padding(int size) {
+        String chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+        StringBuilder sb = new StringBuilder(size);
+        for (int i = 0; i < size; i++) {
+            sb.append(chars.charAt(ThreadLocalRandom.current().nextInt(chars.length())));
+        }
+        return sb.toString();
+    }
+
+    public void close() {
+        containers.forEach(SimpleMessageListenerContainer::stop);
+        context.close();
+    }
+
+    public String describe() {
+        return "pattern=" + pattern.name().toLowerCase(Locale.ROOT) + " producers=" + producers
+                + " consumersPerQueue=" + (consumers == null ? "configured" : consumers)
+                + " messageSize=" + messageSize + " queues=" + String.join(",", pattern.queues);
+    }
+
+    public static void main(String[] args) throws Exception {
+        RabbitBenchmark benchmark = new RabbitBenchmark(args);
+        Environment env = benchmark.context.getEnvironment();
+        int warmup = env.getProperty("benchmark.warmup-messages", Integer.class, 20_000);
+        int messages = env.getProperty("benchmark.messages", Integer.class, 100_000);
+        String histogramFile = env.getProperty("benchmark.histogram-file");
+        try {
+            benchmark.start();
+            System.out.println(benchmark.describe());
+            System.out.println("warm-up:  " + benchmark.run(warmup, 120));
+            Result result = benchmark.run(messages, 300);
+            System.out.println("measured: " + result);
+            if (histogramFile != null) {
+                try (PrintStream out = new PrintStream(new FileOutputStream(histogramFile))) {
+                    result.histogram().outputPercentileDistribution(out, 1000.0);
+                }
+                System.out.println("histogram (us) written to " + histogramFile);
+            }
+        } finally {
+            benchmark.close();
+        }
+    }
+
+    enum Pattern {
+
+        NEO("", "neo", "batchRabbitListenerContainerFactory", "neo"),
+        FANOUT("fanoutExchange", "", "rabbitListenerContainerFactory", "fanout.A", "fanout.B", "fanout.C"),
+        TOPIC("topicExchange", "topic.message", "rabbitListenerContainerFactory", "topic.message", "topic.messages");
+
+        private final String exchange;
+
+        private final String routingKey;
+
+        private final String containerFactory;
+
+        private final String[] queues;
+
+        Pattern(String exchange, String routingKey, String containerFactory, String... queues) {
+            this.exchange = exchange;
+            this.routingKey = routingKey;
+            this.containerFactory = containerFactory;
+            this.queues = queues;
+        }
+    }
+
+    /**
+     * 一个阶段的统计，延迟单位为纳秒
+     */
+    public record Result(long expected, long received, long failures, boolean completed, long elapsedNanos,
+                         Histogram histogram) {
+
+        public double throughput() {
+            return received * 1_000_000_000D / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "%d/%d msgs in %.2fs, %.0f msgs/s, latency us p50=%.1f p99=%.1f p999=%.1f max=%.1f%s%s",
+                    received, expected, elapsedNanos / 1e9, throughput(),
+                    histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getValueAtPercentile(99.9) / 1000.0, histogram.getMaxValue() / 1000.0,
+                    failures > 0 ? ", " + failures + " publish failures" : "",
+                    completed ? "" : ", TIMED OUT");
+        }
+    }
+
+    /**
+     * 逐条或批量消费都走这里：用应用的 MessageConverter 解码，按 name 中的发送时间记录延迟
+     */
+    static final class LatencyListener implements BatchMessageListener {
+
+        private final MessageConverter converter;
+
+        private final Recorder recorder = new Recorder(3);
+
+        private final AtomicLong received = new AtomicLong();
+
+        private volatile long expected;
+
+        private volatile CountDownLatch done = new CountDownLatch(0);
+
+        LatencyListener(MessageConverter converter) {
+            this.converter = converter;
+        }
+
+        CountDownLatch expect(long count) {
+            recorder.reset();
+            received.set(0);
+            expected = count;
+            done = new CountDownLatch(1);
+            return done;
+        }
+
+        long received() {
+            return received.get();
+        }
+
+        Histogram histogram() {
+            return recorder.getIntervalHistogram();
+        }
+
+        @Override
+        public void onMessage(Message message) {
+            User user = (User) converter.fromMessage(message);
+            recorder.recordValue(Math.max(0, System.nanoTime() - Long.parseLong(user.getName())));
+            if (received.incrementAndGet() == expected) {
+                done.countDown();
+            }
+        }
+
+        @Override
+        public void onMessageBatch(List<Message> messages) {
+            messages.forEach(this::onMessage);
+        }
+    }
+
+    /**
+     * 只加载 RabbitMQ 相关配置，不扫描应用里打印日志的监听器；ConnectionFactory 指向进程内 broker。
+     * 不加 @Configuration，避免被应用测试的组件扫描捡到
+     */
+    @ImportAutoConfiguration(RabbitAutoConfiguration.class)
+    @EnableConfigurationProperties(RabbitSource.class)
+    @Import({RabbitConfig.class, FanoutRabbitConfig.class, TopicRabbitConfig.class, RabbitPublishConfig.class,
+            RabbitListenerConfig.class, RabbitConverterConfig.class, RabbitDedupConfig.class, UserCodec.class})
+    static class BenchmarkConfig {
+
+        @Bean
+        public InMemoryBroker inMemoryBroker() {
+            return new InMemoryBroker();
+        }
+
+        @Bean
+        public CachingConnectionFactory rabbitConnectionFactory(CachingConnectionFactoryConfigurer configurer,
+                                                                InMemoryBroker broker) {
+            CachingConnectionFactory factory = new CachingConnectionFactory(broker.connectionFactory());
+            configurer.configure(factory);
+            return factory;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.neo.benchmark;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 用很少的消息跑一遍 RabbitBenchmark，确认进程内 broker 上收发、确认和统计都能走通
+ */
+public class RabbitBenchmarkTest {
+
+    private static RabbitBenchmark.Result run(String pattern) throws Exception {
+        RabbitBenchmark benchmark = new RabbitBenchmark("--benchmark.pattern=" + pattern,
+                "--benchmark.producers=2", "--benchmark.message-size=64");
+        try {
+            benchmark.start();
+            return benchmark.run(500, 30);
+        } finally {
+            benchmark.close();
+        }
+    }
+
+    @Test
+    public void neoDeliversEveryMessageOnce() throws Exception {
+        RabbitBenchmark.Result result = run("neo");
+        Assert.assertTrue(result.toString(), result.completed());
+        Assert.assertEquals(1000, result.received());
+        Assert.assertEquals(1000, result.histogram().getTotalCount());
+        Assert.assertEquals(0, result.failures());
+    }
+
+    @Test
+    public void fanoutDeliversToEveryQueue() throws Exception {
+        RabbitBenchmark.Result result = run("fanout");
+        Assert.assertTrue(result.toString(), result.completed());
+        Assert.assertEquals(3000, result.received());
+    }
+}
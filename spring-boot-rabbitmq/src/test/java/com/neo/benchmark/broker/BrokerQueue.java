@@ -0,0 +1,108 @@
+package com.neo.benchmark.broker;
+
+import com.rabbitmq.client.AMQP;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * InMemoryBroker 中的一个队列，按轮询把消息分发给还有预取余量的消费者
+ */
+public class BrokerQueue {
+
+    private final String name;
+
+    private final ArrayDeque<QueuedMessage> messages = new ArrayDeque<>();
+
+    private final List<StandInChannel.ConsumerSlot> consumers = new ArrayList<>();
+
+    private int next;
+
+    BrokerQueue(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized int size() {
+        return messages.size();
+    }
+
+    public synchronized int consumerCount() {
+        return consumers.size();
+    }
+
+    synchronized int purge() {
+        int purged = messages.size();
+        messages.clear();
+        return purged;
+    }
+
+    synchronized void enqueue(QueuedMessage message) {
+        messages.addLast(message);
+        dispatch();
+    }
+
+    synchronized void addConsumer(StandInChannel.ConsumerSlot consumer) {
+        consumers.add(consumer);
+        dispatch();
+    }
+
+    synchronized void removeConsumer(StandInChannel.ConsumerSlot consumer) {
+        consumers.remove(consumer);
+    }
+
+    /**
+     * 消费者确认或拒绝了一条消息，释放一个预取名额；requeue 不为 null 时把它放回队首并标记为重投
+     */
+    synchronized void release(StandInChannel.ConsumerSlot consumer, QueuedMessage requeue) {
+        consumer.unacked--;
+        if (requeue != null) {
+            requeue.redelivered = true;
+            messages.addFirst(requeue);
+        }
+        dispatch();
+    }
+
+    private void dispatch() {
+        while (!messages.isEmpty() && !consumers.isEmpty()) {
+            StandInChannel.ConsumerSlot target = null;
+            int size = consumers.size();
+            for (int i = 0; i < size; i++) {
+                StandInChannel.ConsumerSlot consumer = consumers.get((next + i) % size);
+                if (consumer.hasCapacity()) {
+                    target = consumer;
+                    next = (next + i + 1) % size;
+                    break;
+                }
+            }
+            if (target == null) {
+                return;
+            }
+            target.deliver(messages.pollFirst());
+        }
+    }
+
+    static final class QueuedMessage {
+
+        final String exchange;
+
+        final String routingKey;
+
+        final AMQP.BasicProperties properties;
+
+        final byte[] body;
+
+        boolean redelivered;
+
+        QueuedMessage(String exchange, String routingKey, AMQP.BasicProperties properties, byte[] body) {
+            this.exchange = exchange;
+            this.routingKey = routingKey;
+            this.properties = properties;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.neo.benchmark.broker;
+
+import com.rabbitmq.client.AddressResolver;
+import com.rabbitmq.client.Connection;
+import com.rabbitmq.client.ConnectionFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 进程内的 AMQP broker 替身，实现 com.rabbitmq.client 中 Spring AMQP 用到的 Connection / Channel 方法：
+ * 默认、direct、fanout、topic 四种 exchange，队列和绑定，basicQos 预取，手动 ack / nack / reject，
+ * publisher confirm 和 mandatory 退回。CachingConnectionFactory、RabbitAdmin、RabbitTemplate 和监听容器都是真实实现，
+ * 只把网络和 RabbitMQ 换成内存队列，用于在没有 broker 的环境下比较转换器、预取和批量参数的改动。
+ * <p>
+ * 不模拟持久化、TTL、死信、事务和流控，消息体在发布时复制一次，代替网络传输。
+ */
+public class InMemoryBroker {
+
+    private final Map<String, Exchange> exchanges = new ConcurrentHashMap<>();
+
+    private final Map<String, BrokerQueue> queues = new ConcurrentHashMap<>();
+
+    private final AtomicInteger generatedNames = new AtomicInteger();
+
+    public InMemoryBroker() {
+        exchanges.put("", new Exchange("", "direct"));
+    }
+
+    /**
+     * 交给 CachingConnectionFactory 的 RabbitMQ ConnectionFactory，每次 newConnection 返回一个连到本 broker 的连接
+     */
+    public ConnectionFactory connectionFactory() {
+        ConnectionFactory factory = new ConnectionFactory() {
+            @Override
+            public Connection newConnection(ExecutorService executor, AddressResolver addressResolver,
+                                            String clientProvidedName) {
+                return StandInConnection.create(InMemoryBroker.this, clientProvidedName);
+            }
+        };
+        factory.setAutomaticRecoveryEnabled(false);
+        return factory;
+    }
+
+    public BrokerQueue queue(String name) {
+        return queues.get(name);
+    }
+
+    public Collection<BrokerQueue> queues() {
+        return queues.values();
+    }
+
+    void declareExchange(String name, String type) {
+        exchanges.computeIfAbsent(name, n -> new Exchange(n, type));
+    }
+
+    boolean hasExchange(String name) {
+        return exchanges.containsKey(name);
+    }
+
+    BrokerQueue declareQueue(String name) {
+        if (name == null || name.isEmpty()) {
+            name = "amq.gen-" + generatedNames.incrementAndGet();
+        }
+        return queues.computeIfAbsent(name, BrokerQueue::new);
+    }
+
+    void bind(String queue, String exchange, String routingKey) throws IOException {
+        Exchange target = exchanges.get(exchange);
+        if (target == null || !queues.containsKey(queue)) {
+            throw new IOException("NOT_FOUND - no exchange '" + exchange + "' or queue '" + queue + "'");
+        }
+        target.bindings.add(new Binding(queue, routingKey));
+    }
+
+    List<BrokerQueue> route(String exchange, String routingKey) {
+        Exchange target = exchanges.get(exchange);
+        if (target == null) {
+            return List.of();
+        }
+        Set<String> names = new LinkedHashSet<>();
+        if (target.name.isEmpty()) {
+            names.add(routingKey);
+        } else {
+            for (Binding binding : target.bindings) {
+                if (target.matches(binding.routingKey(), routingKey)) {
+                    names.add(binding.queue());
+                }
+            }
+        }
+        List<BrokerQueue> routed = new ArrayList<>(names.size());
+        for (String name : names) {
+            BrokerQueue queue = queues.get(name);
+            if (queue != null) {
+                routed.add(queue);
+            }
+        }
+        return routed;
+    }
+
+    static boolean topicMatches(String pattern, String routingKey) {
+        return topicMatches(pattern.split("\\.", -1), 0, routingKey.split("\\.", -1), 0);
+    }
+
+    private static boolean topicMatches(String[] pattern, int i, String[] words, int j) {
+        if (i == pattern.length) {
+            return j == words.length;
+        }
+        if ("#".equals(pattern[i])) {
+            for (int k = j; k <= words.length; k++) {
+                if (topicMatches(pattern, i + 1, words, k)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (j == words.length) {
+            return false;
+        }
+        return ("*".equals(pattern[i]) || pattern[i].equals(words[j])) && topicMatches(pattern, i + 1, words, j + 1);
+    }
+
+    private record Binding(String queue, String routingKey) {
+    }
+
+    private static final class Exchange {
+
+        private final String name;
+
+        private final String type;
+
+        private final List<Binding> bindings = new CopyOnWriteArrayList<>();
+
+        Exchange(String name, String type) {
+            this.name = name;
+            this.type = type;
+        }
+
+        boolean matches(String bindingKey, String routingKey) {
+            switch (type) {
+                case "fanout":
+                    return true;
+                case "topic":
+                    return topicMatches(bindingKey, routingKey);
+                default:
+                    return bindingKey.equals(routingKey);
+            }
+        }
+    }
+}
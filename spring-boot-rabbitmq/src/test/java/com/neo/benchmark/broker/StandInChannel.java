@@ -0,0 +1,385 @@
+package com.neo.benchmark.broker;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.BuiltinExchangeType;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.ConfirmListener;
+import com.rabbitmq.client.Connection;
+import com.rabbitmq.client.Consumer;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.ReturnListener;
+import com.rabbitmq.client.ShutdownSignalException;
+import com.rabbitmq.client.impl.AMQImpl;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * InMemoryBroker 上的 Channel。投递、confirm 和退回都在本通道的单个分发线程上回调，
+ * 与 RabbitMQ 客户端按通道串行回调的行为一致。
+ */
+final class StandInChannel implements InvocationHandler {
+
+    private final InMemoryBroker broker;
+
+    private final Connection connection;
+
+    private final int number;
+
+    private final Channel proxy;
+
+    private final ExecutorService dispatcher;
+
+    private final Map<String, ConsumerSlot> consumers = new ConcurrentHashMap<>();
+
+    private final ConcurrentSkipListMap<Long, Unacked> unacked = new ConcurrentSkipListMap<>();
+
+    private final AtomicLong deliveryTags = new AtomicLong();
+
+    private final AtomicLong consumerTags = new AtomicLong();
+
+    private final List<ConfirmListener> confirmListeners = new CopyOnWriteArrayList<>();
+
+    private final List<ReturnListener> returnListeners = new CopyOnWriteArrayList<>();
+
+    private volatile boolean open = true;
+
+    private volatile int prefetch;
+
+    private boolean confirm;
+
+    private long publishSeqNo;
+
+    StandInChannel(InMemoryBroker broker, Connection connection, int number) {
+        this.broker = broker;
+        this.connection = connection;
+        this.number = number;
+        this.proxy = (Channel) Proxy.newProxyInstance(Channel.class.getClassLoader(), new Class<?>[]{Channel.class}, this);
+        this.dispatcher = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "stand-in-channel-" + number);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    Channel proxy() {
+        return proxy;
+    }
+
+    @Override
+    public Object invoke(Object self, Method method, Object[] args) throws IOException {
+        switch (method.getName()) {
+            case "getChannelNumber":
+                return number;
+            case "getConnection":
+                return connection;
+            case "isOpen":
+                return open;
+            case "close":
+            case "abort":
+                close();
+                return null;
+            case "basicQos":
+                prefetch = (int) args[args.length == 3 ? 1 : 0];
+                return null;
+            case "confirmSelect":
+                synchronized (this) {
+                    confirm = true;
+                }
+                return new AMQImpl.Confirm.SelectOk();
+            case "getNextPublishSeqNo":
+                synchronized (this) {
+                    return confirm ? publishSeqNo + 1 : 0L;
+                }
+            case "addConfirmListener":
+                if (args[0] instanceof ConfirmListener listener) {
+                    confirmListeners.add(listener);
+                }
+                return null;
+            case "removeConfirmListener":
+                return confirmListeners.remove(args[0]);
+            case "addReturnListener":
+                if (args[0] instanceof ReturnListener listener) {
+                    returnListeners.add(listener);
+                }
+                return null;
+            case "removeReturnListener":
+                return returnListeners.remove(args[0]);
+            case "exchangeDeclare":
+                broker.declareExchange((String) args[0], args[1] instanceof BuiltinExchangeType type
+                        ? type.getType() : (String) args[1]);
+                return new AMQImpl.Exchange.DeclareOk();
+            case "exchangeDeclarePassive":
+                if (!broker.hasExchange((String) args[0])) {
+                    throw new IOException("NOT_FOUND - no exchange '" + args[0] + "'");
+                }
+                return new AMQImpl.Exchange.DeclareOk();
+            case "queueDeclare": {
+                BrokerQueue queue = broker.declareQueue(args == null || args.length == 0 ? null : (String) args[0]);
+                return new AMQImpl.Queue.DeclareOk(queue.getName(), queue.size(), queue.consumerCount());
+            }
+            case "queueDeclarePassive": {
+                BrokerQueue queue = broker.queue((String) args[0]);
+                if (queue == null) {
+                    throw new IOException("NOT_FOUND - no queue '" + args[0] + "'");
+                }
+                return new AMQImpl.Queue.DeclareOk(queue.getName(), queue.size(), queue.consumerCount());
+            }
+            case "queueBind":
+                broker.bind((String) args[0], (String) args[1], (String) args[2]);
+                return new AMQImpl.Queue.BindOk();
+            case "queuePurge": {
+                BrokerQueue queue = broker.queue((String) args[0]);
+                return new AMQImpl.Queue.PurgeOk(queue == null ? 0 : queue.purge());
+            }
+            case "messageCount": {
+                BrokerQueue queue = broker.queue((String) args[0]);
+                return queue == null ? 0L : (long) queue.size();
+            }
+            case "consumerCount": {
+                BrokerQueue queue = broker.queue((String) args[0]);
+                return queue == null ? 0L : (long) queue.consumerCount();
+            }
+            case "basicPublish":
+                publish(args);
+                return null;
+            case "basicConsume":
+                return consume(args);
+            case "basicCancel":
+                cancel((String) args[0]);
+                return null;
+            case "basicAck":
+                settle((long) args[0], (boolean) args[1], false);
+                return null;
+            case "basicNack":
+                settle((long) args[0], (boolean) args[1], (boolean) args[2]);
+                return null;
+            case "basicReject":
+                settle((long) args[0], false, (boolean) args[1]);
+                return null;
+            case "basicRecover":
+                settle(Long.MAX_VALUE, true, true);
+                return null;
+            case "toString":
+                return "StandInChannel[" + number + "]";
+            case "hashCode":
+                return System.identityHashCode(self);
+            case "equals":
+                return self == args[0];
+            default:
+                return defaultValue(method.getReturnType());
+        }
+    }
+
+    /**
+     * basicPublish 的三个重载：(exchange, routingKey, props, body)、加 mandatory、再加 immediate
+     */
+    private void publish(Object[] args) throws IOException {
+        if (!open) {
+            throw new IOException("Channel " + number + " is closed");
+        }
+        String exchange = (String) args[0];
+        String routingKey = (String) args[1];
+        boolean mandatory = args.length >= 5 && (boolean) args[2];
+        AMQP.BasicProperties properties = (AMQP.BasicProperties) args[args.length - 2];
+        byte[] body = (byte[]) args[args.length - 1];
+        List<BrokerQueue> targets = broker.route(exchange, routingKey);
+        long seqNo = 0;
+        synchronized (this) {
+            if (confirm) {
+                seqNo = ++publishSeqNo;
+            }
+        }
+        byte[] copy = Arrays.copyOf(body, body.length);
+        for (BrokerQueue queue : targets) {
+            queue.enqueue(new BrokerQueue.QueuedMessage(exchange, routingKey, properties, copy));
+        }
+        if (targets.isEmpty() && mandatory) {
+            dispatch(() -> {
+                for (ReturnListener listener : returnListeners) {
+                    listener.handleReturn(312, "NO_ROUTE", exchange, routingKey, properties, copy);
+                }
+            });
+        }
+        if (seqNo > 0) {
+            long ack = seqNo;
+            dispatch(() -> {
+                for (ConfirmListener listener : confirmListeners) {
+                    listener.handleAck(ack, false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Spring AMQP 使用 (queue, autoAck, consumerTag, noLocal, exclusive, arguments, consumer) 重载，
+     * 其余重载按参数类型取值
+     */
+    private String consume(Object[] args) throws IOException {
+        BrokerQueue queue = broker.queue((String) args[0]);
+        if (queue == null) {
+            throw new IOException("NOT_FOUND - no queue '" + args[0] + "'");
+        }
+        boolean autoAck = args.length > 2 && args[1] instanceof Boolean value && value;
+        String tag = args.length > 3 && args[2] instanceof String value ? value : "";
+        if (tag.isEmpty()) {
+            tag = "amq.ctag-" + number + "-" + consumerTags.incrementAndGet();
+        }
+        Consumer consumer = (Consumer) args[args.length - 1];
+        ConsumerSlot slot = new ConsumerSlot(tag, consumer, queue, autoAck, prefetch);
+        consumers.put(tag, slot);
+        String consumerTag = tag;
+        dispatch(() -> consumer.handleConsumeOk(consumerTag));
+        queue.addConsumer(slot);
+        return tag;
+    }
+
+    private void cancel(String tag) {
+        ConsumerSlot slot = consumers.remove(tag);
+        if (slot != null) {
+            slot.queue.removeConsumer(slot);
+            dispatch(() -> slot.consumer.handleCancelOk(tag));
+        }
+    }
+
+    /**
+     * ack 时 requeue 为 false；nack / reject 时按 requeue 决定放回队列还是丢弃
+     */
+    private void settle(long deliveryTag, boolean multiple, boolean requeue) {
+        List<Unacked> settled = new ArrayList<>();
+        if (multiple) {
+            NavigableMap<Long, Unacked> head = unacked.headMap(deliveryTag, true);
+            settled.addAll(head.values());
+            head.clear();
+        } else {
+            Unacked entry = unacked.remove(deliveryTag);
+            if (entry != null) {
+                settled.add(entry);
+            }
+        }
+        for (Unacked entry : settled) {
+            entry.slot.queue.release(entry.slot, requeue ? entry.message : null);
+        }
+    }
+
+    void close() {
+        if (!open) {
+            return;
+        }
+        open = false;
+        ShutdownSignalException signal = new ShutdownSignalException(false, true, null, proxy);
+        for (ConsumerSlot slot : consumers.values()) {
+            slot.queue.removeConsumer(slot);
+            dispatch(() -> slot.consumer.handleShutdownSignal(slot.tag, signal));
+        }
+        consumers.clear();
+        settle(Long.MAX_VALUE, true, true);
+        dispatcher.shutdown();
+    }
+
+    private void dispatch(Callback callback) {
+        try {
+            dispatcher.execute(() -> {
+                try {
+                    callback.run();
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            // 通道已关闭，丢弃回调
+        }
+    }
+
+    static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == double.class) {
+            return 0D;
+        }
+        if (type == float.class) {
+            return 0F;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        if (type == char.class) {
+            return (char) 0;
+        }
+        return null;
+    }
+
+    @FunctionalInterface
+    private interface Callback {
+        void run() throws IOException;
+    }
+
+    private record Unacked(ConsumerSlot slot, BrokerQueue.QueuedMessage message) {
+    }
+
+    /**
+     * 一个 basicConsume 订阅，unacked 由所在队列的锁保护
+     */
+    final class ConsumerSlot {
+
+        private final String tag;
+
+        private final Consumer consumer;
+
+        private final BrokerQueue queue;
+
+        private final boolean autoAck;
+
+        private final int prefetch;
+
+        int unacked;
+
+        ConsumerSlot(String tag, Consumer consumer, BrokerQueue queue, boolean autoAck, int prefetch) {
+            this.tag = tag;
+            this.consumer = consumer;
+            this.queue = queue;
+            this.autoAck = autoAck;
+            this.prefetch = prefetch;
+        }
+
+        boolean hasCapacity() {
+            return autoAck || prefetch <= 0 || unacked < prefetch;
+        }
+
+        /**
+         * 在队列锁内调用
+         */
+        void deliver(BrokerQueue.QueuedMessage message) {
+            long deliveryTag = deliveryTags.incrementAndGet();
+            if (!autoAck) {
+                unacked++;
+                StandInChannel.this.unacked.put(deliveryTag, new Unacked(this, message));
+            }
+            Envelope envelope = new Envelope(deliveryTag, message.redelivered, message.exchange, message.routingKey);
+            dispatch(() -> consumer.handleDelivery(tag, envelope, message.properties, message.body));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.neo.benchmark.broker;
+
+import com.rabbitmq.client.Connection;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.InetAddress;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 连到 InMemoryBroker 的 Connection，只实现创建通道、关闭和 Spring AMQP 读取的几个属性，其余方法返回默认值
+ */
+final class StandInConnection implements InvocationHandler {
+
+    private final InMemoryBroker broker;
+
+    private final String name;
+
+    private final AtomicInteger channelNumbers = new AtomicInteger();
+
+    private final Set<StandInChannel> channels = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean open = true;
+
+    private Connection proxy;
+
+    private StandInConnection(InMemoryBroker broker, String name) {
+        this.broker = broker;
+        this.name = name;
+    }
+
+    static Connection create(InMemoryBroker broker, String name) {
+        StandInConnection handler = new StandInConnection(broker, name);
+        handler.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, handler);
+        return handler.proxy;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "createChannel":
+                return createChannel();
+            case "openChannel":
+                return Optional.of(createChannel());
+            case "isOpen":
+                return open;
+            case "close":
+            case "abort":
+                open = false;
+                channels.forEach(StandInChannel::close);
+                channels.clear();
+                return null;
+            case "getAddress":
+                return InetAddress.getLoopbackAddress();
+            case "getPort":
+                return 5672;
+            case "getClientProvidedName":
+                return name;
+            case "getServerProperties":
+            case "getClientProperties":
+                return Map.of();
+            case "getChannelMax":
+                return 2047;
+            case "toString":
+                return "StandInConnection[" + name + "]";
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            default:
+                return StandInChannel.defaultValue(method.getReturnType());
+        }
+    }
+
+    private Object createChannel() {
+        StandInChannel channel = new StandInChannel(broker, proxy, channelNumbers.incrementAndGet());
+        channels.add(channel);
+        return channel.proxy();
+    }
+}
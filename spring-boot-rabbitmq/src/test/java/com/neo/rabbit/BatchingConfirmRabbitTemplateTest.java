@@ -0,0 +1,191 @@
+package com.neo.rabbit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.batch.SimpleBatchingStrategy;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BatchingConfirmRabbitTemplateTest {
+
+    private final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+
+    private final List<Message> sent = new CopyOnWriteArrayList<>();
+
+    private final List<CorrelationData> correlations = new CopyOnWriteArrayList<>();
+
+    private BatchingConfirmRabbitTemplate template(int batchSize, Duration timeout) {
+        RabbitSource.Publish publish = new RabbitSource.Publish();
+        publish.setBatchSize(batchSize);
+        publish.setTimeout(timeout);
+        return template(publish);
+    }
+
+    private BatchingConfirmRabbitTemplate template(RabbitSource.Publish publish) {
+        scheduler.initialize();
+        return new BatchingConfirmRabbitTemplate(mock(ConnectionFactory.class), publish, scheduler) {
+            @Override
+            public void send(String exchange, String routingKey, Message message, CorrelationData correlationData) {
+                sent.add(message);
+                correlations.add(correlationData);
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void fullBatchIsOneMessageConfirmedTogether() throws Exception {
+        BatchingConfirmRabbitTemplate template = template(3, Duration.ofMinutes(1));
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(template.sendBatched("", "neo", "msg " + i));
+        }
+        Assert.assertEquals(1, sent.size());
+
+        List<String> bodies = new ArrayList<>();
+        new SimpleBatchingStrategy(0, 0, 0).deBatch(sent.get(0), m -> bodies.add(new String(m.getBody())));
+        Assert.assertEquals(List.of("msg 0", "msg 1", "msg 2"), bodies);
+
+        Assert.assertFalse(futures.get(0).isDone());
+        correlations.get(0).getFuture().complete(new CorrelationData.Confirm(true, null));
+        for (CompletableFuture<Void> future : futures) {
+            future.get(1, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void fragmentsKeepTheirOwnMessageIds() {
+        BatchingConfirmRabbitTemplate template = template(3, Duration.ofMinutes(1));
+        MessageProperties properties = new MessageProperties();
+        properties.setMessageId("outbox-7");
+        template.sendBatched("", "neo", "msg 0");
+        template.sendBatched("", "neo", template.getMessageConverter().toMessage("msg 1", properties));
+        template.sendBatched("", "neo", "msg 2");
+        String batchId = sent.get(0).getMessageProperties().getMessageId();
+        Assert.assertNotNull(batchId);
+
+        List<Message> fragments = new ArrayList<>();
+        new MessageIdBatchingStrategy().deBatch(sent.get(0), fragments::add);
+        Assert.assertEquals(batchId + ":0", fragments.get(0).getMessageProperties().getMessageId());
+        Assert.assertEquals("outbox-7", fragments.get(1).getMessageProperties().getMessageId());
+        Assert.assertEquals(batchId + ":2", fragments.get(2).getMessageProperties().getMessageId());
+        Assert.assertEquals("msg 2", new String(fragments.get(2).getBody()));
+        Assert.assertNull(fragments.get(0).getMessageProperties().getHeader(MessageIdBatchingStrategy.MESSAGE_IDS_HEADER));
+    }
+
+    @Test
+    public void partialBatchIsSentAfterTimeoutAndNackFails() throws Exception {
+        BatchingConfirmRabbitTemplate template = template(100, Duration.ofMillis(20));
+        CompletableFuture<Void> first = template.sendBatched("", "hello", "a");
+        CompletableFuture<Void> other = template.sendBatched("topicExchange", "topic.1", "b");
+        long deadline = System.currentTimeMillis() + 2000;
+        while (sent.size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        Assert.assertEquals(2, sent.size());
+
+        correlations.forEach(c -> c.getFuture().complete(new CorrelationData.Confirm(false, "queue full")));
+        try {
+            first.get(1, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause().getMessage().contains("queue full"));
+        }
+        Assert.assertTrue(other.isCompletedExceptionally());
+    }
+
+    @Test
+    public void messagesWithDifferentPropertiesAreNotMerged() {
+        BatchingConfirmRabbitTemplate template = template(10, Duration.ofMinutes(1));
+        template.sendBatched("", "neo", message("a", "c-1", "tenant-1"));
+        template.sendBatched("", "neo", message("b", "c-1", "tenant-1"));
+        // 第三条的头和 correlationId 不同，先发出前两条
+        template.sendBatched("", "neo", message("c", "c-2", "tenant-2"));
+        Assert.assertEquals(1, sent.size());
+        template.flush();
+        Assert.assertEquals(2, sent.size());
+
+        List<Message> fragments = new ArrayList<>();
+        MessageIdBatchingStrategy strategy = new MessageIdBatchingStrategy();
+        for (Message message : sent) {
+            // 单独发出的消息不是批消息，容器不会拆
+            if (strategy.canDebatch(message.getMessageProperties())) {
+                strategy.deBatch(message, fragments::add);
+            } else {
+                fragments.add(message);
+            }
+        }
+        Assert.assertEquals(3, fragments.size());
+        String[][] expected = {{"a", "c-1", "tenant-1"}, {"b", "c-1", "tenant-1"}, {"c", "c-2", "tenant-2"}};
+        for (int i = 0; i < expected.length; i++) {
+            MessageProperties properties = fragments.get(i).getMessageProperties();
+            Assert.assertEquals(expected[i][0], new String(fragments.get(i).getBody(), StandardCharsets.UTF_8));
+            Assert.assertEquals(expected[i][1], properties.getCorrelationId());
+            Assert.assertEquals(expected[i][2], properties.getHeader("tenant"));
+            Assert.assertEquals(MessageProperties.CONTENT_TYPE_TEXT_PLAIN, properties.getContentType());
+        }
+    }
+
+    @Test
+    public void contentLengthAndMessageIdDoNotSplitBatches() {
+        MessageProperties a = new MessageProperties();
+        a.setMessageId("1");
+        a.setContentLength(10);
+        MessageProperties b = new MessageProperties();
+        b.setMessageId("2");
+        b.setContentLength(20);
+        Assert.assertTrue(BatchingConfirmRabbitTemplate.sameProperties(a, b));
+        b.setHeader("tenant", "t");
+        Assert.assertFalse(BatchingConfirmRabbitTemplate.sameProperties(a, b));
+    }
+
+    @Test
+    public void lostConfirmTimesOut() throws Exception {
+        RabbitSource.Publish publish = new RabbitSource.Publish();
+        publish.setBatchSize(1);
+        publish.setConfirmTimeout(Duration.ofMillis(50));
+        CompletableFuture<Void> future = template(publish).sendBatched("", "neo", "a");
+        try {
+            future.get(2, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof TimeoutException);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void requiresPublisherConfirms() {
+        ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+        when(connectionFactory.isPublisherConfirms()).thenReturn(false);
+        new BatchingConfirmRabbitTemplate(connectionFactory, new RabbitSource.Publish(), scheduler).afterPropertiesSet();
+    }
+
+    private static Message message(String body, String correlationId, String tenant) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_TEXT_PLAIN);
+        properties.setCorrelationId(correlationId);
+        properties.setHeader("tenant", tenant);
+        return new Message(body.getBytes(StandardCharsets.UTF_8), properties);
+    }
+}
@@ -0,0 +1,198 @@
+package com.neo.rabbit;
+
+import com.neo.rabbit.dedup.DeduplicationInterceptor;
+import com.neo.rabbit.dedup.MessageDeduplicator;
+import com.neo.rabbit.metrics.ListenerMetrics;
+import com.neo.rabbit.metrics.ListenerMetricsInterceptor;
+import com.neo.rabbit.many.NeoReceiver1;
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aopalliance.aop.Advice;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.listener.MethodRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.api.ChannelAwareBatchMessageListener;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.autoconfigure.amqp.RabbitProperties;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.messaging.handler.annotation.support.DefaultMessageHandlerMethodFactory;
+import org.springframework.retry.interceptor.RetryOperationsInterceptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.mock;
+
+public class RabbitListenerConfigTest {
+
+    private final RabbitProperties rabbitProperties = new RabbitProperties();
+
+    private final RabbitSource rabbitSource = new RabbitSource();
+
+    private final ListenerMetrics listenerMetrics = new ListenerMetrics(new SimpleMeterRegistry());
+
+    private RabbitListenerConfig config;
+
+    /**
+     * 与容器内部 ContainerDelegate 相同的签名
+     */
+    public interface ContainerDelegate {
+
+        void invokeListener(Channel channel, Object data);
+    }
+
+    @Before
+    public void setUp() {
+        RabbitSource.QueueListener hello = new RabbitSource.QueueListener();
+        hello.setDedup(true);
+        rabbitSource.getQueues().put("hello", hello);
+        rabbitSource.getDedup().setExpectedInsertions(1000);
+        rabbitSource.getDedup().setRecentSize(100);
+
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("deduplicationInterceptor",
+                new DeduplicationInterceptor(new MessageDeduplicator(rabbitSource.getDedup(), null)));
+        beanFactory.registerSingleton("listenerMetricsInterceptor", new ListenerMetricsInterceptor(listenerMetrics, true));
+        config = new RabbitListenerConfig(rabbitSource, beanFactory.getBeanProvider(DeduplicationInterceptor.class),
+                beanFactory.getBeanProvider(ListenerMetricsInterceptor.class));
+    }
+
+    private SimpleMessageListenerContainer container(SimpleRabbitListenerContainerFactory factory, String queue) {
+        SimpleRabbitListenerEndpoint endpoint = new SimpleRabbitListenerEndpoint();
+        endpoint.setId(queue);
+        endpoint.setQueueNames(queue);
+        endpoint.setMessageListener(message -> {
+        });
+        return factory.createListenerContainer(endpoint);
+    }
+
+    private static Advice[] adviceChain(SimpleMessageListenerContainer container) {
+        return (Advice[]) ReflectionTestUtils.getField(container, "adviceChain");
+    }
+
+    private static Message message(String queue, String messageId) {
+        MessageProperties properties = new MessageProperties();
+        properties.setConsumerQueue(queue);
+        properties.setMessageId(messageId);
+        return new Message(new byte[0], properties);
+    }
+
+    @Test
+    public void retryFromBootIsKeptInnermost() {
+        RabbitProperties.ListenerRetry retry = rabbitProperties.getListener().getSimple().getRetry();
+        retry.setEnabled(true);
+        retry.setMaxAttempts(3);
+        retry.setInitialInterval(Duration.ofMillis(1));
+        SimpleRabbitListenerContainerFactory factory = config.rabbitListenerContainerFactory(
+                new SimpleRabbitListenerContainerFactoryConfigurer(rabbitProperties), mock(ConnectionFactory.class));
+
+        Advice[] chain = adviceChain(container(factory, "hello"));
+        Assert.assertEquals(3, chain.length);
+        Assert.assertTrue(chain[0] instanceof ListenerMetricsInterceptor);
+        Assert.assertTrue(chain[1] instanceof DeduplicationInterceptor);
+        Assert.assertTrue(chain[2] instanceof RetryOperationsInterceptor);
+
+        // 前两次失败，第三次成功：重试生效，指标只计一次投递和一次 ack
+        AtomicInteger attempts = new AtomicInteger();
+        ProxyFactory proxyFactory = new ProxyFactory(ContainerDelegate.class,
+                (org.aopalliance.intercept.MethodInterceptor) i -> {
+                    if (attempts.incrementAndGet() < 3) {
+                        throw new IllegalStateException("listener failed");
+                    }
+                    return null;
+                });
+        for (int i = 0; i < chain.length; i++) {
+            proxyFactory.addAdvice(i, chain[i]);
+        }
+        ((ContainerDelegate) proxyFactory.getProxy()).invokeListener(null, message("hello", "a"));
+        Assert.assertEquals(3, attempts.get());
+        ListenerMetrics.Meters meters = listenerMetrics.getMeters().get("hello");
+        Assert.assertEquals(1, (long) meters.getDeliveries().count());
+        Assert.assertEquals(1, (long) meters.getAcks().count());
+    }
+
+    @Test
+    public void retryIsKeptWithoutDedup() {
+        rabbitProperties.getListener().getSimple().getRetry().setEnabled(true);
+        SimpleRabbitListenerContainerFactory factory = config.rabbitListenerContainerFactory(
+                new SimpleRabbitListenerContainerFactoryConfigurer(rabbitProperties), mock(ConnectionFactory.class));
+
+        Advice[] chain = adviceChain(container(factory, "topic.message"));
+        Assert.assertEquals(2, chain.length);
+        Assert.assertTrue(chain[0] instanceof ListenerMetricsInterceptor);
+        Assert.assertTrue(chain[1] instanceof RetryOperationsInterceptor);
+    }
+
+    @Test
+    public void queueSettingsReachBatchContainer() {
+        RabbitSource.QueueListener neo = new RabbitSource.QueueListener();
+        neo.setPrefetch(250);
+        neo.setConcurrency(2);
+        neo.setMaxConcurrency(4);
+        neo.setBatchSize(50);
+        neo.setReceiveTimeout(Duration.ofMillis(100));
+        rabbitSource.getQueues().put("neo", neo);
+        rabbitProperties.getListener().getSimple().setPrefetch(10);
+        SimpleRabbitListenerContainerFactory factory = config.batchRabbitListenerContainerFactory(
+                new SimpleRabbitListenerContainerFactoryConfigurer(rabbitProperties), mock(ConnectionFactory.class));
+
+        SimpleMessageListenerContainer container = container(factory, "neo");
+        Assert.assertTrue(container.isConsumerBatchEnabled());
+        Assert.assertEquals(250, ReflectionTestUtils.getField(container, "prefetchCount"));
+        Assert.assertEquals(2, ReflectionTestUtils.getField(container, "concurrentConsumers"));
+        Assert.assertEquals(4, ReflectionTestUtils.getField(container, "maxConcurrentConsumers"));
+        Assert.assertEquals(50, ReflectionTestUtils.getField(container, "batchSize"));
+        Assert.assertEquals(100L, ReflectionTestUtils.getField(container, "receiveTimeout"));
+
+        // 没有单独配置的队列沿用 spring.rabbitmq.listener.simple.*
+        SimpleMessageListenerContainer other = container(factory, "topic.message");
+        Assert.assertEquals(10, ReflectionTestUtils.getField(other, "prefetchCount"));
+        Assert.assertEquals(1, ReflectionTestUtils.getField(other, "batchSize"));
+    }
+
+    @Test
+    public void batchListenerReceivesWholeBatch() throws Exception {
+        SimpleRabbitListenerContainerFactory factory = config.batchRabbitListenerContainerFactory(
+                new SimpleRabbitListenerContainerFactoryConfigurer(rabbitProperties), mock(ConnectionFactory.class));
+        DefaultMessageHandlerMethodFactory handlerMethodFactory = new DefaultMessageHandlerMethodFactory();
+        handlerMethodFactory.afterPropertiesSet();
+        MethodRabbitListenerEndpoint endpoint = new MethodRabbitListenerEndpoint();
+        endpoint.setId("neo");
+        endpoint.setQueueNames("neo");
+        endpoint.setBean(new NeoReceiver1());
+        endpoint.setMethod(NeoReceiver1.class.getMethod("process", List.class));
+        endpoint.setMessageHandlerMethodFactory(handlerMethodFactory);
+        SimpleMessageListenerContainer container = factory.createListenerContainer(endpoint);
+
+        PrintStream out = System.out;
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(printed, true, StandardCharsets.UTF_8));
+        try {
+            ((ChannelAwareBatchMessageListener) container.getMessageListener()).onMessageBatch(
+                    List.of(text("neo", "纯洁的微笑 1"), text("neo", "纯洁的微笑 2")), mock(Channel.class));
+        } finally {
+            System.setOut(out);
+        }
+        String output = printed.toString(StandardCharsets.UTF_8);
+        Assert.assertTrue(output, output.contains("Receiver 1: 纯洁的微笑 1"));
+        Assert.assertTrue(output, output.contains("Receiver 1: 纯洁的微笑 2"));
+    }
+
+    private static Message text(String queue, String body) {
+        Message message = message(queue, null);
+        return new Message(body.getBytes(StandardCharsets.UTF_8), message.getMessageProperties());
+    }
+}
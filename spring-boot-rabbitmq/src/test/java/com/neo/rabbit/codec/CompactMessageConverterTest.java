@@ -0,0 +1,76 @@
+package com.neo.rabbit.codec;
+
+import com.neo.model.User;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.SimpleMessageConverter;
+
+import java.util.List;
+
+public class CompactMessageConverterTest {
+
+    private final CompactMessageConverter converter =
+            new CompactMessageConverter(List.of(new UserCodec()), 64, new SimpleMessageConverter());
+
+    private static User user(String pass) {
+        User user = new User();
+        user.setName("neo");
+        user.setPass(pass);
+        return user;
+    }
+
+    @Test
+    public void roundTripsWithSchemaHeader() {
+        Message message = converter.toMessage(user("123456"), new MessageProperties());
+
+        Assert.assertEquals(CompactMessageConverter.CONTENT_TYPE, message.getMessageProperties().getContentType());
+        Assert.assertEquals(0, message.getBody()[0]);
+        Assert.assertEquals(1, message.getBody()[1]);
+        User read = (User) converter.fromMessage(message);
+        Assert.assertEquals("neo", read.getName());
+        Assert.assertEquals("123456", read.getPass());
+    }
+
+    @Test
+    public void compressesLargeBodies() {
+        String pass = "123456".repeat(100);
+        Message message = converter.toMessage(user(pass), new MessageProperties());
+
+        Assert.assertEquals(1, message.getBody()[0]);
+        Assert.assertTrue(message.getBody().length < pass.length());
+        Assert.assertEquals(pass, ((User) converter.fromMessage(message)).getPass());
+    }
+
+    @Test
+    public void readsJavaSerializedMessagesAndOtherTypes() {
+        Message legacy = new SimpleMessageConverter().toMessage(user("123456"), new MessageProperties());
+        Assert.assertEquals("123456", ((User) converter.fromMessage(legacy)).getPass());
+
+        Message text = converter.toMessage("hello", new MessageProperties());
+        Assert.assertEquals(MessageProperties.CONTENT_TYPE_TEXT_PLAIN, text.getMessageProperties().getContentType());
+        Assert.assertEquals("hello", converter.fromMessage(text));
+    }
+
+    @Test
+    public void corruptLengthsFailAsConversionException() {
+        byte[][] corrupt = {
+                // schema 1，字符串长度 Integer.MAX_VALUE，pos + n 会溢出
+                {0, 1, 1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 0},
+                // snappy 头部声明解压后约 2GB
+                {1, 1, 1, (byte) 0xFE, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 0}
+        };
+        for (byte[] body : corrupt) {
+            MessageProperties properties = new MessageProperties();
+            properties.setContentType(CompactMessageConverter.CONTENT_TYPE);
+            try {
+                converter.fromMessage(new Message(body, properties));
+                Assert.fail();
+            } catch (MessageConversionException e) {
+                // expected
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.neo.rabbit.dedup;
+
+import com.neo.rabbit.RabbitSource;
+import com.rabbitmq.client.Channel;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.aop.framework.ProxyFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DeduplicationInterceptorTest {
+
+    private final List<Object> invocations = new ArrayList<>();
+
+    private boolean fail;
+
+    /**
+     * 与容器内部 ContainerDelegate 相同的签名
+     */
+    public interface ContainerDelegate {
+
+        void invokeListener(Channel channel, Object data);
+    }
+
+    private ContainerDelegate delegate() {
+        RabbitSource.Dedup dedup = new RabbitSource.Dedup();
+        dedup.setExpectedInsertions(1000);
+        dedup.setRecentSize(100);
+        ProxyFactory factory = new ProxyFactory(ContainerDelegate.class, (org.aopalliance.intercept.MethodInterceptor) i -> {
+            if (fail) {
+                throw new IllegalStateException("listener failed");
+            }
+            invocations.add(i.getArguments()[1]);
+            return null;
+        });
+        factory.addAdvice(0, new DeduplicationInterceptor(new MessageDeduplicator(dedup, null)));
+        return (ContainerDelegate) factory.getProxy();
+    }
+
+    private static Message message(String queue, String messageId) {
+        MessageProperties properties = new MessageProperties();
+        properties.setConsumerQueue(queue);
+        properties.setMessageId(messageId);
+        return new Message(new byte[0], properties);
+    }
+
+    @Test
+    public void duplicateIsSkippedPerQueue() {
+        ContainerDelegate delegate = delegate();
+        delegate.invokeListener(null, message("hello", "a"));
+        delegate.invokeListener(null, message("hello", "a"));
+        delegate.invokeListener(null, message("fanout.A", "a"));
+        delegate.invokeListener(null, message("hello", null));
+        delegate.invokeListener(null, message("hello", null));
+        Assert.assertEquals(4, invocations.size());
+    }
+
+    @Test
+    public void failedMessageIsProcessedAgain() {
+        ContainerDelegate delegate = delegate();
+        fail = true;
+        try {
+            delegate.invokeListener(null, message("hello", "a"));
+            Assert.fail();
+        } catch (IllegalStateException expected) {
+        }
+        fail = false;
+        delegate.invokeListener(null, message("hello", "a"));
+        Assert.assertEquals(1, invocations.size());
+    }
+
+    @Test
+    public void duplicatesAreRemovedFromBatch() {
+        ContainerDelegate delegate = delegate();
+        delegate.invokeListener(null, message("neo", "a"));
+        Message b = message("neo", "b");
+        Message c = message("neo", "c");
+        delegate.invokeListener(null, List.of(message("neo", "a"), b, c, message("neo", "c")));
+        delegate.invokeListener(null, List.of(message("neo", "b"), message("neo", "c")));
+        Assert.assertEquals(2, invocations.size());
+        Assert.assertEquals(List.of(b, c), invocations.get(1));
+    }
+
+    @Test
+    public void filterRemembersAtLeastOneGeneration() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(10_000, 0.001);
+        for (int i = 0; i < 25_000; i++) {
+            filter.put("id-" + i);
+        }
+        // 写入 25000 个后轮换了两次，最近的 10000 到 20000 个一定还在
+        for (int i = 15_000; i < 25_000; i++) {
+            Assert.assertTrue(filter.mightContain("id-" + i));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+        Assert.assertTrue("false positives: " + falsePositives, falsePositives < 400);
+    }
+}
@@ -0,0 +1,108 @@
+package com.neo.rabbit.metrics;
+
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.support.ListenerExecutionFailedException;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.aop.framework.ProxyFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ListenerMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final ListenerMetrics metrics = new ListenerMetrics(registry);
+
+    private RuntimeException failure;
+
+    /**
+     * 与容器内部 ContainerDelegate 相同的签名
+     */
+    public interface ContainerDelegate {
+
+        void invokeListener(Channel channel, Object data);
+    }
+
+    private ContainerDelegate delegate() {
+        ProxyFactory factory = new ProxyFactory(ContainerDelegate.class, (org.aopalliance.intercept.MethodInterceptor) i -> {
+            if (failure != null) {
+                throw failure;
+            }
+            return null;
+        });
+        factory.addAdvice(0, new ListenerMetricsInterceptor(metrics, true));
+        return (ContainerDelegate) factory.getProxy();
+    }
+
+    private static Message message(String queue) {
+        MessageProperties properties = new MessageProperties();
+        properties.setConsumerQueue(queue);
+        return new Message(new byte[0], properties);
+    }
+
+    private void invokeFailing(ContainerDelegate delegate, Object data, RuntimeException e) {
+        failure = e;
+        try {
+            delegate.invokeListener(null, data);
+            Assert.fail();
+        } catch (RuntimeException expected) {
+            Assert.assertSame(e, expected);
+        } finally {
+            failure = null;
+        }
+    }
+
+    @Test
+    public void countsDeliveriesAndAckOutcomes() {
+        ContainerDelegate delegate = delegate();
+        delegate.invokeListener(null, message("hello"));
+        delegate.invokeListener(null, List.of(message("neo"), message("neo"), message("neo")));
+        invokeFailing(delegate, message("hello"), new IllegalStateException("retry me"));
+        invokeFailing(delegate, message("hello"), new AmqpRejectAndDontRequeueException("drop me"));
+        invokeFailing(delegate, message("hello"), new ListenerExecutionFailedException("bad body",
+                new MessageConversionException("bad body"), message("hello")));
+
+        ListenerMetrics.Meters hello = metrics.getMeters().get("hello");
+        Assert.assertEquals(4, hello.getDeliveries().count(), 0);
+        Assert.assertEquals(1, hello.getAcks().count(), 0);
+        Assert.assertEquals(1, hello.getRequeues().count(), 0);
+        Assert.assertEquals(2, hello.getNacks().count(), 0);
+        Assert.assertEquals(4, hello.getHandlerTime().count());
+
+        ListenerMetrics.Meters neo = metrics.getMeters().get("neo");
+        Assert.assertEquals(3, neo.getDeliveries().count(), 0);
+        Assert.assertEquals(3, neo.getAcks().count(), 0);
+        Assert.assertEquals(1, neo.getHandlerTime().count());
+        Assert.assertEquals(3, registry.get("rabbit.listener.acks").tag("queue", "neo").tag("result", "ack")
+                .counter().count(), 0);
+    }
+
+    @Test
+    public void samplerReadsQueueDepthFromBroker() {
+        new ListenerMetricsInterceptor(metrics, true).track("hello", "missing");
+        AmqpAdmin admin = mock(AmqpAdmin.class);
+        when(admin.getQueueInfo("hello")).thenReturn(new QueueInformation("hello", 42, 2));
+        new QueueDepthSampler(metrics, admin, Duration.ofSeconds(10)).sample();
+
+        Assert.assertEquals(42, registry.get("rabbit.queue.messages").tag("queue", "hello").gauge().value(), 0);
+        Assert.assertTrue(Double.isNaN(registry.get("rabbit.queue.messages").tag("queue", "missing").gauge().value()));
+
+        Map<String, Object> summary = new RabbitListenersEndpoint(metrics).queue("hello");
+        Assert.assertEquals(42L, summary.get("depth"));
+        Assert.assertEquals(2L, summary.get("consumers"));
+        Assert.assertNull(new RabbitListenersEndpoint(metrics).queue("missing").get("depth"));
+    }
+}
@@ -0,0 +1,107 @@
+package com.neo.rabbit.outbox;
+
+import com.neo.rabbit.BatchingConfirmRabbitTemplate;
+import com.neo.rabbit.RabbitSource;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class OutboxRelayTest {
+
+    private final List<OutboxMessage> rows = new ArrayList<>();
+
+    private final List<String> sent = new ArrayList<>();
+
+    private Set<Long> nacked = Set.of();
+
+    private Connection connection;
+
+    private OutboxRelay relay;
+
+    @Before
+    public void setUp() throws Exception {
+        connection = mock(Connection.class);
+        when(connection.getAutoCommit()).thenReturn(true);
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+
+        JdbcOutboxStore store = new JdbcOutboxStore("outbox", false) {
+            @Override
+            public List<OutboxMessage> lockBatch(Connection c, int limit) {
+                return new ArrayList<>(rows.subList(0, Math.min(limit, rows.size())));
+            }
+
+            @Override
+            public int delete(Connection c, List<Long> ids) {
+                rows.removeIf(row -> ids.contains(row.id()));
+                return ids.size();
+            }
+        };
+        BatchingConfirmRabbitTemplate template = new BatchingConfirmRabbitTemplate(mock(ConnectionFactory.class),
+                new RabbitSource.Publish(), null) {
+            @Override
+            public CompletableFuture<Void> sendBatched(String exchange, String routingKey, Message message) {
+                String body = new String(message.getBody(), StandardCharsets.UTF_8);
+                sent.add(routingKey + ":" + body);
+                return nacked.contains(Long.parseLong(body))
+                        ? CompletableFuture.failedFuture(new AmqpException("nack"))
+                        : CompletableFuture.completedFuture(null);
+            }
+
+            @Override
+            public void flush() {
+            }
+        };
+        RabbitSource.Outbox outbox = new RabbitSource.Outbox();
+        outbox.setBatchSize(3);
+        relay = new OutboxRelay(dataSource, store, template, outbox);
+    }
+
+    private void row(long id) {
+        rows.add(new OutboxMessage(id, "", "object", "text/plain", Long.toString(id).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void publishesInOrderAndDeletesConfirmedRows() throws Exception {
+        for (long id = 1; id <= 4; id++) {
+            row(id);
+        }
+
+        Assert.assertEquals(3, relay.relayBatch());
+        Assert.assertEquals(List.of("object:1", "object:2", "object:3"), sent);
+        Assert.assertEquals(1, rows.size());
+        verify(connection).commit();
+
+        Assert.assertEquals(1, relay.relayBatch());
+        Assert.assertTrue(rows.isEmpty());
+    }
+
+    @Test
+    public void unconfirmedRowsStayForRetry() throws Exception {
+        for (long id = 1; id <= 3; id++) {
+            row(id);
+        }
+        nacked = Set.of(2L);
+
+        Assert.assertEquals(0, relay.relayBatch());
+        Assert.assertEquals(1, rows.size());
+        Assert.assertEquals(2L, rows.get(0).id());
+        verify(connection, never()).rollback();
+    }
+}
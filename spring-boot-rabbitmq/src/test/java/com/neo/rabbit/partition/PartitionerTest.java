@@ -0,0 +1,42 @@
+package com.neo.rabbit.partition;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PartitionerTest {
+
+    @Test
+    public void sameKeyAlwaysMapsToSamePartition() {
+        int partition = Partitioner.partition("neo", 8);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(partition, Partitioner.partition("neo", 8));
+        }
+        Assert.assertEquals(Partitioner.partition("42", 8), Partitioner.partition(42, 8));
+    }
+
+    @Test
+    public void keysSpreadEvenly() {
+        int[] counts = new int[8];
+        for (int i = 0; i < 80_000; i++) {
+            counts[Partitioner.partition("user-" + i, counts.length)]++;
+        }
+        for (int count : counts) {
+            Assert.assertTrue("unbalanced: " + count, count > 9_000 && count < 11_000);
+        }
+    }
+
+    @Test
+    public void addingPartitionOnlyMovesKeysToTheNewPartition() {
+        int moved = 0;
+        for (int i = 0; i < 10_000; i++) {
+            String key = "user-" + i;
+            int before = Partitioner.partition(key, 4);
+            int after = Partitioner.partition(key, 5);
+            if (before != after) {
+                Assert.assertEquals(4, after);
+                moved++;
+            }
+        }
+        Assert.assertTrue("moved " + moved, moved > 1_500 && moved < 2_500);
+    }
+}
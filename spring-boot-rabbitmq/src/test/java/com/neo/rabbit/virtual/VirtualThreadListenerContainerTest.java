@@ -0,0 +1,95 @@
+package com.neo.rabbit.virtual;
+
+import com.neo.benchmark.broker.InMemoryBroker;
+import com.neo.rabbit.MessageIdBatchingStrategy;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 在进程内 broker 上运行：阻塞的监听方法并发数远超消费者线程数，但不超过队列的 max-in-flight，
+ * 所有消息处理完后都已确认，失败的消息重新入队后再次处理
+ */
+public class VirtualThreadListenerContainerTest {
+
+    private static final int MAX_IN_FLIGHT = 50;
+
+    private final InMemoryBroker broker = new InMemoryBroker();
+
+    private final CachingConnectionFactory connectionFactory = new CachingConnectionFactory(broker.connectionFactory());
+
+    private final VirtualThreadRabbitListenerContainerFactory factory =
+            new VirtualThreadRabbitListenerContainerFactory(queue -> MAX_IN_FLIGHT);
+
+    @After
+    public void tearDown() {
+        factory.destroy();
+        connectionFactory.destroy();
+    }
+
+    @Test
+    public void blockingHandlersRunConcurrentlyUpToLimit() throws Exception {
+        new RabbitAdmin(connectionFactory).declareQueue(new Queue("blocking"));
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicBoolean failed = new AtomicBoolean();
+        Set<String> processed = ConcurrentHashMap.newKeySet();
+        CountDownLatch done = new CountDownLatch(300);
+
+        factory.setConnectionFactory(connectionFactory);
+        factory.setBatchingStrategy(new MessageIdBatchingStrategy());
+        SimpleRabbitListenerEndpoint endpoint = new SimpleRabbitListenerEndpoint();
+        endpoint.setQueueNames("blocking");
+        endpoint.setMessageListener((Message message) -> {
+            String body = new String(message.getBody());
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(50);
+                if (body.equals("7") && failed.compareAndSet(false, true)) {
+                    throw new IllegalStateException("first attempt fails");
+                }
+                if (processed.add(body)) {
+                    done.countDown();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+            }
+        });
+        SimpleMessageListenerContainer container = factory.createListenerContainer(endpoint);
+        Assert.assertTrue(container instanceof VirtualThreadListenerContainer);
+        container.start();
+
+        RabbitTemplate template = new RabbitTemplate(connectionFactory);
+        long start = System.nanoTime();
+        for (int i = 0; i < 300; i++) {
+            template.send("", "blocking", new Message(String.valueOf(i).getBytes()));
+        }
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // 单个消费者线程顺序处理需要 300 * 50ms
+        Assert.assertTrue("took " + elapsed + "ms", elapsed < 5000);
+        Assert.assertTrue("max running " + maxRunning, maxRunning.get() > 10 && maxRunning.get() <= MAX_IN_FLIGHT);
+        Assert.assertTrue(failed.get());
+
+        container.stop();
+        Assert.assertEquals(0, ((VirtualThreadListenerContainer) container).getInFlight());
+        Assert.assertEquals(0, broker.queue("blocking").size());
+    }
+}
@@ -8,6 +8,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.util.concurrent.TimeUnit;
+
 @RunWith(SpringRunner.class)
 @SpringBootTest
 public class FanoutTest {
@@ -17,7 +19,7 @@ public class FanoutTest {
 
 	@Test
 	public void fanoutSender() throws Exception {
-		sender.send();
+		sender.send().get(10, TimeUnit.SECONDS);
 	}
 
 
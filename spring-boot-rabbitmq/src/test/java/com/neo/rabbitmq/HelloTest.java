@@ -7,6 +7,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.util.concurrent.TimeUnit;
+
 @RunWith(SpringRunner.class)
 @SpringBootTest
 public class HelloTest {
@@ -16,7 +18,7 @@ public class HelloTest {
 
 	@Test
 	public void hello() throws Exception {
-		helloSender.send();
+		helloSender.send().get(10, TimeUnit.SECONDS);
 	}
 
 
@@ -8,6 +8,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
 @RunWith(SpringRunner.class)
 @SpringBootTest
 public class ManyTest {
@@ -19,17 +24,21 @@ public class ManyTest {
 
 	@Test
 	public void oneToMany() throws Exception {
+		List<CompletableFuture<Void>> futures = new ArrayList<>();
 		for (int i=0;i<100;i++){
-			neoSender.send(i);
+			futures.add(neoSender.send(i));
 		}
+		CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
 	}
 
 	@Test
 	public void manyToMany() throws Exception {
+		List<CompletableFuture<Void>> futures = new ArrayList<>();
 		for (int i=0;i<100;i++){
-			neoSender.send(i);
-			neoSender2.send(i);
+			futures.add(neoSender.send(i));
+			futures.add(neoSender2.send(i));
 		}
+		CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
 	}
 
 }
\ No newline at end of file
@@ -8,6 +8,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.util.concurrent.TimeUnit;
+
 @RunWith(SpringRunner.class)
 @SpringBootTest
 public class ObjectTest {
@@ -20,7 +22,7 @@ public class ObjectTest {
 		User user=new User();
 		user.setName("neo");
 		user.setPass("123456");
-		sender.send(user);
+		sender.send(user).get(10, TimeUnit.SECONDS);
 	}
 
 }
\ No newline at end of file
@@ -7,6 +7,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.util.concurrent.TimeUnit;
+
 @RunWith(SpringRunner.class)
 @SpringBootTest
 public class TopicTest {
@@ -16,17 +18,17 @@ public class TopicTest {
 
 	@Test
 	public void topic() throws Exception {
-		sender.send();
+		sender.send().get(10, TimeUnit.SECONDS);
 	}
 
 	@Test
 	public void topic1() throws Exception {
-		sender.send1();
+		sender.send1().get(10, TimeUnit.SECONDS);
 	}
 
 	@Test
 	public void topic2() throws Exception {
-		sender.send2();
+		sender.send2().get(10, TimeUnit.SECONDS);
 	}
 
 }
\ No newline at end of file
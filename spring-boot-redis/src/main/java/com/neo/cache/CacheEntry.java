@@ -0,0 +1,58 @@
+package com.neo.cache;
+
+import java.io.Serializable;
+
+/**
+ * 提前刷新用的缓存条目：除了值本身，还记录上次加载耗时 delta 和过期时间点（毫秒）
+ */
+public class CacheEntry implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Object value;
+    private long delta;
+    private long expireAt;
+
+    public CacheEntry() {
+        super();
+    }
+
+    public CacheEntry(Object value, long delta, long expireAt) {
+        this.value = value;
+        this.delta = delta;
+        this.expireAt = expireAt;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public void setValue(Object value) {
+        this.value = value;
+    }
+
+    public long getDelta() {
+        return delta;
+    }
+
+    public void setDelta(long delta) {
+        this.delta = delta;
+    }
+
+    public long getExpireAt() {
+        return expireAt;
+    }
+
+    public void setExpireAt(long expireAt) {
+        this.expireAt = expireAt;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheEntry{" +
+                "value=" + value +
+                ", delta=" + delta +
+                ", expireAt=" + expireAt +
+                '}';
+    }
+}
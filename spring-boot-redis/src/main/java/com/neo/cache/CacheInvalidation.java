@@ -0,0 +1,58 @@
+package com.neo.cache;
+
+import java.io.Serializable;
+
+/**
+ * 通过 Redis pub/sub 在节点间广播的 L1 失效消息，key 为 null 表示清空整个缓存
+ */
+public class CacheInvalidation implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String origin;
+    private String cacheName;
+    private Object key;
+
+    public CacheInvalidation() {
+        super();
+    }
+
+    public CacheInvalidation(String origin, String cacheName, Object key) {
+        this.origin = origin;
+        this.cacheName = cacheName;
+        this.key = key;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public void setOrigin(String origin) {
+        this.origin = origin;
+    }
+
+    public String getCacheName() {
+        return cacheName;
+    }
+
+    public void setCacheName(String cacheName) {
+        this.cacheName = cacheName;
+    }
+
+    public Object getKey() {
+        return key;
+    }
+
+    public void setKey(Object key) {
+        this.key = key;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheInvalidation{" +
+                "origin='" + origin + '\'' +
+                ", cacheName='" + cacheName + '\'' +
+                ", key=" + key +
+                '}';
+    }
+}
@@ -0,0 +1,107 @@
+package com.neo.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 按缓存名登记的 Micrometer 指标，tag 为 cache=缓存名、cache.manager=cacheManager，与 Spring Boot 自带缓存指标一致：
+ * <ul>
+ *     <li>cache.gets{result=hit|miss}：调用方看到的命中和未命中次数</li>
+ *     <li>cache.puts / cache.evictions：写入次数和主动删除（evict、clear）次数，Redis 过期删除无法统计</li>
+ *     <li>cache.load.time：未命中时加载方法的耗时直方图，包括后台提前刷新</li>
+ *     <li>cache.value.size：写入 Redis 的序列化字节数直方图</li>
+ * </ul>
+ */
+public class CacheMetrics {
+
+    private final ConcurrentMap<String, Meters> meters = new ConcurrentHashMap<>();
+
+    private final MeterRegistry registry;
+
+    private final String cacheManagerName;
+
+    public CacheMetrics(MeterRegistry registry, String cacheManagerName) {
+        this.registry = registry;
+        this.cacheManagerName = cacheManagerName;
+    }
+
+    public Meters forCache(String name) {
+        Meters cacheMeters = meters.get(name);
+        if (cacheMeters != null) {
+            return cacheMeters;
+        }
+        return meters.computeIfAbsent(name, n -> new Meters(registry, Tags.of("cache", n, "cache.manager", cacheManagerName)));
+    }
+
+    public Map<String, Meters> getMeters() {
+        return Collections.unmodifiableMap(meters);
+    }
+
+    public static final class Meters {
+
+        private final Counter hits;
+        private final Counter misses;
+        private final Counter puts;
+        private final Counter evictions;
+        private final Timer loadTime;
+        private final DistributionSummary valueSize;
+
+        Meters(MeterRegistry registry, Tags tags) {
+            this.hits = Counter.builder("cache.gets").tags(tags).tag("result", "hit")
+                    .description("the number of times cache lookup methods have returned a cached value")
+                    .register(registry);
+            this.misses = Counter.builder("cache.gets").tags(tags).tag("result", "miss")
+                    .description("the number of times cache lookup methods have not returned a value")
+                    .register(registry);
+            this.puts = Counter.builder("cache.puts").tags(tags)
+                    .description("the number of entries added to the cache")
+                    .register(registry);
+            this.evictions = Counter.builder("cache.evictions").tags(tags)
+                    .description("the number of explicit evict and clear calls")
+                    .register(registry);
+            this.loadTime = Timer.builder("cache.load.time").tags(tags)
+                    .description("time spent in the value loader on a cache miss")
+                    .publishPercentiles(0.5, 0.99)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            this.valueSize = DistributionSummary.builder("cache.value.size").tags(tags)
+                    .description("serialized size of the values written to Redis")
+                    .baseUnit("bytes")
+                    .publishPercentiles(0.5, 0.99)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+
+        public Counter getHits() {
+            return hits;
+        }
+
+        public Counter getMisses() {
+            return misses;
+        }
+
+        public Counter getPuts() {
+            return puts;
+        }
+
+        public Counter getEvictions() {
+            return evictions;
+        }
+
+        public Timer getLoadTime() {
+            return loadTime;
+        }
+
+        public DistributionSummary getValueSize() {
+            return valueSize;
+        }
+    }
+}
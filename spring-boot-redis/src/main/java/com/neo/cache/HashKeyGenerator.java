@@ -0,0 +1,143 @@
+package com.neo.cache;
+
+import org.springframework.cache.interceptor.KeyGenerator;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 定长缓存 key：类名 + 方法名只在第一次调用时计算成 128 位种子，之后把参数直接混入哈希，
+ * 输出 22 个字符的 base64url 字符串。无参方法直接返回预先算好的 key。
+ * <p>
+ * 参数按类型取稳定的值参与哈希（字符串逐字符、数值取 long 位、枚举取 name），
+ * 保证不同节点对同一参数得到相同 key；其它类型退回到 toString()。
+ */
+public class HashKeyGenerator implements KeyGenerator {
+
+    private static final byte[] BASE64 = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_"
+            .getBytes(StandardCharsets.ISO_8859_1);
+
+    private static final long M1 = 0x9E3779B97F4A7C15L;
+    private static final long M2 = 0xC2B2AE3D27D4EB4FL;
+
+    private final ClassValue<ConcurrentMap<Method, MethodKey>> prefixes = new ClassValue<>() {
+        @Override
+        protected ConcurrentMap<Method, MethodKey> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        ConcurrentMap<Method, MethodKey> methods = prefixes.get(target.getClass());
+        MethodKey prefix = methods.get(method);
+        if (prefix == null) {
+            prefix = methods.computeIfAbsent(method, m -> new MethodKey(target.getClass().getName() + "." + m.getName()));
+        }
+        if (params == null || params.length == 0) {
+            return prefix.key;
+        }
+        long[] h = {prefix.h1, prefix.h2};
+        for (Object param : params) {
+            hashParam(h, param);
+        }
+        return encode(fmix(h[0]), fmix(h[1]));
+    }
+
+    private static void hashParam(long[] h, Object param) {
+        if (param == null) {
+            update(h, 0);
+        } else if (param instanceof String s) {
+            update(h, 1);
+            hashString(h, s);
+        } else if (param instanceof Long || param instanceof Integer || param instanceof Short || param instanceof Byte) {
+            update(h, 2);
+            update(h, ((Number) param).longValue());
+        } else if (param instanceof Double || param instanceof Float) {
+            update(h, 3);
+            update(h, Double.doubleToLongBits(((Number) param).doubleValue()));
+        } else if (param instanceof Boolean b) {
+            update(h, 4);
+            update(h, b ? 1 : 0);
+        } else if (param instanceof Character c) {
+            update(h, 5);
+            update(h, c);
+        } else {
+            update(h, 6);
+            hashString(h, param instanceof Enum<?> e ? e.name() : param.toString());
+        }
+    }
+
+    private static void hashString(long[] h, String s) {
+        long h1 = h[0];
+        long h2 = h[1];
+        int length = s.length();
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            h1 = mix1(h1, c);
+            h2 = mix2(h2, c);
+        }
+        h[0] = mix1(h1, length);
+        h[1] = mix2(h2, length);
+    }
+
+    private static void update(long[] h, long v) {
+        h[0] = mix1(h[0], v);
+        h[1] = mix2(h[1], v);
+    }
+
+    private static long mix1(long h, long v) {
+        return Long.rotateLeft(h ^ v, 27) * M1 + 0x52DCE729;
+    }
+
+    private static long mix2(long h, long v) {
+        return Long.rotateLeft(h ^ v, 31) * M2 + 0x38495AB5;
+    }
+
+    /**
+     * MurmurHash3 的 64 位 finalizer
+     */
+    private static long fmix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static String encode(long h1, long h2) {
+        byte[] chars = new byte[22];
+        for (int i = 0; i < 10; i++) {
+            chars[i] = BASE64[(int) (h1 >>> (58 - i * 6)) & 0x3F];
+        }
+        // h1 剩余 4 位与 h2 高 2 位拼成一个字符
+        chars[10] = BASE64[(int) ((h1 & 0xF) << 2 | h2 >>> 62)];
+        for (int i = 0; i < 10; i++) {
+            chars[11 + i] = BASE64[(int) (h2 >>> (56 - i * 6)) & 0x3F];
+        }
+        chars[21] = BASE64[(int) (h2 & 0x3)];
+        return new String(chars, StandardCharsets.ISO_8859_1);
+    }
+
+    private static final class MethodKey {
+
+        final long h1;
+        final long h2;
+        final String key;
+
+        MethodKey(String prefix) {
+            long a = 0x243F6A8885A308D3L;
+            long b = 0x13198A2E03707344L;
+            for (int i = 0; i < prefix.length(); i++) {
+                a = mix1(a, prefix.charAt(i));
+                b = mix2(b, prefix.charAt(i));
+            }
+            this.h1 = a;
+            this.h2 = b;
+            this.key = encode(fmix(a), fmix(b));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.neo.cache;
+
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 记录命中、未命中、写入、删除次数和加载耗时的 Cache 装饰器，位于装饰链最外层。
+ * get(key, valueLoader) 以 valueLoader 是否在调用线程中被执行区分命中：合并加载时等待其它线程结果的调用记为命中，
+ * RefreshAheadCache 在后台线程提前刷新时，当前调用仍拿到旧值，也记为命中。
+ */
+public class MeteredCache implements Cache {
+
+    private final Cache delegate;
+
+    private final CacheMetrics.Meters meters;
+
+    public MeteredCache(Cache delegate, CacheMetrics.Meters meters) {
+        this.delegate = delegate;
+        this.meters = meters;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return record(delegate.get(key));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper == null ? null : wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Thread caller = Thread.currentThread();
+        AtomicBoolean loaded = new AtomicBoolean();
+        T value = delegate.get(key, () -> {
+            if (Thread.currentThread() == caller) {
+                loaded.set(true);
+            }
+            return meters.getLoadTime().recordCallable(valueLoader);
+        });
+        (loaded.get() ? meters.getMisses() : meters.getHits()).increment();
+        return value;
+    }
+
+    private ValueWrapper record(ValueWrapper wrapper) {
+        (wrapper != null ? meters.getHits() : meters.getMisses()).increment();
+        return wrapper;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+        meters.getPuts().increment();
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = delegate.putIfAbsent(key, value);
+        if (existing == null) {
+            meters.getPuts().increment();
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+        meters.getEvictions().increment();
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = delegate.evictIfPresent(key);
+        if (evicted) {
+            meters.getEvictions().increment();
+        }
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        meters.getEvictions().increment();
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = delegate.invalidate();
+        meters.getEvictions().increment();
+        return invalidated;
+    }
+}
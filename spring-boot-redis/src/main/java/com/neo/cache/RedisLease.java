@@ -0,0 +1,32 @@
+package com.neo.cache;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.Collections;
+
+/**
+ * 基于 SET NX PX 的简单 Redis 租约，释放时校验 token，避免删掉已过期后被别人拿到的锁
+ */
+public class RedisLease {
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    public RedisLease(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    public boolean tryAcquire(String key, String token, Duration leaseTime) {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, token, leaseTime));
+    }
+
+    public void release(String key, String token) {
+        redisTemplate.execute(RELEASE_SCRIPT, Collections.singletonList(key), token);
+    }
+}
@@ -0,0 +1,158 @@
+package com.neo.cache;
+
+import com.neo.config.CacheSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 按 XFetch 算法提前刷新的缓存：值以 CacheEntry 形式存放，命中时若
+ * now - delta * beta * ln(random) >= expireAt，就在后台重新加载并写回，当前请求仍返回旧值。
+ * 加载耗时 delta 越大、离过期越近，提前刷新的概率越高，避免所有节点在 TTL 边界同时未命中。
+ */
+public class RefreshAheadCache implements Cache {
+
+    protected Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final Set<Object> refreshing = ConcurrentHashMap.newKeySet();
+
+    private final Cache delegate;
+
+    private final CacheSource.RefreshAhead.Policy policy;
+
+    private final Executor executor;
+
+    public RefreshAheadCache(Cache delegate, CacheSource.RefreshAhead.Policy policy, Executor executor) {
+        this.delegate = delegate;
+        this.policy = policy;
+        this.executor = executor;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper wrapper = delegate.get(key);
+        if (wrapper != null && wrapper.get() instanceof CacheEntry entry) {
+            return new SimpleValueWrapper(entry.getValue());
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper == null ? null : wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = delegate.get(key);
+        if (wrapper == null) {
+            // 未命中时交给下层（可能是 SingleFlightCache）合并加载
+            wrapper = new SimpleValueWrapper(delegate.get(key, () -> load(valueLoader)));
+        }
+        Object cached = wrapper.get();
+        if (!(cached instanceof CacheEntry entry)) {
+            return (T) cached;
+        }
+        if (shouldRefresh(entry, System.currentTimeMillis(), ThreadLocalRandom.current().nextDouble())) {
+            refresh(key, valueLoader);
+        }
+        return (T) entry.getValue();
+    }
+
+    boolean shouldRefresh(CacheEntry entry, long now, double random) {
+        if (entry.getExpireAt() <= 0) {
+            return false;
+        }
+        return now - entry.getDelta() * policy.getBeta() * Math.log(random) >= entry.getExpireAt();
+    }
+
+    private void refresh(Object key, Callable<?> valueLoader) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    delegate.put(key, load(valueLoader));
+                } catch (Exception e) {
+                    // 刷新失败不影响读，旧值到期后由下一次未命中重新加载
+                    logger.warn("refresh cache entry failed, cache={}, key={}", getName(), key, e);
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+        }
+    }
+
+    private CacheEntry load(Callable<?> valueLoader) throws Exception {
+        long start = System.currentTimeMillis();
+        Object value = valueLoader.call();
+        long now = System.currentTimeMillis();
+        return new CacheEntry(value, now - start, expireAt(now));
+    }
+
+    private long expireAt(long now) {
+        return policy.getTimeToLive().isZero() ? 0 : now + policy.getTimeToLive().toMillis();
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, new CacheEntry(value, 0, expireAt(System.currentTimeMillis())));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = delegate.putIfAbsent(key, new CacheEntry(value, 0, expireAt(System.currentTimeMillis())));
+        if (existing != null && existing.get() instanceof CacheEntry entry) {
+            return new SimpleValueWrapper(entry.getValue());
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+}
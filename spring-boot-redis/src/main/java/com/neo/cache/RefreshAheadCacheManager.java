@@ -0,0 +1,54 @@
+package com.neo.cache;
+
+import com.neo.config.CacheSource;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+/**
+ * 只为配置了刷新策略的缓存名套上 RefreshAheadCache，其余缓存原样返回
+ */
+public class RefreshAheadCacheManager implements CacheManager {
+
+    private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+
+    private final CacheManager delegate;
+
+    private final Map<String, CacheSource.RefreshAhead.Policy> policies;
+
+    private final Executor executor;
+
+    public RefreshAheadCacheManager(CacheManager delegate, Map<String, CacheSource.RefreshAhead.Policy> policies,
+                                    Executor executor) {
+        this.delegate = delegate;
+        this.policies = policies;
+        this.executor = executor;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        CacheSource.RefreshAhead.Policy policy = policies.get(name);
+        if (policy == null) {
+            return delegate.getCache(name);
+        }
+        Cache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache target = delegate.getCache(name);
+        if (target == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> new RefreshAheadCache(target, policy, executor));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+}
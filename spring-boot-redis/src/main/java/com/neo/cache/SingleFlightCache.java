@@ -0,0 +1,187 @@
+package com.neo.cache;
+
+import com.neo.config.CacheSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 缓存未命中时合并并发加载：同一节点内每个 key 只有一个线程执行 valueLoader，其余线程等待同一个 future。
+ * 传入 RedisLease 时为分布式模式，领头线程还需先拿到 Redis 租约，拿不到则轮询缓存直到其它节点写入结果。
+ * 只有 get(key, Callable) 会走合并逻辑，即 @Cacheable(sync = true)。
+ */
+public class SingleFlightCache implements Cache {
+
+    protected Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final Cache delegate;
+
+    private final CacheSource.SingleFlight config;
+
+    private final RedisLease lease;
+
+    public SingleFlightCache(Cache delegate, CacheSource.SingleFlight config, RedisLease lease) {
+        this.delegate = delegate;
+        this.config = config;
+        this.lease = lease;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = delegate.get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return (T) await(key, existing);
+        }
+        try {
+            // 上一个领头线程可能在我们第一次读缓存之后才写入并移除 flight
+            wrapper = delegate.get(key);
+            if (wrapper != null) {
+                flight.complete(wrapper.get());
+                return (T) wrapper.get();
+            }
+            Object value = lease == null ? loadAndPut(key, valueLoader) : loadWithLease(key, valueLoader);
+            flight.complete(value);
+            return (T) value;
+        } catch (Throwable e) {
+            // Error 也要结束 future，否则已在 join 的线程会一直等待
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private Object await(Object key, CompletableFuture<Object> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new ValueRetrievalException(key, null, e.getCause());
+        }
+    }
+
+    private Object loadWithLease(Object key, Callable<?> valueLoader) {
+        String lockKey = config.getLockPrefix() + getName() + ":" + key;
+        String token = UUID.randomUUID().toString();
+        long deadline = System.nanoTime() + config.getLeaseTime().toNanos();
+        boolean acquired = false;
+        ValueWrapper found = null;
+        try {
+            while (!(acquired = lease.tryAcquire(lockKey, token, config.getLeaseTime()))) {
+                found = delegate.get(key);
+                // 其它节点已写入结果，或持有租约的节点超时未写入，不再等待
+                if (found != null || System.nanoTime() - deadline > 0) {
+                    break;
+                }
+                Thread.sleep(config.getPollInterval().toMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.warn("acquire cache lease failed, load locally, key={}", lockKey, e);
+        }
+        if (found != null) {
+            return found.get();
+        }
+        if (!acquired) {
+            return loadAndPut(key, valueLoader);
+        }
+        try {
+            // 拿到租约前可能已有其它节点写入
+            ValueWrapper wrapper = delegate.get(key);
+            return wrapper != null ? wrapper.get() : loadAndPut(key, valueLoader);
+        } finally {
+            try {
+                lease.release(lockKey, token);
+            } catch (RuntimeException e) {
+                logger.warn("release cache lease failed, key={}", lockKey, e);
+            }
+        }
+    }
+
+    private Object loadAndPut(Object key, Callable<?> valueLoader) {
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        // 未命中回填不需要通知其它节点丢弃 L1
+        if (delegate instanceof TwoLevelCache near) {
+            near.fill(key, value);
+        } else {
+            delegate.put(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+}
@@ -0,0 +1,47 @@
+package com.neo.cache;
+
+import com.neo.config.CacheSource;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 为 delegate 返回的每个 Cache 套上 SingleFlightCache，lease 为 null 时只做节点内合并
+ */
+public class SingleFlightCacheManager implements CacheManager {
+
+    private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+
+    private final CacheManager delegate;
+
+    private final CacheSource.SingleFlight config;
+
+    private final RedisLease lease;
+
+    public SingleFlightCacheManager(CacheManager delegate, CacheSource.SingleFlight config, RedisLease lease) {
+        this.delegate = delegate;
+        this.config = config;
+        this.lease = lease;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache target = delegate.getCache(name);
+        if (target == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> new SingleFlightCache(target, config, lease));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+}
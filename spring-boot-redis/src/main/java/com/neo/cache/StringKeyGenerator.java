@@ -0,0 +1,24 @@
+package com.neo.cache;
+
+import org.springframework.cache.interceptor.KeyGenerator;
+
+import java.lang.reflect.Method;
+
+/**
+ * 类名.方法名_参数1_参数2 形式的可读缓存 key，每次调用都会拼接字符串，key 长度随参数增长
+ */
+public class StringKeyGenerator implements KeyGenerator {
+
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        // 确保线程安全，并处理 null 参数
+        StringBuilder sb = new StringBuilder();
+        sb.append(target.getClass().getName()).append(".").append(method.getName());
+        if (null != params && params.length > 0) {
+            for (Object obj : params) {
+                sb.append("_").append(obj == null ? "null" : obj.toString());
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,169 @@
+package com.neo.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 两级缓存：进程内 L1 (Caffeine) + Redis L2。
+ * 读先查 L1，未命中再查 L2 并回填 L1；写和删除先作用于 L2，再更新本地 L1，
+ * 最后通过 onChange 通知其它节点丢弃各自的 L1 副本。
+ * L1 中保存的是对象引用，调用方不应修改缓存返回的对象。
+ * <p>
+ * 读 L2 期间可能收到失效消息，如果之后再回填就会把旧值放回 L1 并一直留到 expireAfterWrite。
+ * 因此每次失效都递增 invalidations，回填前比较读 L2 之前记下的值，期间发生过失效就不回填。
+ */
+public class TwoLevelCache implements Cache {
+
+    private final String name;
+
+    private final com.github.benmanes.caffeine.cache.Cache<Object, ValueWrapper> local;
+
+    private final Cache remote;
+
+    private final Consumer<Object> onChange;
+
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public TwoLevelCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, ValueWrapper> local,
+                         Cache remote, Consumer<Object> onChange) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.onChange = onChange;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    public Cache getRemote() {
+        return remote;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper wrapper = local.getIfPresent(key);
+        if (wrapper != null) {
+            return wrapper;
+        }
+        long seen = invalidations.get();
+        wrapper = remote.get(key);
+        if (wrapper != null) {
+            backfill(key, wrapper.get(), seen);
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper == null ? null : wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = local.getIfPresent(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        long seen = invalidations.get();
+        T value = remote.get(key, valueLoader);
+        backfill(key, value, seen);
+        return value;
+    }
+
+    /**
+     * 在 compute 中比较计数，失效的 invalidate 会等这次 compute 结束，不会出现先比较、再失效、最后写入旧值
+     */
+    private void backfill(Object key, Object value, long seen) {
+        local.asMap().compute(key, (k, current) ->
+                invalidations.get() == seen ? new SimpleValueWrapper(value) : current);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        local.put(key, new SimpleValueWrapper(value));
+        onChange.accept(key);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        if (existing == null) {
+            local.put(key, new SimpleValueWrapper(value));
+            onChange.accept(key);
+        } else {
+            local.put(key, new SimpleValueWrapper(existing.get()));
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        invalidations.incrementAndGet();
+        local.invalidate(key);
+        onChange.accept(key);
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        invalidations.incrementAndGet();
+        local.invalidateAll();
+        onChange.accept(null);
+    }
+
+    /**
+     * 未命中加载后写回 L2 和本节点 L1，不广播：其它节点的 L1 里本来就没有这个 key。
+     * 不用 remote.get(key, Callable)，RedisCache 在那里对整个缓存加锁，不同 key 的加载会互相等待
+     */
+    public void fill(Object key, Object value) {
+        long seen = invalidations.get();
+        remote.put(key, value);
+        backfill(key, value, seen);
+    }
+
+    /**
+     * 只查本节点 L1，供批量读取先过滤掉本地命中的 key
+     */
+    public ValueWrapper getLocal(Object key) {
+        return local.getIfPresent(key);
+    }
+
+    /**
+     * 只回填本节点 L1，不广播；与单 key 未命中回填一样，其它节点上没有这个条目需要失效
+     */
+    public void putLocal(Object key, Object value) {
+        local.put(key, new SimpleValueWrapper(value));
+    }
+
+    /**
+     * 仅丢弃本节点 L1 中的条目，用于处理其它节点发来的失效消息
+     */
+    public void invalidateLocal(Object key) {
+        invalidations.incrementAndGet();
+        if (key == null) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(key);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.neo.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.neo.config.CacheSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 在 Redis CacheManager 之前加一层进程内缓存的 CacheManager。
+ * 本节点的 put/evict/clear 会发布到 cache.near.channel，其它节点收到后只丢弃自己的 L1 条目。
+ */
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+
+    protected Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    private final RedisSerializer<Object> serializer = new JdkSerializationRedisSerializer();
+
+    private final CacheManager remoteCacheManager;
+
+    private final CacheSource.Near near;
+
+    private final RedisTemplate<Object, Object> redisTemplate;
+
+    public TwoLevelCacheManager(CacheManager remoteCacheManager, CacheSource.Near near,
+                                RedisTemplate<Object, Object> redisTemplate) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.near = near;
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoLevelCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache remote = remoteCacheManager.getCache(name);
+        if (remote == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> new TwoLevelCache(n,
+                Caffeine.newBuilder()
+                        .maximumSize(near.getMaximumSize())
+                        .expireAfterWrite(near.getExpireAfterWrite())
+                        .build(),
+                remote, key -> publish(n, key)));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+
+    private void publish(String cacheName, Object key) {
+        try {
+            redisTemplate.convertAndSend(near.getChannel(), new CacheInvalidation(nodeId, cacheName, key));
+        } catch (RuntimeException e) {
+            // 广播失败时其它节点的 L1 最多在 expireAfterWrite 之后自然过期
+            logger.warn("publish cache invalidation failed, cache={}, key={}", cacheName, key, e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Object body = serializer.deserialize(message.getBody());
+        if (!(body instanceof CacheInvalidation invalidation) || nodeId.equals(invalidation.getOrigin())) {
+            return;
+        }
+        TwoLevelCache cache = caches.get(invalidation.getCacheName());
+        if (cache != null) {
+            cache.invalidateLocal(invalidation.getKey());
+        }
+    }
+}
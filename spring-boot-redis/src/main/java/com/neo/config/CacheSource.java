@@ -0,0 +1,292 @@
+package com.neo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 缓存相关配置，对应 application.properties 中 cache.* 前缀
+ */
+@Component
+@ConfigurationProperties(prefix = "cache")
+public class CacheSource {
+
+    /**
+     * Redis 缓存默认过期时间，0 表示永不过期
+     */
+    private Duration timeToLive = Duration.ZERO;
+
+    /**
+     * 默认 key 生成方式：STRING 为 类名.方法名_参数 的可读 key；HASH 为 22 个字符的定长哈希 key
+     */
+    private KeyGeneratorType keyGenerator = KeyGeneratorType.STRING;
+
+    private final Serializer serializer = new Serializer();
+
+    private final Near near = new Near();
+
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    private final RefreshAhead refreshAhead = new RefreshAhead();
+
+    public Duration getTimeToLive() {
+        return timeToLive;
+    }
+
+    public void setTimeToLive(Duration timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    public KeyGeneratorType getKeyGenerator() {
+        return keyGenerator;
+    }
+
+    public void setKeyGenerator(KeyGeneratorType keyGenerator) {
+        this.keyGenerator = keyGenerator;
+    }
+
+    public Serializer getSerializer() {
+        return serializer;
+    }
+
+    public Near getNear() {
+        return near;
+    }
+
+    public SingleFlight getSingleFlight() {
+        return singleFlight;
+    }
+
+    public RefreshAhead getRefreshAhead() {
+        return refreshAhead;
+    }
+
+    public enum KeyGeneratorType {
+        STRING, HASH
+    }
+
+    /**
+     * 缓存值和 Session 属性写入 Redis 时使用的序列化方式
+     */
+    public static class Serializer {
+
+        /**
+         * BINARY 紧凑二进制编码；JDK 为 Java 原生序列化；JSON 为 Jackson
+         */
+        private Type type = Type.BINARY;
+
+        /**
+         * BINARY 编码结果达到该字节数时尝试 deflate 压缩，0 表示不压缩
+         */
+        private int compressThreshold = 1024;
+
+        public Type getType() {
+            return type;
+        }
+
+        public void setType(Type type) {
+            this.type = type;
+        }
+
+        public int getCompressThreshold() {
+            return compressThreshold;
+        }
+
+        public void setCompressThreshold(int compressThreshold) {
+            this.compressThreshold = compressThreshold;
+        }
+
+        public enum Type {
+            BINARY, JDK, JSON
+        }
+    }
+
+    /**
+     * 进程内一级缓存（L1）配置，位于 Redis（L2）之前
+     */
+    public static class Near {
+
+        private boolean enabled = true;
+
+        /**
+         * 每个缓存名下 L1 最多保留的条目数
+         */
+        private long maximumSize = 10000;
+
+        /**
+         * L1 条目写入后的存活时间，应小于 Redis 的过期时间
+         */
+        private Duration expireAfterWrite = Duration.ofSeconds(30);
+
+        /**
+         * 节点间广播 L1 失效消息使用的 Redis 频道
+         */
+        private String channel = "cache:near:invalidate";
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getExpireAfterWrite() {
+            return expireAfterWrite;
+        }
+
+        public void setExpireAfterWrite(Duration expireAfterWrite) {
+            this.expireAfterWrite = expireAfterWrite;
+        }
+
+        public String getChannel() {
+            return channel;
+        }
+
+        public void setChannel(String channel) {
+            this.channel = channel;
+        }
+    }
+
+    /**
+     * 缓存未命中时的请求合并配置，只对 @Cacheable(sync = true) 生效
+     */
+    public static class SingleFlight {
+
+        /**
+         * NONE 不合并；LOCAL 同一节点内每个 key 只有一个调用者执行加载；
+         * DISTRIBUTED 在 LOCAL 基础上再用 Redis 租约保证集群内只有一个节点加载
+         */
+        private Mode mode = Mode.LOCAL;
+
+        /**
+         * 分布式租约的持有时间，应大于一次加载的最长耗时
+         */
+        private Duration leaseTime = Duration.ofSeconds(10);
+
+        /**
+         * 未拿到租约的节点轮询缓存结果的间隔
+         */
+        private Duration pollInterval = Duration.ofMillis(50);
+
+        private String lockPrefix = "cache:lock:";
+
+        public Mode getMode() {
+            return mode;
+        }
+
+        public void setMode(Mode mode) {
+            this.mode = mode;
+        }
+
+        public Duration getLeaseTime() {
+            return leaseTime;
+        }
+
+        public void setLeaseTime(Duration leaseTime) {
+            this.leaseTime = leaseTime;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public String getLockPrefix() {
+            return lockPrefix;
+        }
+
+        public void setLockPrefix(String lockPrefix) {
+            this.lockPrefix = lockPrefix;
+        }
+
+        public enum Mode {
+            NONE, LOCAL, DISTRIBUTED
+        }
+    }
+
+    /**
+     * 临近过期时后台提前刷新（XFetch 概率提前过期），只对 @Cacheable(sync = true) 且在 caches 中配置了的缓存生效
+     */
+    public static class RefreshAhead {
+
+        private boolean enabled = true;
+
+        /**
+         * 执行后台刷新的线程数
+         */
+        private int threads = 2;
+
+        /**
+         * 按缓存名配置的刷新策略，例如 cache.refresh-ahead.caches.user-key.time-to-live=10m
+         */
+        private Map<String, Policy> caches = new LinkedHashMap<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public Map<String, Policy> getCaches() {
+            return caches;
+        }
+
+        public void setCaches(Map<String, Policy> caches) {
+            this.caches = caches;
+        }
+
+        public static class Policy {
+
+            /**
+             * 该缓存在 Redis 中的过期时间，同时作为 XFetch 计算的过期点
+             */
+            private Duration timeToLive = Duration.ofMinutes(10);
+
+            /**
+             * XFetch 的 beta 系数，越大越早刷新，1.0 为论文推荐值
+             */
+            private double beta = 1.0;
+
+            public Duration getTimeToLive() {
+                return timeToLive;
+            }
+
+            public void setTimeToLive(Duration timeToLive) {
+                this.timeToLive = timeToLive;
+            }
+
+            public double getBeta() {
+                return beta;
+            }
+
+            public void setBeta(double beta) {
+                this.beta = beta;
+            }
+        }
+    }
+}
@@ -1,32 +1,216 @@
 package com.neo.config;
 
+import com.neo.cache.BatchCacheTemplate;
+import com.neo.cache.CacheMetrics;
+import com.neo.cache.HashKeyGenerator;
+import com.neo.cache.MeteredCacheManager;
+import com.neo.cache.MeteredRedisCacheWriter;
+import com.neo.cache.RedisLease;
+import com.neo.cache.RefreshAheadCacheManager;
+import com.neo.cache.SingleFlightCacheManager;
+import com.neo.cache.StringKeyGenerator;
+import com.neo.cache.TwoLevelCacheManager;
+import com.neo.serializer.BinaryCodec;
+import com.neo.serializer.BinaryRedisSerializer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CachingConfigurerSupport;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
-import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @Configuration
 @EnableCaching
 public class RedisConfig extends CachingConfigurerSupport {
 
+    protected Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @Autowired
+    private CacheSource cacheSource;
+
     @Bean
     public KeyGenerator keyGenerator() {
-        return new KeyGenerator() {
+        if (cacheSource.getKeyGenerator() == CacheSource.KeyGeneratorType.HASH) {
+            return new HashKeyGenerator();
+        }
+        return new StringKeyGenerator();
+    }
+
+    /**
+     * 缓存值序列化方式，同时以 springSessionDefaultRedisSerializer 的名字提供给 Spring Session
+     */
+    @Bean(name = {"redisValueSerializer", "springSessionDefaultRedisSerializer"})
+    public RedisSerializer<Object> redisValueSerializer(CacheSource cacheSource, ObjectProvider<BinaryCodec<?>> codecs) {
+        CacheSource.Serializer serializer = cacheSource.getSerializer();
+        switch (serializer.getType()) {
+            case JDK:
+                return new JdkSerializationRedisSerializer(getClass().getClassLoader());
+            case JSON:
+                return new GenericJackson2JsonRedisSerializer();
+            default:
+                return new BinaryRedisSerializer(codecs.orderedStream().collect(Collectors.toList()),
+                        serializer.getCompressThreshold(), getClass().getClassLoader());
+        }
+    }
+
+    /**
+     * 按缓存名登记的命中、加载耗时、序列化大小等指标，cache.metrics.enabled=false 时不创建
+     */
+    @Bean
+    @ConditionalOnProperty(name = "cache.metrics.enabled", matchIfMissing = true)
+    public CacheMetrics cacheMetrics(MeterRegistry meterRegistry) {
+        return new CacheMetrics(meterRegistry, "cacheManager");
+    }
+
+    @Bean
+    public RedisCacheManager redisCacheManager(RedisConnectionFactory redisConnectionFactory, CacheSource cacheSource,
+                                               RedisSerializer<Object> redisValueSerializer,
+                                               ObjectProvider<CacheMetrics> cacheMetrics) {
+        RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(redisValueSerializer));
+        if (!cacheSource.getTimeToLive().isZero()) {
+            config = config.entryTtl(cacheSource.getTimeToLive());
+        }
+        // 配置了提前刷新的缓存使用各自的过期时间，与 XFetch 计算的过期点保持一致
+        Map<String, RedisCacheConfiguration> initialConfigs = new HashMap<>();
+        if (cacheSource.getRefreshAhead().isEnabled()) {
+            for (Map.Entry<String, CacheSource.RefreshAhead.Policy> entry : cacheSource.getRefreshAhead().getCaches().entrySet()) {
+                initialConfigs.put(entry.getKey(), config.entryTtl(entry.getValue().getTimeToLive()));
+            }
+        }
+        RedisCacheWriter cacheWriter = RedisCacheWriter.nonLockingRedisCacheWriter(redisConnectionFactory);
+        CacheMetrics metrics = cacheMetrics.getIfAvailable();
+        if (metrics != null) {
+            cacheWriter = new MeteredRedisCacheWriter(cacheWriter, metrics);
+        }
+        return RedisCacheManager.builder(cacheWriter)
+                .cacheDefaults(config)
+                .withInitialCacheConfigurations(initialConfigs)
+                .build();
+    }
+
+    /**
+     * 进程内 L1 缓存，cache.near.enabled=false 时不创建，直接使用 Redis 缓存
+     */
+    @Bean
+    @ConditionalOnProperty(name = "cache.near.enabled", matchIfMissing = true)
+    public TwoLevelCacheManager twoLevelCacheManager(RedisCacheManager redisCacheManager, CacheSource cacheSource,
+                                                     RedisTemplate<Object, Object> redisTemplate) {
+        return new TwoLevelCacheManager(redisCacheManager, cacheSource.getNear(), redisTemplate);
+    }
+
+    /**
+     * 对外使用的 CacheManager：Redis -> L1 近端缓存（可选）-> 未命中请求合并（可选）-> 提前刷新（可选）-> 指标（可选）
+     */
+    @Bean
+    @Primary
+    public CacheManager cacheManager(RedisCacheManager redisCacheManager,
+                                     ObjectProvider<TwoLevelCacheManager> twoLevelCacheManager,
+                                     CacheSource cacheSource, StringRedisTemplate stringRedisTemplate,
+                                     ObjectProvider<CacheMetrics> cacheMetrics) {
+        CacheManager nearCacheManager = twoLevelCacheManager.getIfAvailable();
+        CacheManager cacheManager = nearCacheManager != null ? nearCacheManager : redisCacheManager;
+
+        CacheSource.SingleFlight singleFlight = cacheSource.getSingleFlight();
+        switch (singleFlight.getMode()) {
+            case LOCAL:
+                cacheManager = new SingleFlightCacheManager(cacheManager, singleFlight, null);
+                break;
+            case DISTRIBUTED:
+                cacheManager = new SingleFlightCacheManager(cacheManager, singleFlight,
+                        new RedisLease(stringRedisTemplate));
+                break;
+            default:
+                break;
+        }
+
+        CacheSource.RefreshAhead refreshAhead = cacheSource.getRefreshAhead();
+        if (refreshAhead.isEnabled() && !refreshAhead.getCaches().isEmpty()) {
+            cacheManager = new RefreshAheadCacheManager(cacheManager, refreshAhead.getCaches(),
+                    cacheRefreshExecutor(refreshAhead.getThreads()));
+        }
+
+        CacheMetrics metrics = cacheMetrics.getIfAvailable();
+        if (metrics != null) {
+            cacheManager = new MeteredCacheManager(cacheManager, metrics);
+        }
+        return cacheManager;
+    }
+
+    /**
+     * 批量读取缓存，与 cacheManager 共用 Redis 缓存配置和 L1
+     */
+    @Bean
+    public BatchCacheTemplate batchCacheTemplate(RedisTemplate<Object, Object> redisTemplate,
+                                                 RedisCacheManager redisCacheManager,
+                                                 ObjectProvider<TwoLevelCacheManager> twoLevelCacheManager,
+                                                 CacheSource cacheSource, ObjectProvider<CacheMetrics> cacheMetrics) {
+        CacheSource.RefreshAhead refreshAhead = cacheSource.getRefreshAhead();
+        return new BatchCacheTemplate(redisTemplate, redisCacheManager, twoLevelCacheManager.getIfAvailable(),
+                refreshAhead.isEnabled() ? refreshAhead.getCaches() : Collections.emptyMap(),
+                cacheMetrics.getIfAvailable());
+    }
+
+    /**
+     * 后台刷新线程池，队列满时放弃本次提前刷新；使用守护线程，不影响应用停止
+     */
+    private Executor cacheRefreshExecutor(int threads) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("cache-refresh-");
+        threadFactory.setDaemon(true);
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(1000), threadFactory);
+    }
+
+    /**
+     * 订阅其它节点发出的 L1 失效消息。
+     * Redis 不可用时不阻止应用启动，此时各节点的 L1 只能依赖 expire-after-write 过期。
+     */
+    @Bean
+    public RedisMessageListenerContainer cacheMessageListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                       CacheSource cacheSource,
+                                                                       ObjectProvider<TwoLevelCacheManager> twoLevelCacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer() {
             @Override
-            public Object generate(Object target, Method method, Object... params) {
-                // 确保线程安全，并处理 null 参数
-                StringBuilder sb = new StringBuilder();
-                sb.append(target.getClass().getName()).append(".").append(method.getName());
-                if (null != params && params.length > 0) {
-                    for (Object obj : params) {
-                        sb.append("_").append(obj == null ? "null" : obj.toString());
-                    }
+            public void start() {
+                try {
+                    super.start();
+                } catch (RuntimeException e) {
+                    logger.warn("subscribe cache invalidation channel failed", e);
                 }
-                return sb.toString();
             }
         };
+        container.setConnectionFactory(redisConnectionFactory);
+        twoLevelCacheManager.ifAvailable(listener ->
+                container.addMessageListener(listener, new ChannelTopic(cacheSource.getNear().getChannel())));
+        return container;
     }
 }
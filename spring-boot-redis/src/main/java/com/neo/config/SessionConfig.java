@@ -1,9 +1,46 @@
 package com.neo.config;
 
+import com.neo.session.DeltaRedisSessionRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.session.data.redis.RedisSessionRepository;
 import org.springframework.session.data.redis.config.annotation.web.http.EnableRedisHttpSession;
 
+import java.time.Duration;
+
+/**
+ * Session 属性使用 RedisConfig 中名为 springSessionDefaultRedisSerializer 的序列化器，
+ * 默认为 BinaryRedisSerializer，可通过 cache.serializer.type 切换
+ */
 @Configuration
-@EnableRedisHttpSession(maxInactiveIntervalInSeconds = 86400*30)
+@EnableRedisHttpSession(maxInactiveIntervalInSeconds = SessionConfig.MAX_INACTIVE_INTERVAL_IN_SECONDS)
 public class SessionConfig {
-}
\ No newline at end of file
+
+    static final int MAX_INACTIVE_INTERVAL_IN_SECONDS = 86400 * 30;
+
+    /**
+     * 只写变化属性、批量续期并带本地短期副本的 Session 仓库，优先于 @EnableRedisHttpSession 注册的 RedisSessionRepository；
+     * 两者的 Redis 数据格式相同，session.delta.enabled=false 即可切回
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "session.delta.enabled", matchIfMissing = true)
+    public DeltaRedisSessionRepository deltaRedisSessionRepository(RedisConnectionFactory redisConnectionFactory,
+                                                                   RedisSerializer<Object> redisValueSerializer,
+                                                                   SessionSource sessionSource) {
+        RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
+        redisTemplate.setKeySerializer(RedisSerializer.string());
+        redisTemplate.setHashKeySerializer(RedisSerializer.string());
+        redisTemplate.setValueSerializer(redisValueSerializer);
+        redisTemplate.setHashValueSerializer(redisValueSerializer);
+        redisTemplate.setConnectionFactory(redisConnectionFactory);
+        redisTemplate.afterPropertiesSet();
+        return new DeltaRedisSessionRepository(redisTemplate, Duration.ofSeconds(MAX_INACTIVE_INTERVAL_IN_SECONDS),
+                RedisSessionRepository.DEFAULT_KEY_NAMESPACE, sessionSource.getDelta());
+    }
+}
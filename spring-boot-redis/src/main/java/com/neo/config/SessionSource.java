@@ -0,0 +1,72 @@
+package com.neo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Session 相关配置，对应 application.properties 中 session.* 前缀
+ */
+@Component
+@ConfigurationProperties(prefix = "session")
+public class SessionSource {
+
+    private final Delta delta = new Delta();
+
+    public Delta getDelta() {
+        return delta;
+    }
+
+    /**
+     * 只写变化属性的 Session 仓库配置，enabled=false 时使用 Spring Session 自带的 RedisSessionRepository
+     */
+    public static class Delta {
+
+        private boolean enabled = true;
+
+        /**
+         * 节点本地 Session 副本的存活时间，在此时间内的重复请求不再读 Redis
+         */
+        private Duration localTtl = Duration.ofMillis(300);
+
+        private long localMaximumSize = 10000;
+
+        /**
+         * lastAccessedTime 至少前进这么久才写回 Redis 并续期，Session 可能因此提前最多这么久过期
+         */
+        private Duration touchInterval = Duration.ofMinutes(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getLocalTtl() {
+            return localTtl;
+        }
+
+        public void setLocalTtl(Duration localTtl) {
+            this.localTtl = localTtl;
+        }
+
+        public long getLocalMaximumSize() {
+            return localMaximumSize;
+        }
+
+        public void setLocalMaximumSize(long localMaximumSize) {
+            this.localMaximumSize = localMaximumSize;
+        }
+
+        public Duration getTouchInterval() {
+            return touchInterval;
+        }
+
+        public void setTouchInterval(Duration touchInterval) {
+            this.touchInterval = touchInterval;
+        }
+    }
+}
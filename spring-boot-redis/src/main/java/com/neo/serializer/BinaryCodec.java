@@ -0,0 +1,16 @@
+package com.neo.serializer;
+
+/**
+ * 某个类型的二进制编解码，id 写入数据头部用于识别类型，一经使用不可更改。
+ * 需要演进字段时，在 write 中先写版本号，read 按版本号读取。
+ */
+public interface BinaryCodec<T> {
+
+    int id();
+
+    Class<T> type();
+
+    void write(BinaryOutput out, T value);
+
+    T read(BinaryInput in);
+}
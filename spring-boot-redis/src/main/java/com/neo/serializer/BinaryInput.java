@@ -0,0 +1,97 @@
+package com.neo.serializer;
+
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * BinaryOutput 对应的读取端，直接在原始字节数组上按位置读取
+ */
+public class BinaryInput {
+
+    private final BinaryRedisSerializer serializer;
+
+    private final byte[] buf;
+
+    private int pos;
+
+    private final int limit;
+
+    BinaryInput(BinaryRedisSerializer serializer, byte[] buf, int offset, int limit) {
+        this.serializer = serializer;
+        this.buf = buf;
+        this.pos = offset;
+        this.limit = limit;
+    }
+
+    /**
+     * 长度来自数据本身，可能是损坏或伪造的负数、超大值，写成 n > limit - pos 避免 pos + n 溢出
+     */
+    private void require(int n) {
+        if (n < 0 || n > limit - pos) {
+            throw new SerializationException("Unexpected end of binary payload");
+        }
+    }
+
+    public int readByte() {
+        require(1);
+        return buf[pos++] & 0xFF;
+    }
+
+    public byte[] readBytes(int length) {
+        require(length);
+        byte[] bytes = new byte[length];
+        System.arraycopy(buf, pos, bytes, 0, length);
+        pos += length;
+        return bytes;
+    }
+
+    public boolean readBoolean() {
+        return readByte() != 0;
+    }
+
+    public long readUnsignedVarLong() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new SerializationException("Malformed varint");
+    }
+
+    public long readVarLong() {
+        long v = readUnsignedVarLong();
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    public int readVarInt() {
+        return (int) readVarLong();
+    }
+
+    public Long readNullableLong() {
+        return readBoolean() ? readVarLong() : null;
+    }
+
+    public String readString() {
+        int length = (int) readUnsignedVarLong();
+        if (length == 0) {
+            return null;
+        }
+        length--;
+        require(length);
+        String value = new String(buf, pos, length, StandardCharsets.UTF_8);
+        pos += length;
+        return value;
+    }
+
+    public Object readObject() {
+        return serializer.readObject(this);
+    }
+
+    public int remaining() {
+        return limit - pos;
+    }
+}
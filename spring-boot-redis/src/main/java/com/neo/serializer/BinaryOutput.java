@@ -0,0 +1,103 @@
+package com.neo.serializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 可增长的字节缓冲，整数使用 zigzag + varint 编码，字符串为 varint 长度 + UTF-8
+ */
+public class BinaryOutput {
+
+    private final BinaryRedisSerializer serializer;
+
+    private byte[] buf;
+
+    private int pos;
+
+    BinaryOutput(BinaryRedisSerializer serializer, int initialSize) {
+        this.serializer = serializer;
+        this.buf = new byte[initialSize];
+    }
+
+    private void ensure(int n) {
+        if (pos + n > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length << 1, pos + n));
+        }
+    }
+
+    public void writeByte(int b) {
+        ensure(1);
+        buf[pos++] = (byte) b;
+    }
+
+    public void writeBytes(byte[] bytes) {
+        writeBytes(bytes, 0, bytes.length);
+    }
+
+    public void writeBytes(byte[] bytes, int offset, int length) {
+        ensure(length);
+        System.arraycopy(bytes, offset, buf, pos, length);
+        pos += length;
+    }
+
+    public void writeBoolean(boolean value) {
+        writeByte(value ? 1 : 0);
+    }
+
+    public void writeVarLong(long value) {
+        long v = (value << 1) ^ (value >> 63);
+        writeUnsignedVarLong(v);
+    }
+
+    public void writeUnsignedVarLong(long v) {
+        ensure(10);
+        while ((v & ~0x7FL) != 0) {
+            buf[pos++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buf[pos++] = (byte) v;
+    }
+
+    public void writeVarInt(int value) {
+        writeVarLong(value);
+    }
+
+    public void writeNullableLong(Long value) {
+        writeBoolean(value != null);
+        if (value != null) {
+            writeVarLong(value);
+        }
+    }
+
+    /**
+     * 长度写为 length + 1，0 表示 null
+     */
+    public void writeString(String value) {
+        if (value == null) {
+            writeUnsignedVarLong(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeUnsignedVarLong(bytes.length + 1L);
+        writeBytes(bytes);
+    }
+
+    /**
+     * 写入任意对象，由注册的 BinaryCodec 编码，未注册的类型回退到 JDK 序列化
+     */
+    public void writeObject(Object value) {
+        serializer.writeObject(this, value);
+    }
+
+    public int size() {
+        return pos;
+    }
+
+    byte[] buffer() {
+        return buf;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buf, pos);
+    }
+}
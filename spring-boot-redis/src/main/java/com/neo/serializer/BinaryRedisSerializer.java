@@ -0,0 +1,245 @@
+package com.neo.serializer;
+
+import com.neo.cache.CacheEntry;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 紧凑的二进制 RedisSerializer，用于缓存值和 HTTP Session 属性。
+ * <p>
+ * 格式：1 字节头（0 原文，1 deflate 压缩，压缩时紧跟 varint 原始长度），之后是对象编码：
+ * varint 类型 id + 该类型 BinaryCodec 写出的字段。未注册的类型写为 id 1 + JDK 序列化字节，
+ * 读取时遇到 JDK 序列化魔数 0xACED 也按 JDK 反序列化，兼容切换前写入的数据。
+ * 编码结果不小于 compressThreshold 字节时尝试压缩，压缩后没有变小则保留原文。
+ */
+public class BinaryRedisSerializer implements RedisSerializer<Object> {
+
+    private static final byte PLAIN = 0;
+    private static final byte DEFLATED = 1;
+
+    private static final int NULL_ID = 0;
+    private static final int JDK_ID = 1;
+
+    /**
+     * 解压前长度的上限，取 Redis 单个字符串值的最大长度；deflate 的压缩比也不会超过约 1032:1
+     */
+    private static final long MAX_RAW_LENGTH = 512L * 1024 * 1024;
+    private static final int MAX_DEFLATE_RATIO = 1032;
+
+    /**
+     * 小于该值的 id 保留给内置类型
+     */
+    public static final int FIRST_CUSTOM_ID = 16;
+
+    private final Map<Class<?>, BinaryCodec<?>> codecsByType = new HashMap<>();
+
+    private final Map<Integer, BinaryCodec<?>> codecsById = new HashMap<>();
+
+    private final JdkSerializationRedisSerializer jdkSerializer;
+
+    private final int compressThreshold;
+
+    public BinaryRedisSerializer(Collection<BinaryCodec<?>> codecs, int compressThreshold, ClassLoader classLoader) {
+        this.compressThreshold = compressThreshold;
+        this.jdkSerializer = new JdkSerializationRedisSerializer(classLoader);
+        registerBuiltins();
+        for (BinaryCodec<?> codec : codecs) {
+            if (codec.id() < FIRST_CUSTOM_ID) {
+                throw new IllegalArgumentException("Codec id " + codec.id() + " is reserved, use ids >= " + FIRST_CUSTOM_ID);
+            }
+            register(codec);
+        }
+    }
+
+    private void register(BinaryCodec<?> codec) {
+        if (codecsById.putIfAbsent(codec.id(), codec) != null) {
+            throw new IllegalArgumentException("Duplicate codec id " + codec.id() + " for " + codec.type().getName());
+        }
+        codecsByType.put(codec.type(), codec);
+    }
+
+    private void registerBuiltins() {
+        register(codec(2, String.class, BinaryOutput::writeString, BinaryInput::readString));
+        register(codec(3, Long.class, BinaryOutput::writeVarLong, BinaryInput::readVarLong));
+        register(codec(4, Integer.class, BinaryOutput::writeVarInt, BinaryInput::readVarInt));
+        register(codec(5, Boolean.class, BinaryOutput::writeBoolean, BinaryInput::readBoolean));
+        register(codec(6, UUID.class, (out, uuid) -> {
+            out.writeVarLong(uuid.getMostSignificantBits());
+            out.writeVarLong(uuid.getLeastSignificantBits());
+        }, in -> new UUID(in.readVarLong(), in.readVarLong())));
+        register(codec(7, CacheEntry.class, (out, entry) -> {
+            out.writeObject(entry.getValue());
+            out.writeVarLong(entry.getDelta());
+            out.writeVarLong(entry.getExpireAt());
+        }, in -> new CacheEntry(in.readObject(), in.readVarLong(), in.readVarLong())));
+    }
+
+    private static <T> BinaryCodec<T> codec(int id, Class<T> type, Writer<T> writer, Reader<T> reader) {
+        return new BinaryCodec<T>() {
+            @Override
+            public int id() {
+                return id;
+            }
+
+            @Override
+            public Class<T> type() {
+                return type;
+            }
+
+            @Override
+            public void write(BinaryOutput out, T value) {
+                writer.write(out, value);
+            }
+
+            @Override
+            public T read(BinaryInput in) {
+                return reader.read(in);
+            }
+        };
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        BinaryOutput out = new BinaryOutput(this, 64);
+        out.writeByte(PLAIN);
+        writeObject(out, value);
+        int rawLength = out.size() - 1;
+        if (compressThreshold > 0 && rawLength >= compressThreshold) {
+            byte[] compressed = deflate(out.buffer(), 1, rawLength);
+            if (compressed != null) {
+                return compressed;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes.length > 1 && bytes[0] == (byte) 0xAC && bytes[1] == (byte) 0xED) {
+            return jdkSerializer.deserialize(bytes);
+        }
+        BinaryInput in;
+        if (bytes[0] == DEFLATED) {
+            BinaryInput header = new BinaryInput(this, bytes, 1, bytes.length);
+            long rawLength = header.readUnsignedVarLong();
+            int offset = bytes.length - header.remaining();
+            int length = bytes.length - offset;
+            // 按头部声明的长度分配数组之前先检查，避免损坏的数据申请出几 GB 内存
+            if (rawLength < 0 || rawLength > Math.min(MAX_RAW_LENGTH, (long) length * MAX_DEFLATE_RATIO)) {
+                throw new SerializationException("Invalid uncompressed length " + rawLength);
+            }
+            byte[] raw = inflate(bytes, offset, length, (int) rawLength);
+            in = new BinaryInput(this, raw, 0, raw.length);
+        } else if (bytes[0] == PLAIN) {
+            in = new BinaryInput(this, bytes, 1, bytes.length);
+        } else {
+            throw new SerializationException("Unknown binary payload header " + bytes[0]);
+        }
+        return readObject(in);
+    }
+
+    @SuppressWarnings("unchecked")
+    void writeObject(BinaryOutput out, Object value) {
+        if (value == null) {
+            out.writeUnsignedVarLong(NULL_ID);
+            return;
+        }
+        BinaryCodec<Object> codec = (BinaryCodec<Object>) codecsByType.get(value.getClass());
+        if (codec == null) {
+            byte[] bytes = jdkSerializer.serialize(value);
+            out.writeUnsignedVarLong(JDK_ID);
+            out.writeUnsignedVarLong(bytes.length);
+            out.writeBytes(bytes);
+            return;
+        }
+        out.writeUnsignedVarLong(codec.id());
+        codec.write(out, value);
+    }
+
+    Object readObject(BinaryInput in) {
+        int id = (int) in.readUnsignedVarLong();
+        if (id == NULL_ID) {
+            return null;
+        }
+        if (id == JDK_ID) {
+            int length = (int) in.readUnsignedVarLong();
+            return jdkSerializer.deserialize(in.readBytes(length));
+        }
+        BinaryCodec<?> codec = codecsById.get(id);
+        if (codec == null) {
+            throw new SerializationException("No codec registered for type id " + id);
+        }
+        return codec.read(in);
+    }
+
+    private byte[] deflate(byte[] raw, int offset, int length) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw, offset, length);
+            deflater.finish();
+            BinaryOutput out = new BinaryOutput(this, length);
+            out.writeByte(DEFLATED);
+            out.writeUnsignedVarLong(length);
+            byte[] chunk = new byte[Math.min(length, 8192)];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(chunk);
+                out.writeBytes(chunk, 0, n);
+                if (out.size() >= length) {
+                    return null;
+                }
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private byte[] inflate(byte[] bytes, int offset, int length, int rawLength) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, offset, length);
+            byte[] raw = new byte[rawLength];
+            int n = 0;
+            while (n < rawLength) {
+                int read = inflater.inflate(raw, n, rawLength - n);
+                if (read == 0 && (inflater.finished() || inflater.needsInput())) {
+                    break;
+                }
+                n += read;
+            }
+            if (n != rawLength) {
+                throw new SerializationException("Truncated compressed payload");
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new SerializationException("Corrupt compressed payload", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Writer<T> {
+        void write(BinaryOutput out, T value);
+    }
+
+    @FunctionalInterface
+    private interface Reader<T> {
+        T read(BinaryInput in);
+    }
+}
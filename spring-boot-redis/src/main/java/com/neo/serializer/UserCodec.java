@@ -0,0 +1,48 @@
+package com.neo.serializer;
+
+import com.neo.model.User;
+import org.springframework.stereotype.Component;
+
+/**
+ * com.neo.model.User 的二进制编码，字段按固定顺序写出，不写字段名。
+ * User 增加字段时提升 VERSION 并在末尾追加，read 按版本号兼容旧数据。
+ */
+@Component
+public class UserCodec implements BinaryCodec<User> {
+
+    private static final int VERSION = 1;
+
+    @Override
+    public int id() {
+        return BinaryRedisSerializer.FIRST_CUSTOM_ID;
+    }
+
+    @Override
+    public Class<User> type() {
+        return User.class;
+    }
+
+    @Override
+    public void write(BinaryOutput out, User user) {
+        out.writeVarInt(VERSION);
+        out.writeNullableLong(user.getId());
+        out.writeString(user.getUserName());
+        out.writeString(user.getPassword());
+        out.writeString(user.getEmail());
+        out.writeString(user.getNickname());
+        out.writeString(user.getRegTime());
+    }
+
+    @Override
+    public User read(BinaryInput in) {
+        in.readVarInt();
+        User user = new User();
+        user.setId(in.readNullableLong());
+        user.setUserName(in.readString());
+        user.setPassword(in.readString());
+        user.setEmail(in.readString());
+        user.setNickname(in.readString());
+        user.setRegTime(in.readString());
+        return user;
+    }
+}
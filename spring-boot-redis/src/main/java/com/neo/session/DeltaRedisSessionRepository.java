@@ -0,0 +1,298 @@
+package com.neo.session;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.neo.config.SessionSource;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.session.MapSession;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 与 RedisSessionRepository 使用相同 key 和 hash 字段的 Session 仓库，区别在于：
+ * <ul>
+ *     <li>setAttribute 写入的值与原值相同且为不可变类型时不记为变更，没有变更的请求不访问 Redis</li>
+ *     <li>lastAccessedTime 至少前进 touchInterval 才写回并续期，续期和属性写入放在同一个 pipeline 中</li>
+ *     <li>读到的 Session 在本节点保留 localTtl，期间重复请求直接使用本地副本，不读 Redis</li>
+ * </ul>
+ * 本地副本意味着其它节点的修改最多延迟 localTtl 才可见；可变对象属性始终写回，避免丢失原地修改。
+ */
+public class DeltaRedisSessionRepository implements SessionRepository<DeltaRedisSessionRepository.DeltaSession> {
+
+    static final String CREATION_TIME_KEY = "creationTime";
+    static final String LAST_ACCESSED_TIME_KEY = "lastAccessedTime";
+    static final String MAX_INACTIVE_INTERVAL_KEY = "maxInactiveInterval";
+    static final String ATTRIBUTE_PREFIX = "sessionAttr:";
+
+    private static final Set<Class<?>> IMMUTABLE_TYPES = Set.of(String.class, Long.class, Integer.class,
+            Short.class, Byte.class, Double.class, Float.class, Boolean.class, Character.class, UUID.class);
+
+    private final RedisOperations<String, Object> sessionRedisOperations;
+
+    private final Duration defaultMaxInactiveInterval;
+
+    private final String keyPrefix;
+
+    private final Duration touchInterval;
+
+    private final long localTtlNanos;
+
+    private final Cache<String, LocalSession> localSessions;
+
+    public DeltaRedisSessionRepository(RedisOperations<String, Object> sessionRedisOperations,
+                                       Duration defaultMaxInactiveInterval, String namespace,
+                                       SessionSource.Delta delta) {
+        this.sessionRedisOperations = sessionRedisOperations;
+        this.defaultMaxInactiveInterval = defaultMaxInactiveInterval;
+        this.keyPrefix = namespace + ":sessions:";
+        this.touchInterval = delta.getTouchInterval();
+        this.localTtlNanos = delta.getLocalTtl().toNanos();
+        this.localSessions = Caffeine.newBuilder()
+                .maximumSize(delta.getLocalMaximumSize())
+                .expireAfterWrite(delta.getLocalTtl())
+                .build();
+    }
+
+    @Override
+    public DeltaSession createSession() {
+        MapSession cached = new MapSession();
+        cached.setMaxInactiveInterval(defaultMaxInactiveInterval);
+        DeltaSession session = new DeltaSession(cached, true, cached.getLastAccessedTime(), System.nanoTime());
+        session.delta.put(CREATION_TIME_KEY, cached.getCreationTime().toEpochMilli());
+        session.delta.put(LAST_ACCESSED_TIME_KEY, cached.getLastAccessedTime().toEpochMilli());
+        session.delta.put(MAX_INACTIVE_INTERVAL_KEY, (int) cached.getMaxInactiveInterval().getSeconds());
+        return session;
+    }
+
+    @Override
+    public void save(DeltaSession session) {
+        if (!session.isNew && !session.getId().equals(session.originalId)) {
+            try {
+                sessionRedisOperations.rename(getSessionKey(session.originalId), getSessionKey(session.getId()));
+            } catch (NonTransientDataAccessException e) {
+                // 原 key 已过期，下面的写入会重新创建
+            }
+            localSessions.invalidate(session.originalId);
+        }
+        if (!session.delta.isEmpty()) {
+            flush(session);
+        }
+        session.isNew = false;
+        session.originalId = session.getId();
+        // 沿用最初从 Redis 读取的时间，保存不延长本地副本的有效期
+        localSessions.put(session.getId(), new LocalSession(new MapSession(session.cached),
+                session.persistedLastAccessedTime, session.loadedAt));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void flush(DeltaSession session) {
+        String key = getSessionKey(session.getId());
+        Map<String, Object> puts = new HashMap<>();
+        List<Object> deletes = new ArrayList<>();
+        session.delta.forEach((field, value) -> {
+            if (value == null) {
+                deletes.add(field);
+            } else {
+                puts.put(field, value);
+            }
+        });
+        boolean expire = session.isNew || puts.containsKey(LAST_ACCESSED_TIME_KEY)
+                || puts.containsKey(MAX_INACTIVE_INTERVAL_KEY);
+        sessionRedisOperations.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public Object execute(RedisOperations operations) {
+                if (!puts.isEmpty()) {
+                    operations.opsForHash().putAll(key, puts);
+                }
+                if (!deletes.isEmpty()) {
+                    operations.opsForHash().delete(key, deletes.toArray());
+                }
+                if (expire) {
+                    operations.expire(key, session.getMaxInactiveInterval());
+                }
+                return null;
+            }
+        });
+        if (puts.containsKey(LAST_ACCESSED_TIME_KEY)) {
+            session.persistedLastAccessedTime = session.getLastAccessedTime();
+        }
+        session.delta.clear();
+    }
+
+    @Override
+    public DeltaSession findById(String id) {
+        LocalSession local = localSessions.getIfPresent(id);
+        if (local == null || System.nanoTime() - local.loadedAt > localTtlNanos) {
+            Map<String, Object> entries = sessionRedisOperations.<String, Object>opsForHash().entries(getSessionKey(id));
+            if (entries.isEmpty()) {
+                localSessions.invalidate(id);
+                return null;
+            }
+            MapSession loaded = toMapSession(id, entries);
+            local = new LocalSession(loaded, loaded.getLastAccessedTime(), System.nanoTime());
+            localSessions.put(id, local);
+        }
+        if (local.session.isExpired()) {
+            deleteById(id);
+            return null;
+        }
+        return new DeltaSession(new MapSession(local.session), false, local.persistedLastAccessedTime, local.loadedAt);
+    }
+
+    @Override
+    public void deleteById(String id) {
+        localSessions.invalidate(id);
+        sessionRedisOperations.delete(getSessionKey(id));
+    }
+
+    private MapSession toMapSession(String id, Map<String, Object> entries) {
+        MapSession session = new MapSession(id);
+        entries.forEach((field, value) -> {
+            if (CREATION_TIME_KEY.equals(field)) {
+                session.setCreationTime(Instant.ofEpochMilli(((Number) value).longValue()));
+            } else if (LAST_ACCESSED_TIME_KEY.equals(field)) {
+                session.setLastAccessedTime(Instant.ofEpochMilli(((Number) value).longValue()));
+            } else if (MAX_INACTIVE_INTERVAL_KEY.equals(field)) {
+                session.setMaxInactiveInterval(Duration.ofSeconds(((Number) value).longValue()));
+            } else if (field.startsWith(ATTRIBUTE_PREFIX)) {
+                session.setAttribute(field.substring(ATTRIBUTE_PREFIX.length()), value);
+            }
+        });
+        return session;
+    }
+
+    private String getSessionKey(String sessionId) {
+        return keyPrefix + sessionId;
+    }
+
+    private static boolean isImmutable(Object value) {
+        return value == null || IMMUTABLE_TYPES.contains(value.getClass()) || value instanceof Enum
+                || value instanceof TemporalAccessor;
+    }
+
+    private static final class LocalSession {
+
+        final MapSession session;
+        final Instant persistedLastAccessedTime;
+        final long loadedAt;
+
+        LocalSession(MapSession session, Instant persistedLastAccessedTime, long loadedAt) {
+            this.session = session;
+            this.persistedLastAccessedTime = persistedLastAccessedTime;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    public final class DeltaSession implements Session {
+
+        private final MapSession cached;
+
+        private final Map<String, Object> delta = new HashMap<>();
+
+        private boolean isNew;
+
+        private String originalId;
+
+        private Instant persistedLastAccessedTime;
+
+        private final long loadedAt;
+
+        DeltaSession(MapSession cached, boolean isNew, Instant persistedLastAccessedTime, long loadedAt) {
+            this.cached = cached;
+            this.isNew = isNew;
+            this.originalId = cached.getId();
+            this.persistedLastAccessedTime = persistedLastAccessedTime;
+            this.loadedAt = loadedAt;
+        }
+
+        @Override
+        public String getId() {
+            return cached.getId();
+        }
+
+        @Override
+        public String changeSessionId() {
+            return cached.changeSessionId();
+        }
+
+        @Override
+        public <T> T getAttribute(String attributeName) {
+            return cached.getAttribute(attributeName);
+        }
+
+        @Override
+        public Set<String> getAttributeNames() {
+            return cached.getAttributeNames();
+        }
+
+        @Override
+        public void setAttribute(String attributeName, Object attributeValue) {
+            Object old = cached.getAttribute(attributeName);
+            cached.setAttribute(attributeName, attributeValue);
+            if (isImmutable(attributeValue) && Objects.equals(old, attributeValue)
+                    && !delta.containsKey(ATTRIBUTE_PREFIX + attributeName)) {
+                return;
+            }
+            delta.put(ATTRIBUTE_PREFIX + attributeName, attributeValue);
+        }
+
+        @Override
+        public void removeAttribute(String attributeName) {
+            setAttribute(attributeName, null);
+        }
+
+        @Override
+        public Instant getCreationTime() {
+            return cached.getCreationTime();
+        }
+
+        @Override
+        public void setLastAccessedTime(Instant lastAccessedTime) {
+            cached.setLastAccessedTime(lastAccessedTime);
+            if (isNew || Duration.between(persistedLastAccessedTime, lastAccessedTime).compareTo(touchInterval) >= 0) {
+                delta.put(LAST_ACCESSED_TIME_KEY, lastAccessedTime.toEpochMilli());
+            }
+        }
+
+        @Override
+        public Instant getLastAccessedTime() {
+            return cached.getLastAccessedTime();
+        }
+
+        @Override
+        public void setMaxInactiveInterval(Duration interval) {
+            Duration old = cached.getMaxInactiveInterval();
+            cached.setMaxInactiveInterval(interval);
+            if (isNew || !old.equals(interval)) {
+                delta.put(MAX_INACTIVE_INTERVAL_KEY, (int) interval.getSeconds());
+            }
+        }
+
+        @Override
+        public Duration getMaxInactiveInterval() {
+            return cached.getMaxInactiveInterval();
+        }
+
+        @Override
+        public boolean isExpired() {
+            return cached.isExpired();
+        }
+
+        boolean isDirty() {
+            return !delta.isEmpty();
+        }
+    }
+}
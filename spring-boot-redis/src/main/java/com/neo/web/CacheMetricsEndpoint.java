@@ -0,0 +1,82 @@
+package com.neo.web;
+
+import com.neo.cache.CacheMetrics;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /actuator/cachemetrics：每个缓存名的命中率、加载耗时和序列化大小汇总，/actuator/cachemetrics/{name} 查看单个缓存
+ */
+@Component
+@Endpoint(id = "cachemetrics")
+public class CacheMetricsEndpoint {
+
+    private final ObjectProvider<CacheMetrics> cacheMetrics;
+
+    public CacheMetricsEndpoint(ObjectProvider<CacheMetrics> cacheMetrics) {
+        this.cacheMetrics = cacheMetrics;
+    }
+
+    @ReadOperation
+    public Map<String, Map<String, Object>> caches() {
+        Map<String, Map<String, Object>> caches = new TreeMap<>();
+        CacheMetrics metrics = cacheMetrics.getIfAvailable();
+        if (metrics != null) {
+            metrics.getMeters().forEach((name, meters) -> caches.put(name, summary(meters)));
+        }
+        return caches;
+    }
+
+    @ReadOperation
+    public Map<String, Object> cache(@Selector String name) {
+        CacheMetrics metrics = cacheMetrics.getIfAvailable();
+        CacheMetrics.Meters meters = metrics == null ? null : metrics.getMeters().get(name);
+        return meters == null ? null : summary(meters);
+    }
+
+    private static Map<String, Object> summary(CacheMetrics.Meters meters) {
+        double hits = meters.getHits().count();
+        double misses = meters.getMisses().count();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("hits", (long) hits);
+        summary.put("misses", (long) misses);
+        summary.put("hitRatio", hits + misses == 0 ? 0 : hits / (hits + misses));
+        summary.put("puts", (long) meters.getPuts().count());
+        summary.put("evictions", (long) meters.getEvictions().count());
+
+        HistogramSnapshot load = meters.getLoadTime().takeSnapshot();
+        Map<String, Object> loadTime = new LinkedHashMap<>();
+        loadTime.put("count", load.count());
+        loadTime.put("meanMs", load.mean(TimeUnit.MILLISECONDS));
+        loadTime.put("maxMs", load.max(TimeUnit.MILLISECONDS));
+        for (ValueAtPercentile percentile : load.percentileValues()) {
+            loadTime.put(label(percentile) + "Ms", percentile.value(TimeUnit.MILLISECONDS));
+        }
+        summary.put("loadTime", loadTime);
+
+        HistogramSnapshot size = meters.getValueSize().takeSnapshot();
+        Map<String, Object> valueSize = new LinkedHashMap<>();
+        valueSize.put("count", size.count());
+        valueSize.put("meanBytes", size.mean());
+        valueSize.put("maxBytes", size.max());
+        for (ValueAtPercentile percentile : size.percentileValues()) {
+            valueSize.put(label(percentile) + "Bytes", percentile.value());
+        }
+        summary.put("valueSize", valueSize);
+        return summary;
+    }
+
+    private static String label(ValueAtPercentile percentile) {
+        return "p" + Math.round(percentile.percentile() * 100);
+    }
+}
@@ -1,25 +1,47 @@
 package com.neo.web;
 
+import com.neo.cache.BatchCacheTemplate;
 import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.neo.model.User;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
 public class UserController {
 
+    @Autowired
+    private BatchCacheTemplate batchCacheTemplate;
+
     @RequestMapping("/getUser")
-    @Cacheable(value="user-key")
+    @Cacheable(value="user-key", sync=true)
     public User getUser() {
         User user=new User("aa@126.com", "aa", "aa123456", "aa","123");
         System.out.println("若下面没出现“无缓存的时候调用”字样且能打印出数据表示测试成功");
         return user;
     }
 
+    @RequestMapping("/getUsers")
+    public Map<Long, User> getUsers(@RequestParam List<Long> ids) {
+        return batchCacheTemplate.getAll("user", ids, misses -> {
+            System.out.println("无缓存的时候调用，批量加载：" + misses);
+            Map<Long, User> users = new HashMap<>();
+            for (Long id : misses) {
+                User user = new User("aa" + id + "@126.com", "aa" + id, "aa123456", "aa" + id, "123");
+                user.setId(id);
+                users.put(id, user);
+            }
+            return users;
+        });
+    }
 
     @RequestMapping("/uid")
     String uid(HttpSession session) {
@@ -0,0 +1,71 @@
+package com.neo.benchmark;
+
+import com.neo.cache.HashKeyGenerator;
+import com.neo.cache.StringKeyGenerator;
+import com.neo.web.UserController;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.cache.interceptor.KeyGenerator;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对比 STRING 与 HASH 两种 KeyGenerator 的吞吐和每次调用的分配字节数（gc.alloc.rate.norm）。
+ * 运行：mvn test-compile 后执行本类 main 方法
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyGeneratorBenchmark {
+
+    @Param({"STRING", "HASH"})
+    public String type;
+
+    private KeyGenerator keyGenerator;
+
+    private Object target;
+
+    private Method method;
+
+    private Object[] params;
+
+    @Setup
+    public void setUp() throws Exception {
+        keyGenerator = "HASH".equals(type) ? new HashKeyGenerator() : new StringKeyGenerator();
+        target = new UserController();
+        method = UserController.class.getMethod("getUser");
+        params = new Object[]{12345L, "aa@126.com", 3};
+    }
+
+    @Benchmark
+    public Object noParams() {
+        return keyGenerator.generate(target, method);
+    }
+
+    @Benchmark
+    public Object withParams() {
+        return keyGenerator.generate(target, method, params);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(KeyGeneratorBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
@@ -0,0 +1,89 @@
+package com.neo.benchmark;
+
+import com.neo.cache.CacheEntry;
+import com.neo.model.User;
+import com.neo.serializer.BinaryRedisSerializer;
+import com.neo.serializer.UserCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对比 BINARY / JDK / JSON 三种序列化方式编码、解码 User 缓存条目的耗时，main 方法先打印各自的字节数。
+ * 运行：mvn test-compile 后执行本类 main 方法
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializerBenchmark {
+
+    @Param({"BINARY", "JDK", "JSON"})
+    public String type;
+
+    private RedisSerializer<Object> serializer;
+
+    private Object value;
+
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        serializer = create(type);
+        value = sample();
+        bytes = serializer.serialize(value);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return serializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return serializer.deserialize(bytes);
+    }
+
+    static RedisSerializer<Object> create(String type) {
+        switch (type) {
+            case "JDK":
+                return new JdkSerializationRedisSerializer();
+            case "JSON":
+                return new GenericJackson2JsonRedisSerializer();
+            default:
+                return new BinaryRedisSerializer(Collections.singletonList(new UserCodec()), 1024,
+                        SerializerBenchmark.class.getClassLoader());
+        }
+    }
+
+    static Object sample() {
+        User user = new User("aa@126.com", "aa", "aa123456", "aa", "123");
+        user.setId(1L);
+        return new CacheEntry(user, 12, System.currentTimeMillis() + 600_000);
+    }
+
+    public static void main(String[] args) throws Exception {
+        for (String type : new String[]{"BINARY", "JDK", "JSON"}) {
+            System.out.println(type + " payload size: " + create(type).serialize(sample()).length + " bytes");
+        }
+        new Runner(new OptionsBuilder().include(SerializerBenchmark.class.getSimpleName()).build()).run();
+    }
+}
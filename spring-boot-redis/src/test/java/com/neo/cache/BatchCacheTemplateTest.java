@@ -0,0 +1,107 @@
+package com.neo.cache;
+
+import com.neo.config.CacheSource;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BatchCacheTemplateTest {
+
+    private RedisStringCommands stringCommands;
+
+    private RedisOperations<Object, Object> redisOperations;
+
+    private BatchCacheTemplate template;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        RedisConnection connection = mock(RedisConnection.class);
+        stringCommands = mock(RedisStringCommands.class);
+        when(connection.stringCommands()).thenReturn(stringCommands);
+
+        redisOperations = mock(RedisOperations.class);
+        when(redisOperations.execute(any(RedisCallback.class)))
+                .thenAnswer(invocation -> ((RedisCallback<?>) invocation.getArgument(0)).doInRedis(connection));
+        when(redisOperations.executePipelined(any(RedisCallback.class)))
+                .thenAnswer(invocation -> {
+                    ((RedisCallback<?>) invocation.getArgument(0)).doInRedis(connection);
+                    return Collections.emptyList();
+                });
+
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(mock(RedisConnectionFactory.class))
+                .cacheDefaults(RedisCacheConfiguration.defaultCacheConfig()
+                        .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(RedisSerializer.string())))
+                .build();
+        template = new BatchCacheTemplate(redisOperations, redisCacheManager, null, Collections.emptyMap(), null);
+    }
+
+    @Test
+    public void onlyMissesAreLoadedAndWrittenInOnePipeline() {
+        when(stringCommands.mGet(any(byte[][].class))).thenReturn(Arrays.asList("v1".getBytes(StandardCharsets.UTF_8), null, null));
+        List<Set<String>> batches = new CopyOnWriteArrayList<>();
+
+        Map<String, String> values = template.getAll("user", Arrays.asList("1", "2", "3"), misses -> {
+            batches.add(misses);
+            Map<String, String> loaded = new HashMap<>();
+            misses.forEach(key -> loaded.put(key, "v" + key));
+            return loaded;
+        });
+
+        Assert.assertEquals(Arrays.asList("1", "2", "3"), List.copyOf(values.keySet()));
+        Assert.assertEquals("v1", values.get("1"));
+        Assert.assertEquals("v3", values.get("3"));
+        Assert.assertEquals(1, batches.size());
+        Assert.assertEquals(Set.of("2", "3"), batches.get(0));
+        verify(stringCommands, times(1)).mGet(any(byte[][].class));
+        verify(stringCommands).set(eq("user::2".getBytes(StandardCharsets.UTF_8)), eq("v2".getBytes(StandardCharsets.UTF_8)),
+                any(), any());
+        verify(stringCommands, times(2)).set(any(), any(), any(), any());
+    }
+
+    @Test
+    public void refreshAheadEntriesStayWrappedInL1() {
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(mock(RedisConnectionFactory.class))
+                .cacheDefaults(RedisCacheConfiguration.defaultCacheConfig()
+                        .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(RedisSerializer.java())))
+                .build();
+        TwoLevelCacheManager nearCacheManager = new TwoLevelCacheManager(redisCacheManager, new CacheSource.Near(), null);
+        BatchCacheTemplate template = new BatchCacheTemplate(redisOperations, redisCacheManager, nearCacheManager,
+                Map.of("user", new CacheSource.RefreshAhead.Policy()), null);
+        byte[] cached = RedisSerializer.java().serialize(new CacheEntry("v1", 5, Long.MAX_VALUE));
+        when(stringCommands.mGet(any(byte[][].class))).thenReturn(Arrays.asList(cached, null));
+
+        Map<String, String> values = template.getAll("user", Arrays.asList("1", "2"), misses -> Map.of("2", "v2"));
+
+        Assert.assertEquals(Map.of("1", "v1", "2", "v2"), values);
+        TwoLevelCache near = (TwoLevelCache) nearCacheManager.getCache("user");
+        // 单 key 读取经过 RefreshAheadCache 时需要 CacheEntry 中的 delta 和 expireAt
+        Assert.assertEquals("v1", ((CacheEntry) near.getLocal("1").get()).getValue());
+        Assert.assertEquals("v2", ((CacheEntry) near.getLocal("2").get()).getValue());
+    }
+}
@@ -0,0 +1,40 @@
+package com.neo.cache;
+
+import com.neo.web.UserController;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+
+public class HashKeyGeneratorTest {
+
+    private final HashKeyGenerator keyGenerator = new HashKeyGenerator();
+
+    @Test
+    public void keysAreFixedWidthAndStable() throws Exception {
+        UserController target = new UserController();
+        Method method = UserController.class.getMethod("getUser");
+
+        Object noParams = keyGenerator.generate(target, method);
+        Assert.assertSame(noParams, keyGenerator.generate(target, method));
+        Assert.assertEquals(22, noParams.toString().length());
+
+        Object withParams = keyGenerator.generate(target, method, 1L, "aa");
+        Assert.assertEquals(22, withParams.toString().length());
+        Assert.assertEquals(withParams, new HashKeyGenerator().generate(target, method, 1L, "aa"));
+        Assert.assertNotEquals(withParams, noParams);
+    }
+
+    @Test
+    public void parameterBoundariesMatter() throws Exception {
+        UserController target = new UserController();
+        Method method = UserController.class.getMethod("getUser");
+
+        Assert.assertNotEquals(keyGenerator.generate(target, method, "ab", "c"),
+                keyGenerator.generate(target, method, "a", "bc"));
+        Assert.assertNotEquals(keyGenerator.generate(target, method, 1L),
+                keyGenerator.generate(target, method, "1"));
+        Assert.assertNotEquals(keyGenerator.generate(target, method, (Object) null),
+                keyGenerator.generate(target, method, "null"));
+    }
+}
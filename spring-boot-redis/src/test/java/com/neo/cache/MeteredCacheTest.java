@@ -0,0 +1,60 @@
+package com.neo.cache;
+
+import com.neo.config.CacheSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MeteredCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final CacheMetrics metrics = new CacheMetrics(registry, "cacheManager");
+
+    private final MeteredCache cache = new MeteredCache(new ConcurrentMapCache("user-key"), metrics.forCache("user-key"));
+
+    @Test
+    public void loaderCallDecidesHitOrMiss() {
+        Assert.assertEquals("v", cache.get("k", () -> "v"));
+        Assert.assertEquals("v", cache.get("k", () -> "other"));
+        Assert.assertNull(cache.get("absent"));
+        cache.evict("k");
+
+        Assert.assertEquals(1, registry.get("cache.gets").tag("cache", "user-key").tag("result", "hit").counter().count(), 0);
+        Assert.assertEquals(2, registry.get("cache.gets").tag("cache", "user-key").tag("result", "miss").counter().count(), 0);
+        Assert.assertEquals(1, registry.get("cache.load.time").tag("cache", "user-key").timer().count());
+        Assert.assertEquals(1, registry.get("cache.evictions").tag("cache", "user-key").counter().count(), 0);
+    }
+
+    @Test
+    public void backgroundRefreshIsNotCountedAsMiss() throws Exception {
+        ConcurrentMapCache remote = new ConcurrentMapCache("user-key");
+        CacheSource.RefreshAhead.Policy policy = new CacheSource.RefreshAhead.Policy();
+        // 在另一个线程里刷新并等它结束，刷新一定发生在本次调用返回之前
+        Executor joiningExecutor = command -> {
+            Thread thread = new Thread(command);
+            thread.start();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        MeteredCache refreshing = new MeteredCache(new RefreshAheadCache(remote, policy, joiningExecutor),
+                metrics.forCache("user-key"));
+        AtomicInteger loads = new AtomicInteger();
+
+        remote.put("k", new CacheEntry("old", 1000, System.currentTimeMillis() - 1));
+        Assert.assertEquals("old", refreshing.get("k", () -> "new" + loads.incrementAndGet()));
+        Assert.assertEquals(1, loads.get());
+        Assert.assertEquals("new1", refreshing.get("k", () -> "new" + loads.incrementAndGet()));
+
+        Assert.assertEquals(2, registry.get("cache.gets").tag("cache", "user-key").tag("result", "hit").counter().count(), 0);
+        Assert.assertEquals(0, registry.get("cache.gets").tag("cache", "user-key").tag("result", "miss").counter().count(), 0);
+        Assert.assertEquals(1, registry.get("cache.load.time").tag("cache", "user-key").timer().count());
+    }
+}
@@ -0,0 +1,39 @@
+package com.neo.cache;
+
+import com.neo.config.CacheSource;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RefreshAheadCacheTest {
+
+    @Test
+    public void refreshProbabilityGrowsNearExpiry() {
+        RefreshAheadCache cache = new RefreshAheadCache(new ConcurrentMapCache("user-key"),
+                new CacheSource.RefreshAhead.Policy(), Runnable::run);
+        CacheEntry entry = new CacheEntry("v", 100, 10_000);
+
+        // ln(0.5) * 100 ≈ -69ms，离过期还有 1s 时不刷新，只剩 50ms 时刷新
+        Assert.assertFalse(cache.shouldRefresh(entry, 9_000, 0.5));
+        Assert.assertTrue(cache.shouldRefresh(entry, 9_950, 0.5));
+        Assert.assertTrue(cache.shouldRefresh(entry, 10_000, 0.999));
+    }
+
+    @Test
+    public void staleValueIsServedWhileRefreshing() {
+        ConcurrentMapCache remote = new ConcurrentMapCache("user-key");
+        RefreshAheadCache cache = new RefreshAheadCache(remote, new CacheSource.RefreshAhead.Policy(), Runnable::run);
+        AtomicInteger loads = new AtomicInteger();
+
+        remote.put("k", new CacheEntry("old", 1000, System.currentTimeMillis() - 1));
+        Assert.assertEquals("old", cache.get("k", () -> "new" + loads.incrementAndGet()));
+        Assert.assertEquals(1, loads.get());
+        Assert.assertEquals("new1", cache.get("k").get());
+
+        // 刚刷新过的条目离过期还远，不会再次加载
+        Assert.assertEquals("new1", cache.get("k", () -> "new" + loads.incrementAndGet()));
+        Assert.assertEquals(1, loads.get());
+    }
+}
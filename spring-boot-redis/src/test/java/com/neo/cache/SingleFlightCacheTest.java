@@ -0,0 +1,111 @@
+package com.neo.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.neo.config.CacheSource;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SingleFlightCacheTest {
+
+    @Test
+    public void concurrentMissesLoadOnce() throws Exception {
+        SingleFlightCache cache = new SingleFlightCache(new ConcurrentMapCache("user-key"),
+                new CacheSource.SingleFlight(), null);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> cache.get("k", () -> {
+                    loads.incrementAndGet();
+                    release.await();
+                    return "v";
+                })));
+            }
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<String> result : results) {
+                Assert.assertEquals("v", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(1, loads.get());
+        Assert.assertEquals("v", cache.get("k").get());
+    }
+
+    @Test
+    public void errorInLoaderReleasesWaiters() throws Exception {
+        SingleFlightCache cache = new SingleFlightCache(new ConcurrentMapCache("user-key"),
+                new CacheSource.SingleFlight(), null);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() -> cache.get("k", () -> {
+                loading.countDown();
+                release.await();
+                throw new AssertionError("loader failed");
+            }));
+            Assert.assertTrue(loading.await(5, TimeUnit.SECONDS));
+            Future<String> waiter = executor.submit(() -> cache.get("k", () -> "v"));
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<String> result : List.of(leader, waiter)) {
+                try {
+                    result.get(5, TimeUnit.SECONDS);
+                    Assert.fail();
+                } catch (ExecutionException e) {
+                    Assert.assertTrue(e.getCause() instanceof AssertionError);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals("v", cache.get("k", () -> "v"));
+    }
+
+    @Test
+    public void winnerRechecksCacheBeforeLoading() {
+        ConcurrentMapCache delegate = new ConcurrentMapCache("user-key") {
+            @Override
+            public ValueWrapper get(Object key) {
+                ValueWrapper wrapper = super.get(key);
+                // 第一次读未命中后，上一个领头线程写入了结果
+                super.put(key, "v");
+                return wrapper;
+            }
+        };
+        SingleFlightCache cache = new SingleFlightCache(delegate, new CacheSource.SingleFlight(), null);
+        Assert.assertEquals("v", cache.get("k", () -> {
+            throw new AssertionError("should not load");
+        }));
+    }
+
+    @Test
+    public void missFillDoesNotBroadcast() {
+        ConcurrentMapCache remote = new ConcurrentMapCache("user-key");
+        List<Object> published = new ArrayList<>();
+        TwoLevelCache near = new TwoLevelCache("user-key", Caffeine.newBuilder().maximumSize(100).build(), remote,
+                published::add);
+        SingleFlightCache cache = new SingleFlightCache(near, new CacheSource.SingleFlight(), null);
+
+        Assert.assertEquals("v", cache.get("k", () -> "v"));
+        Assert.assertEquals("v", remote.get("k").get());
+        Assert.assertEquals("v", near.getLocal("k").get());
+        Assert.assertTrue(published.isEmpty());
+    }
+}
@@ -0,0 +1,81 @@
+package com.neo.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TwoLevelCacheTest {
+
+    private ConcurrentMapCache remote;
+
+    private List<Object> published;
+
+    private TwoLevelCache cache;
+
+    @Before
+    public void setUp() {
+        remote = new ConcurrentMapCache("user-key");
+        published = new ArrayList<>();
+        cache = new TwoLevelCache("user-key", Caffeine.newBuilder().maximumSize(100).build(), remote, published::add);
+    }
+
+    @Test
+    public void readThroughFillsLocal() {
+        remote.put("k", "v");
+        Assert.assertEquals("v", cache.get("k").get());
+
+        // L2 被其它节点改掉后，本节点在收到失效消息前仍读到 L1
+        remote.put("k", "v2");
+        Assert.assertEquals("v", cache.get("k").get());
+
+        cache.invalidateLocal("k");
+        Assert.assertEquals("v2", cache.get("k").get());
+    }
+
+    @Test
+    public void writesGoToBothTiersAndPublish() {
+        cache.put("k", "v");
+        Assert.assertEquals("v", remote.get("k").get());
+
+        cache.evict("k");
+        Assert.assertNull(remote.get("k"));
+        Assert.assertNull(cache.get("k"));
+
+        cache.clear();
+        Assert.assertEquals(3, published.size());
+        Assert.assertNull(published.get(2));
+    }
+
+    @Test
+    public void invalidationDuringRemoteReadSkipsBackfill() {
+        TwoLevelCache[] holder = new TwoLevelCache[1];
+        ConcurrentMapCache slowRemote = new ConcurrentMapCache("user-key") {
+            @Override
+            public ValueWrapper get(Object key) {
+                ValueWrapper wrapper = super.get(key);
+                // 读到旧值后、回填前，其它节点的失效消息到达
+                holder[0].invalidateLocal(key);
+                return wrapper;
+            }
+        };
+        slowRemote.put("k", "old");
+        holder[0] = new TwoLevelCache("user-key", Caffeine.newBuilder().maximumSize(100).build(), slowRemote,
+                published::add);
+
+        Assert.assertEquals("old", holder[0].get("k").get());
+        Assert.assertNull(holder[0].getLocal("k"));
+
+        Assert.assertEquals("loaded", cache.get("n", () -> {
+            cache.invalidateLocal("n");
+            return "loaded";
+        }));
+        Assert.assertNull(cache.getLocal("n"));
+        Assert.assertEquals("loaded", cache.get("n", () -> "other"));
+        Assert.assertEquals("loaded", cache.getLocal("n").get());
+    }
+}
@@ -0,0 +1,82 @@
+package com.neo.serializer;
+
+import com.neo.cache.CacheEntry;
+import com.neo.model.User;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+public class BinaryRedisSerializerTest {
+
+    private final BinaryRedisSerializer serializer = new BinaryRedisSerializer(
+            Collections.singletonList(new UserCodec()), 256, getClass().getClassLoader());
+
+    @Test
+    public void roundTripUserInCacheEntry() {
+        User user = new User("aa@126.com", "aa", "aa123456", "aa", "123");
+        user.setId(-7L);
+        byte[] bytes = serializer.serialize(new CacheEntry(user, 12, 1700000000000L));
+        Assert.assertTrue(bytes.length < new JdkSerializationRedisSerializer().serialize(user).length / 4);
+
+        CacheEntry entry = (CacheEntry) serializer.deserialize(bytes);
+        Assert.assertEquals(user.toString(), entry.getValue().toString());
+        Assert.assertEquals(12, entry.getDelta());
+        Assert.assertEquals(1700000000000L, entry.getExpireAt());
+    }
+
+    @Test
+    public void sessionAttributeTypes() {
+        UUID uid = UUID.randomUUID();
+        Assert.assertEquals(uid, serializer.deserialize(serializer.serialize(uid)));
+        Assert.assertEquals(Long.MIN_VALUE, serializer.deserialize(serializer.serialize(Long.MIN_VALUE)));
+        Assert.assertEquals(2592000, serializer.deserialize(serializer.serialize(2592000)));
+        Assert.assertNull(serializer.deserialize(serializer.serialize(null)));
+    }
+
+    @Test
+    public void largePayloadIsCompressed() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            sb.append("neo-");
+        }
+        byte[] bytes = serializer.serialize(sb.toString());
+        Assert.assertEquals(1, bytes[0]);
+        Assert.assertTrue(bytes.length < 100);
+        Assert.assertEquals(sb.toString(), serializer.deserialize(bytes));
+    }
+
+    @Test
+    public void unregisteredAndLegacyValuesFallBackToJdk() {
+        List<String> list = new ArrayList<>(List.of("a", "b"));
+        Assert.assertEquals(list, serializer.deserialize(serializer.serialize(list)));
+
+        byte[] legacy = new JdkSerializationRedisSerializer().serialize(list);
+        Assert.assertEquals(list, serializer.deserialize(legacy));
+    }
+
+    @Test
+    public void corruptLengthsFailAsSerializationException() {
+        byte[][] corrupt = {
+                // JDK 类型，长度 Integer.MAX_VALUE，pos + n 会溢出
+                {0, 1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 0},
+                // JDK 类型，长度强转后为负数
+                {0, 1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F, 0},
+                // 压缩数据声明解压后约 2GB
+                {1, (byte) 0xFE, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 0x78, 0x01}
+        };
+        for (byte[] bytes : corrupt) {
+            try {
+                serializer.deserialize(bytes);
+                Assert.fail();
+            } catch (SerializationException e) {
+                // expected
+            }
+        }
+    }
+}
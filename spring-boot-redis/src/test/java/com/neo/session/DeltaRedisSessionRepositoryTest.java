@@ -0,0 +1,76 @@
+package com.neo.session;
+
+import com.neo.config.SessionSource;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DeltaRedisSessionRepositoryTest {
+
+    private RedisOperations<String, Object> redisOperations;
+
+    private HashOperations<String, Object, Object> hashOperations;
+
+    private DeltaRedisSessionRepository repository;
+
+    private final UUID uid = UUID.randomUUID();
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        redisOperations = mock(RedisOperations.class);
+        hashOperations = mock(HashOperations.class);
+        when(redisOperations.opsForHash()).thenReturn(hashOperations);
+
+        long now = Instant.now().toEpochMilli();
+        Map<Object, Object> entries = new HashMap<>();
+        entries.put("creationTime", now);
+        entries.put("lastAccessedTime", now);
+        entries.put("maxInactiveInterval", 1800);
+        entries.put("sessionAttr:uid", uid);
+        when(hashOperations.entries("spring:session:sessions:1")).thenReturn(entries);
+
+        SessionSource.Delta delta = new SessionSource.Delta();
+        delta.setLocalTtl(Duration.ofSeconds(10));
+        repository = new DeltaRedisSessionRepository(redisOperations, Duration.ofMinutes(30), "spring:session", delta);
+    }
+
+    @Test
+    public void unchangedAttributeIsNotWritten() {
+        DeltaRedisSessionRepository.DeltaSession session = repository.findById("1");
+        session.setLastAccessedTime(Instant.now());
+        session.setAttribute("uid", session.getAttribute("uid"));
+        repository.save(session);
+        verify(redisOperations, never()).executePipelined(any(SessionCallback.class));
+
+        // 本地副本有效期内再次读取不访问 Redis
+        repository.findById("1");
+        verify(hashOperations, times(1)).entries("spring:session:sessions:1");
+    }
+
+    @Test
+    public void changedAttributeIsWrittenInOnePipeline() {
+        DeltaRedisSessionRepository.DeltaSession session = repository.findById("1");
+        session.setAttribute("uid", UUID.randomUUID());
+        Assert.assertTrue(session.isDirty());
+        repository.save(session);
+        verify(redisOperations, times(1)).executePipelined(any(SessionCallback.class));
+        Assert.assertFalse(session.isDirty());
+    }
+}
@@ -0,0 +1,35 @@
+package com.neo.config;
+
+import com.neo.scheduling.MeteredTaskScheduler;
+import com.neo.scheduling.TaskMetrics;
+import com.neo.scheduling.VirtualThreads;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.task.TaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 执行 @Scheduled 方法的线程池。默认的调度器只有一个线程，一个任务执行过久会推迟其他所有任务；
+ * 这里按 spring.task.scheduling.* 建线程池，开启指标时再包一层 MeteredTaskScheduler
+ */
+@Configuration
+public class SchedulerConfig {
+
+    @Bean
+    public TaskScheduler taskScheduler(TaskSchedulerBuilder builder, SchedulerSource schedulerSource,
+                                       ObjectProvider<TaskMetrics> taskMetrics) {
+        ThreadPoolTaskScheduler scheduler = builder.build();
+        if (schedulerSource.getThreads() == SchedulerSource.Threads.VIRTUAL) {
+            ThreadFactory factory = VirtualThreads.factory(scheduler.getThreadNamePrefix());
+            if (factory != null) {
+                scheduler.setThreadFactory(factory);
+            }
+        }
+        TaskMetrics metrics = taskMetrics.getIfAvailable();
+        return metrics == null ? scheduler : new MeteredTaskScheduler(scheduler, metrics);
+    }
+}
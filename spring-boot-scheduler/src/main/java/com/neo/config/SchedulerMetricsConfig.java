@@ -0,0 +1,26 @@
+package com.neo.config;
+
+import com.neo.scheduling.SchedulerMetricsEndpoint;
+import com.neo.scheduling.TaskMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 每个定时任务的 Micrometer 指标和 schedulermetrics 端点，scheduler.metrics.enabled=false 时关闭
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "scheduler.metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulerMetricsConfig {
+
+    @Bean
+    public TaskMetrics taskMetrics(MeterRegistry meterRegistry) {
+        return new TaskMetrics(meterRegistry);
+    }
+
+    @Bean
+    public SchedulerMetricsEndpoint schedulerMetricsEndpoint(TaskMetrics taskMetrics) {
+        return new SchedulerMetricsEndpoint(taskMetrics);
+    }
+}
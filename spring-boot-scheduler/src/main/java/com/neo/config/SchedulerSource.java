@@ -0,0 +1,53 @@
+package com.neo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 定时任务相关配置，对应 application.properties 中 scheduler.* 前缀；
+ * 线程池大小、线程名前缀、停止时的等待沿用 Spring Boot 的 spring.task.scheduling.*
+ */
+@Component
+@ConfigurationProperties(prefix = "scheduler")
+public class SchedulerSource {
+
+    /**
+     * 执行定时任务的线程：PLATFORM 为普通线程；VIRTUAL 为虚拟线程，任务阻塞时不占用平台线程，
+     * 同时执行的任务数仍由 spring.task.scheduling.pool.size 决定，JDK 21 以下回退为普通线程
+     */
+    private Threads threads = Threads.PLATFORM;
+
+    private final Metrics metrics = new Metrics();
+
+    public Threads getThreads() {
+        return threads;
+    }
+
+    public void setThreads(Threads threads) {
+        this.threads = threads;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public enum Threads {
+        PLATFORM, VIRTUAL
+    }
+
+    public static class Metrics {
+
+        /**
+         * 每个定时任务的耗时直方图、超时和错过次数、启动延迟，以及 schedulermetrics 端点
+         */
+        private boolean enabled = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.neo.scheduling;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.TriggerContext;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.scheduling.support.ScheduledMethodRunnable;
+import org.springframework.scheduling.support.SimpleTriggerContext;
+import org.springframework.util.ClassUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 包装实际执行的 TaskScheduler，@Scheduled 方法经由这里调度时按任务记录 TaskMetrics：
+ * <ul>
+ *     <li>cron / Trigger：计划时间取 Trigger 算出的下一次触发时间；算下一次时，上一次计划时间与新的触发时间之间
+ *     被跳过的 cron 触发时间计为错过（Spring 在上一次执行结束后才计算下一次，执行期间到期的触发不会补跑）</li>
+ *     <li>fixedRate：第 n 次的计划时间为首次时间 + n 个周期，执行时间超过周期计为超时，
+ *     开始时间推迟一个周期以上计为错过</li>
+ *     <li>fixedDelay：计划时间为上一次结束 + 间隔，只记录启动延迟，不会超时</li>
+ * </ul>
+ * 生命周期方法转给被包装的调度器，由 Spring 负责初始化和关闭。
+ */
+public class MeteredTaskScheduler implements TaskScheduler, InitializingBean, DisposableBean {
+
+    /**
+     * 统计一次超时错过的 cron 触发次数时最多向后计算的次数
+     */
+    private static final int MAX_MISSED_FIRES = 10_000;
+
+    private final TaskScheduler delegate;
+
+    private final TaskMetrics taskMetrics;
+
+    public MeteredTaskScheduler(TaskScheduler delegate, TaskMetrics taskMetrics) {
+        this.delegate = delegate;
+        this.taskMetrics = taskMetrics;
+    }
+
+    public TaskScheduler getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public Clock getClock() {
+        return delegate.getClock();
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable task, Trigger trigger) {
+        TaskMetrics.Meters meters = taskMetrics.forTask(name(task), scheduleOf(trigger));
+        MeteredTrigger meteredTrigger = new MeteredTrigger(trigger, meters);
+        return delegate.schedule(() -> run(task, meters, meteredTrigger.scheduled), meteredTrigger);
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable task, Instant startTime) {
+        TaskMetrics.Meters meters = taskMetrics.forTask(name(task), "once at " + startTime);
+        meters.nextScheduled(startTime.toEpochMilli());
+        return delegate.schedule(() -> {
+            meters.nextScheduled(0);
+            run(task, meters, startTime.toEpochMilli());
+        }, startTime);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Instant startTime, Duration period) {
+        return delegate.scheduleAtFixedRate(fixedRate(task, startTime, period), startTime, period);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Duration period) {
+        return delegate.scheduleAtFixedRate(fixedRate(task, getClock().instant(), period), period);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Instant startTime, Duration delay) {
+        return delegate.scheduleWithFixedDelay(fixedDelay(task, startTime, delay), startTime, delay);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Duration delay) {
+        return delegate.scheduleWithFixedDelay(fixedDelay(task, getClock().instant(), delay), delay);
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        if (delegate instanceof InitializingBean initializingBean) {
+            initializingBean.afterPropertiesSet();
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (delegate instanceof DisposableBean disposableBean) {
+            disposableBean.destroy();
+        }
+    }
+
+    private Runnable fixedRate(Runnable task, Instant first, Duration period) {
+        TaskMetrics.Meters meters = taskMetrics.forTask(name(task), "fixedRate " + period);
+        long periodMillis = period.toMillis();
+        // 同一个任务的执行不会重叠，计数只在执行线程中修改
+        AtomicLong runs = new AtomicLong();
+        meters.nextScheduled(first.toEpochMilli());
+        return () -> {
+            long n = runs.getAndIncrement();
+            long scheduled = first.toEpochMilli() + n * periodMillis;
+            meters.nextScheduled(scheduled + periodMillis);
+            long start = getClock().millis();
+            if (start - scheduled >= periodMillis) {
+                meters.missed();
+            }
+            long durationNanos = run(task, meters, scheduled);
+            if (durationNanos > period.toNanos()) {
+                meters.overrun(0);
+            }
+        };
+    }
+
+    private Runnable fixedDelay(Runnable task, Instant first, Duration delay) {
+        TaskMetrics.Meters meters = taskMetrics.forTask(name(task), "fixedDelay " + delay);
+        AtomicLong next = new AtomicLong(first.toEpochMilli());
+        meters.nextScheduled(next.get());
+        return () -> {
+            try {
+                run(task, meters, next.get());
+            } finally {
+                next.set(getClock().millis() + delay.toMillis());
+                meters.nextScheduled(next.get());
+            }
+        };
+    }
+
+    /**
+     * 执行任务并记录启动延迟和耗时，异常照常抛给调度器的 ErrorHandler
+     *
+     * @return 执行耗时，纳秒
+     */
+    private long run(Runnable task, TaskMetrics.Meters meters, long scheduled) {
+        meters.started(scheduled, getClock().millis());
+        long start = System.nanoTime();
+        try {
+            task.run();
+        } catch (RuntimeException | Error e) {
+            meters.finished(System.nanoTime() - start, true);
+            throw e;
+        }
+        long durationNanos = System.nanoTime() - start;
+        meters.finished(durationNanos, false);
+        return durationNanos;
+    }
+
+    static String name(Runnable task) {
+        if (task instanceof ScheduledMethodRunnable method) {
+            return ClassUtils.getUserClass(method.getTarget()).getSimpleName() + "." + method.getMethod().getName();
+        }
+        return task.toString();
+    }
+
+    private static String scheduleOf(Trigger trigger) {
+        return trigger instanceof CronTrigger cron ? "cron " + cron.getExpression() : trigger.toString();
+    }
+
+    /**
+     * 记录每次算出的触发时间，cron 任务还统计超时错过的触发
+     */
+    private static final class MeteredTrigger implements Trigger {
+
+        private final Trigger delegate;
+
+        private final TaskMetrics.Meters meters;
+
+        private volatile long scheduled;
+
+        MeteredTrigger(Trigger delegate, TaskMetrics.Meters meters) {
+            this.delegate = delegate;
+            this.meters = meters;
+        }
+
+        @Override
+        public Instant nextExecution(TriggerContext triggerContext) {
+            Instant next = delegate.nextExecution(triggerContext);
+            Instant last = triggerContext.lastScheduledExecution();
+            if (next != null && last != null && delegate instanceof CronTrigger) {
+                int missed = missedFires(last, next);
+                if (missed > 0) {
+                    meters.overrun(missed);
+                }
+            }
+            scheduled = next == null ? 0 : next.toEpochMilli();
+            meters.nextScheduled(scheduled);
+            return next;
+        }
+
+        /**
+         * last 之后、next 之前本应触发的次数
+         */
+        private int missedFires(Instant last, Instant next) {
+            int missed = 0;
+            Instant fire = last;
+            while (missed < MAX_MISSED_FIRES) {
+                fire = delegate.nextExecution(new SimpleTriggerContext(fire, fire, fire));
+                if (fire == null || !fire.isBefore(next)) {
+                    break;
+                }
+                missed++;
+            }
+            return missed;
+        }
+
+        @Override
+        public String toString() {
+            return delegate.toString();
+        }
+    }
+}
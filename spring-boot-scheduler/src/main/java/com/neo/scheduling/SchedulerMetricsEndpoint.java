@@ -0,0 +1,66 @@
+package com.neo.scheduling;
+
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /actuator/schedulermetrics：每个定时任务的耗时、超时和错过次数、启动延迟及下一次执行时间，
+ * /actuator/schedulermetrics/{task} 查看单个任务
+ */
+@Endpoint(id = "schedulermetrics")
+public class SchedulerMetricsEndpoint {
+
+    private final TaskMetrics taskMetrics;
+
+    public SchedulerMetricsEndpoint(TaskMetrics taskMetrics) {
+        this.taskMetrics = taskMetrics;
+    }
+
+    @ReadOperation
+    public Map<String, Map<String, Object>> tasks() {
+        Map<String, Map<String, Object>> tasks = new TreeMap<>();
+        taskMetrics.getMeters().forEach((task, meters) -> tasks.put(task, summary(meters)));
+        return tasks;
+    }
+
+    @ReadOperation
+    public Map<String, Object> task(@Selector String task) {
+        TaskMetrics.Meters meters = taskMetrics.getMeters().get(task);
+        return meters == null ? null : summary(meters);
+    }
+
+    static Map<String, Object> summary(TaskMetrics.Meters meters) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("schedule", meters.getSchedule());
+        summary.put("running", meters.isRunning());
+        summary.put("lastStart", meters.getLastStart() == 0 ? null : Instant.ofEpochMilli(meters.getLastStart()));
+        summary.put("lastDurationMs", meters.getLastStart() == 0 ? null : meters.getLastDurationMillis());
+        summary.put("nextScheduled",
+                meters.getNextScheduled() == 0 ? null : Instant.ofEpochMilli(meters.getNextScheduled()));
+        summary.put("lagMs", meters.getLagMillis());
+        summary.put("overruns", (long) meters.getOverruns().count());
+        summary.put("missed", (long) meters.getMissed().count());
+        summary.put("failures", (long) meters.getFailures().count());
+
+        HistogramSnapshot snapshot = meters.getDuration().takeSnapshot();
+        Map<String, Object> duration = new LinkedHashMap<>();
+        duration.put("count", snapshot.count());
+        duration.put("meanMs", snapshot.mean(TimeUnit.MILLISECONDS));
+        duration.put("maxMs", snapshot.max(TimeUnit.MILLISECONDS));
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            duration.put("p" + Math.round(percentile.percentile() * 100) + "Ms",
+                    percentile.value(TimeUnit.MILLISECONDS));
+        }
+        summary.put("duration", duration);
+        return summary;
+    }
+}
@@ -0,0 +1,160 @@
+package com.neo.scheduling;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按定时任务登记的指标，tag 为 task=类名.方法名：
+ * <ul>
+ *     <li>scheduled.task.duration：每次执行的耗时直方图</li>
+ *     <li>scheduled.task.overruns：执行时间超过了下一次触发时间的次数</li>
+ *     <li>scheduled.task.missed：因上一次还没执行完而错过的触发次数，cron 任务为被跳过的触发时间，
+ *     fixedRate 任务为推迟了一个周期以上才开始的执行（ScheduledExecutorService 不跳过，而是随后补跑）</li>
+ *     <li>scheduled.task.failures：抛出异常的执行次数</li>
+ *     <li>scheduled.task.lag：最近一次执行实际开始时间与计划时间之差，线程池满时会变大</li>
+ * </ul>
+ */
+public class TaskMetrics {
+
+    private final ConcurrentMap<String, Meters> meters = new ConcurrentHashMap<>();
+
+    private final MeterRegistry registry;
+
+    public TaskMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * @param schedule 调度方式的描述，如 cron 表达式、fixedRate 周期，同名任务以第一次登记的为准
+     */
+    public Meters forTask(String task, String schedule) {
+        Meters taskMeters = meters.get(task);
+        if (taskMeters != null) {
+            return taskMeters;
+        }
+        return meters.computeIfAbsent(task, t -> new Meters(registry, Tags.of("task", t), schedule));
+    }
+
+    public Map<String, Meters> getMeters() {
+        return Collections.unmodifiableMap(meters);
+    }
+
+    public static final class Meters {
+
+        private final String schedule;
+        private final Timer duration;
+        private final Counter overruns;
+        private final Counter missed;
+        private final Counter failures;
+
+        private volatile long lagMillis;
+        private volatile long lastStart;
+        private volatile long lastDurationMillis;
+        private volatile long nextScheduled;
+        private volatile boolean running;
+
+        Meters(MeterRegistry registry, Tags tags, String schedule) {
+            this.schedule = schedule;
+            this.duration = Timer.builder("scheduled.task.duration").tags(tags)
+                    .description("execution time of the scheduled task")
+                    .publishPercentiles(0.5, 0.99)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            this.overruns = Counter.builder("scheduled.task.overruns").tags(tags)
+                    .description("executions that were still running at the next fire time")
+                    .register(registry);
+            this.missed = Counter.builder("scheduled.task.missed").tags(tags)
+                    .description("fire times skipped or delayed by at least one period")
+                    .register(registry);
+            this.failures = Counter.builder("scheduled.task.failures").tags(tags)
+                    .description("executions that threw an exception")
+                    .register(registry);
+            TimeGauge.builder("scheduled.task.lag", this, TimeUnit.MILLISECONDS, m -> m.lagMillis).tags(tags)
+                    .description("delay between the scheduled and the actual start of the last execution")
+                    .register(registry);
+        }
+
+        public String getSchedule() {
+            return schedule;
+        }
+
+        public Timer getDuration() {
+            return duration;
+        }
+
+        public Counter getOverruns() {
+            return overruns;
+        }
+
+        public Counter getMissed() {
+            return missed;
+        }
+
+        public Counter getFailures() {
+            return failures;
+        }
+
+        public long getLagMillis() {
+            return lagMillis;
+        }
+
+        /**
+         * 最近一次开始执行的时间，毫秒时间戳，0 表示还没有执行过
+         */
+        public long getLastStart() {
+            return lastStart;
+        }
+
+        public long getLastDurationMillis() {
+            return lastDurationMillis;
+        }
+
+        /**
+         * 下一次计划执行的时间，毫秒时间戳，0 表示未知或不再执行
+         */
+        public long getNextScheduled() {
+            return nextScheduled;
+        }
+
+        public boolean isRunning() {
+            return running;
+        }
+
+        void started(long scheduled, long start) {
+            this.lagMillis = Math.max(0, start - scheduled);
+            this.lastStart = start;
+            this.running = true;
+        }
+
+        void finished(long durationNanos, boolean failed) {
+            duration.record(durationNanos, TimeUnit.NANOSECONDS);
+            this.lastDurationMillis = TimeUnit.NANOSECONDS.toMillis(durationNanos);
+            this.running = false;
+            if (failed) {
+                failures.increment();
+            }
+        }
+
+        void overrun(int missedFires) {
+            overruns.increment();
+            missed.increment(missedFires);
+        }
+
+        void missed() {
+            missed.increment();
+        }
+
+        void nextScheduled(long nextScheduled) {
+            this.nextScheduled = nextScheduled;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.neo.scheduling;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 创建虚拟线程的 ThreadFactory：JDK 21 及以上可用，项目仍以 Java 17 编译，虚拟线程 API 通过反射调用
+ */
+public final class VirtualThreads {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreads.class);
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    /**
+     * @return 不支持虚拟线程时返回 null，由调用方使用默认的平台线程
+     */
+    public static ThreadFactory factory(String namePrefix) {
+        if (!isSupported()) {
+            logger.info("Java {} has no virtual threads, {} uses platform threads", Runtime.version().feature(),
+                    namePrefix);
+            return null;
+        }
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            logger.warn("Virtual threads unavailable, falling back to platform threads", e);
+            return null;
+        }
+    }
+}
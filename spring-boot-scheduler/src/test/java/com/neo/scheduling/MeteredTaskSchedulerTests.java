@@ -0,0 +1,140 @@
+package com.neo.scheduling;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.support.CronTrigger;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MeteredTaskSchedulerTests {
+
+    private SimpleMeterRegistry registry;
+
+    private TaskMetrics taskMetrics;
+
+    private MeteredTaskScheduler scheduler;
+
+    @Before
+    public void setUp() throws Exception {
+        registry = new SimpleMeterRegistry();
+        taskMetrics = new TaskMetrics(registry);
+        ThreadPoolTaskScheduler pool = new ThreadPoolTaskScheduler();
+        pool.setPoolSize(2);
+        scheduler = new MeteredTaskScheduler(pool, taskMetrics);
+        scheduler.afterPropertiesSet();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        scheduler.destroy();
+    }
+
+    @Test
+    public void fixedRateOverrunIsCounted() throws Exception {
+        // 第四次开始时，前三次的指标都已记录完
+        CountDownLatch done = new CountDownLatch(4);
+        ScheduledFuture<?> future = scheduler.scheduleAtFixedRate(named("slowRate", () -> {
+            done.countDown();
+            sleep(120);
+        }), Duration.ofMillis(50));
+        Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+        future.cancel(false);
+
+        TaskMetrics.Meters meters = taskMetrics.getMeters().get("slowRate");
+        Assert.assertEquals("fixedRate PT0.05S", meters.getSchedule());
+        Assert.assertTrue(meters.getDuration().count() >= 3);
+        Assert.assertTrue(meters.getOverruns().count() >= 3);
+        // 第二次起每次都推迟了一个周期以上才开始
+        Assert.assertTrue(meters.getMissed().count() >= 2);
+        Assert.assertTrue(meters.getLagMillis() >= 50);
+    }
+
+    @Test
+    public void cronFiresSkippedDuringOverrunAreMissed() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(2);
+        ScheduledFuture<?> future = scheduler.schedule(named("slowCron", () -> {
+            if (runs.getAndIncrement() == 0) {
+                sleep(2100);
+            }
+            done.countDown();
+        }), new CronTrigger("* * * * * *"));
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+        future.cancel(false);
+
+        TaskMetrics.Meters meters = taskMetrics.getMeters().get("slowCron");
+        Assert.assertEquals("cron * * * * * *", meters.getSchedule());
+        Assert.assertEquals(1, (long) meters.getOverruns().count());
+        // 执行了 2.1 秒，跳过了其间的两个整秒
+        Assert.assertEquals(2, (long) meters.getMissed().count());
+    }
+
+    @Test
+    public void failuresAreCountedAndRethrown() throws Exception {
+        ScheduledFuture<?> future = scheduler.schedule(named("failing", () -> {
+            throw new IllegalStateException("boom");
+        }), Instant.now());
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+
+        TaskMetrics.Meters meters = taskMetrics.getMeters().get("failing");
+        Assert.assertEquals(1, (long) meters.getFailures().count());
+        Assert.assertEquals(1, meters.getDuration().count());
+        Assert.assertFalse(meters.isRunning());
+    }
+
+    @Test
+    public void endpointSummarizesTasks() throws Exception {
+        scheduler.schedule(named("quick", () -> sleep(10)), Instant.now()).get(5, TimeUnit.SECONDS);
+
+        SchedulerMetricsEndpoint endpoint = new SchedulerMetricsEndpoint(taskMetrics);
+        Assert.assertEquals(1, endpoint.tasks().size());
+        Assert.assertNull(endpoint.task("unknown"));
+        Map<String, Object> quick = endpoint.task("quick");
+        Assert.assertEquals(0L, quick.get("failures"));
+        Assert.assertNotNull(quick.get("lastStart"));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> duration = (Map<String, Object>) quick.get("duration");
+        Assert.assertEquals(1L, duration.get("count"));
+        Assert.assertTrue(duration.containsKey("p99Ms"));
+        Assert.assertNotNull(registry.find("scheduled.task.lag").tag("task", "quick").timeGauge());
+    }
+
+    private static Runnable named(String name, Runnable task) {
+        return new Runnable() {
+
+            @Override
+            public void run() {
+                task.run();
+            }
+
+            @Override
+            public String toString() {
+                return name;
+            }
+        };
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.neo.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.ReactiveRedisOperations;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * 响应式的缓存读取或加载：先查 Redis，未命中时订阅传入的 source，把结果按 TTL 写回 Redis 后返回。
+ * 同一节点内同一个 key 同时只有一次查询和加载，其余订阅者共享同一个结果；Redis 不可用时直接加载，不影响请求。
+ * 全程基于 Lettuce 响应式命令，序列化只做内存中的编解码，可以直接在事件循环线程上使用。
+ * source 为空时不缓存，下次请求会重新加载。
+ */
+public class ReactiveRedisCache<T> {
+
+    protected Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final ConcurrentMap<String, Flight<T>> inFlight = new ConcurrentHashMap<>();
+
+    private final String name;
+
+    private final ReactiveRedisOperations<String, T> redisOperations;
+
+    private final Duration timeToLive;
+
+    /**
+     * @param redisOperations value 序列化器决定缓存值的编码
+     * @param timeToLive      缓存过期时间，必须大于 0
+     */
+    public ReactiveRedisCache(String name, ReactiveRedisOperations<String, T> redisOperations, Duration timeToLive) {
+        if (timeToLive.isZero() || timeToLive.isNegative()) {
+            throw new IllegalArgumentException("timeToLive must be positive: " + timeToLive);
+        }
+        this.name = name;
+        this.redisOperations = redisOperations;
+        this.timeToLive = timeToLive;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 缓存中有则返回缓存值，否则订阅 source 加载并写入缓存，source 应当是惰性的（如 repository 查询）
+     */
+    public Mono<T> get(String key, Mono<T> source) {
+        return Mono.defer(() -> {
+            // cache() 之前的部分只执行一次，调用方取消订阅也不会中断，结束后移除，之后的请求重新查 Redis
+            Flight<T> flight = new Flight<>();
+            flight.result = Mono.defer(() -> lookupOrLoad(key, source, flight))
+                    .doFinally(signal -> inFlight.remove(key, flight))
+                    .cache();
+            Flight<T> existing = inFlight.putIfAbsent(key, flight);
+            return existing != null ? existing.result : flight.result;
+        });
+    }
+
+    /**
+     * 作为操作符使用：mono.transform(cache.cached(key))
+     */
+    public Function<Mono<T>, Mono<T>> cached(String key) {
+        return source -> get(key, source);
+    }
+
+    public Mono<Boolean> put(String key, T value) {
+        return redisOperations.opsForValue().set(redisKey(key), value, timeToLive);
+    }
+
+    /**
+     * 删除缓存，同时让之后的请求不再共享删除前已开始的加载；那次加载可能读到的是更新前的数据，
+     * 它的结果照常返回给已订阅的请求，但不再写回缓存
+     */
+    public Mono<Boolean> evict(String key) {
+        return redisOperations.opsForValue().delete(redisKey(key))
+                .doFirst(() -> {
+                    Flight<T> flight = inFlight.remove(key);
+                    if (flight != null) {
+                        flight.evicted = true;
+                    }
+                })
+                .onErrorResume(e -> {
+                    logger.warn("Failed to evict {} from cache {}: {}", key, name, e.toString());
+                    return Mono.just(false);
+                });
+    }
+
+    private Mono<T> lookupOrLoad(String key, Mono<T> source, Flight<T> flight) {
+        return redisOperations.opsForValue().get(redisKey(key))
+                .onErrorResume(e -> {
+                    logger.warn("Cache {} lookup failed for {}, loading from source: {}", name, key, e.toString());
+                    return Mono.empty();
+                })
+                .switchIfEmpty(Mono.defer(() -> source.flatMap(value -> writeBack(key, value, flight))));
+    }
+
+    private Mono<T> writeBack(String key, T value, Flight<T> flight) {
+        if (flight.evicted) {
+            return Mono.just(value);
+        }
+        return put(key, value)
+                .onErrorResume(e -> {
+                    logger.warn("Failed to write {} to cache {}: {}", key, name, e.toString());
+                    return Mono.just(false);
+                })
+                .thenReturn(value);
+    }
+
+    private String redisKey(String key) {
+        return name + "::" + key;
+    }
+
+    private static final class Flight<T> {
+
+        private Mono<T> result;
+
+        /**
+         * 加载期间 key 被删除，结果可能已过时，不写回缓存
+         */
+        private volatile boolean evicted;
+    }
+}
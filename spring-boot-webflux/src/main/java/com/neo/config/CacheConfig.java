@@ -0,0 +1,32 @@
+package com.neo.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neo.cache.ReactiveRedisCache;
+import com.neo.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.time.Duration;
+
+@Configuration
+public class CacheConfig {
+
+    /**
+     * 按用户 id 缓存，key 为 user::{id}，值为 User 的 JSON
+     */
+    @Bean
+    public ReactiveRedisCache<User> userCache(ReactiveRedisConnectionFactory connectionFactory, ObjectMapper objectMapper,
+                                              @Value("${cache.user.time-to-live:10m}") Duration timeToLive) {
+        RedisSerializationContext<String, User> context = RedisSerializationContext
+                .<String, User>newSerializationContext(new StringRedisSerializer())
+                .value(new Jackson2JsonRedisSerializer<>(objectMapper, User.class))
+                .build();
+        return new ReactiveRedisCache<>("user", new ReactiveRedisTemplate<>(connectionFactory, context), timeToLive);
+    }
+}
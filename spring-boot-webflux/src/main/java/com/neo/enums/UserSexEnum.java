@@ -0,0 +1,5 @@
+package com.neo.enums;
+
+public enum UserSexEnum {
+    MAN, WOMAN
+}
@@ -0,0 +1,78 @@
+package com.neo.model;
+
+import com.neo.enums.UserSexEnum;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * 与 spring-boot-mybatis 的 users 表结构相同
+ */
+@Table("users")
+public class User {
+
+    @Id
+    private Long id;
+    @Column("userName")
+    private String userName;
+    @Column("passWord")
+    private String passWord;
+    @Column("user_sex")
+    private UserSexEnum userSex;
+    @Column("nick_name")
+    private String nickName;
+
+    public User() {
+    }
+
+    public User(String userName, String passWord, UserSexEnum userSex) {
+        this.userName = userName;
+        this.passWord = passWord;
+        this.userSex = userSex;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public void setUserName(String userName) {
+        this.userName = userName;
+    }
+
+    public String getPassWord() {
+        return passWord;
+    }
+
+    public void setPassWord(String passWord) {
+        this.passWord = passWord;
+    }
+
+    public UserSexEnum getUserSex() {
+        return userSex;
+    }
+
+    public void setUserSex(UserSexEnum userSex) {
+        this.userSex = userSex;
+    }
+
+    public String getNickName() {
+        return nickName;
+    }
+
+    public void setNickName(String nickName) {
+        this.nickName = nickName;
+    }
+
+    @Override
+    public String toString() {
+        return "userName " + this.userName + ", pasword " + this.passWord + ", sex " + userSex;
+    }
+}
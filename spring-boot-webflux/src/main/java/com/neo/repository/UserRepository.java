@@ -0,0 +1,26 @@
+package com.neo.repository;
+
+import com.neo.model.User;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface UserRepository extends ReactiveCrudRepository<User, Long> {
+
+    /**
+     * 与 MyBatis 的 UserMapper.update 相同，只修改用户名和昵称，一条语句完成，不先查询
+     *
+     * @return 修改的行数，0 表示用户不存在
+     */
+    @Modifying
+    @Query("UPDATE users SET userName = :userName, nick_name = :nickName WHERE id = :id")
+    Mono<Integer> update(Long id, String userName, String nickName);
+
+    /**
+     * 按主键分页：取 id 大于 afterId 的 limit 条，翻页不依赖 OFFSET，越往后也不会变慢
+     */
+    @Query("SELECT * FROM users WHERE id > :afterId ORDER BY id LIMIT :limit")
+    Flux<User> findPage(long afterId, int limit);
+}
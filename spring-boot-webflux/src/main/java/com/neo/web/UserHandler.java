@@ -0,0 +1,116 @@
+package com.neo.web;
+
+import com.neo.cache.ReactiveRedisCache;
+import com.neo.model.User;
+import com.neo.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * 对应 spring-boot-mybatis 中 UserController 的增删改查，全程不阻塞，由 Netty 的少量事件循环线程处理所有请求
+ */
+@Component
+public class UserHandler {
+
+    private final UserRepository userRepository;
+
+    private final ReactiveRedisCache<User> userCache;
+
+    private final int exportPageSize;
+
+    public UserHandler(UserRepository userRepository, ReactiveRedisCache<User> userCache,
+                       @Value("${user.export.page-size:500}") int exportPageSize) {
+        this.userRepository = userRepository;
+        this.userCache = userCache;
+        this.exportPageSize = exportPageSize;
+    }
+
+    public Mono<ServerResponse> getUsers(ServerRequest request) {
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+                .body(userRepository.findAll(), User.class);
+    }
+
+    public Mono<ServerResponse> getUser(ServerRequest request) {
+        Long id = id(request.queryParam("id").orElse(null));
+        return userCache.get(id.toString(), userRepository.findById(id))
+                .flatMap(user -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(user))
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    public Mono<ServerResponse> add(ServerRequest request) {
+        return request.bodyToMono(User.class)
+                .flatMap(user -> {
+                    // 新增时忽略传入的 id，由数据库生成
+                    user.setId(null);
+                    return userRepository.save(user);
+                })
+                .flatMap(user -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(user));
+    }
+
+    public Mono<ServerResponse> update(ServerRequest request) {
+        return request.bodyToMono(User.class)
+                .flatMap(user -> {
+                    Long id = id(user.getId());
+                    return userRepository.update(id, user.getUserName(), user.getNickName())
+                            .flatMap(rows -> userCache.evict(id.toString()).thenReturn(rows));
+                })
+                .flatMap(rows -> rows > 0 ? ServerResponse.ok().build() : ServerResponse.notFound().build());
+    }
+
+    public Mono<ServerResponse> delete(ServerRequest request) {
+        Long id = id(request.pathVariable("id"));
+        return userRepository.deleteById(id)
+                .then(userCache.evict(id.toString()))
+                .then(ServerResponse.ok().build());
+    }
+
+    /**
+     * 导出全部用户，每行一个 JSON（application/x-ndjson）
+     */
+    public Mono<ServerResponse> export(ServerRequest request) {
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_NDJSON).body(exportUsers(), User.class);
+    }
+
+    /**
+     * 导出全部用户，每个用户一个 SSE 事件（text/event-stream）
+     */
+    public Mono<ServerResponse> exportEvents(ServerRequest request) {
+        return ServerResponse.ok().contentType(MediaType.TEXT_EVENT_STREAM).body(exportUsers(), User.class);
+    }
+
+    /**
+     * 按 user.export.page-size 逐页查询：客户端读取、写出缓冲区腾出空间后才继续向下请求，
+     * 内存中只有正在输出的一页和预取的下一页，与总行数无关；每页单独借还连接，下载慢的客户端不会长时间占用连接池
+     */
+    Flux<User> exportUsers() {
+        return page(0L)
+                .expand(users -> users.size() < exportPageSize ? Mono.empty()
+                        : page(users.get(users.size() - 1).getId()))
+                .flatMapIterable(users -> users, 1);
+    }
+
+    private Mono<List<User>> page(long afterId) {
+        return userRepository.findPage(afterId, exportPageSize).collectList()
+                .filter(users -> !users.isEmpty());
+    }
+
+    private static Long id(Object value) {
+        if (value == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "id is required");
+        }
+        try {
+            return Long.valueOf(value.toString());
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid id: " + value);
+        }
+    }
+}
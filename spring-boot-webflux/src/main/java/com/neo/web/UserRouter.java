@@ -0,0 +1,32 @@
+package com.neo.web;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.accept;
+
+/**
+ * 路径与 MyBatis 版本相同：新增、修改的请求体为 JSON。
+ * /exportUsers 流式导出全部用户，Accept 为 text/event-stream 时按 SSE 输出，否则按 NDJSON 输出
+ */
+@Configuration
+public class UserRouter {
+
+    @Bean
+    public RouterFunction<ServerResponse> userRoutes(UserHandler userHandler) {
+        return RouterFunctions.route()
+                .GET("/getUsers", userHandler::getUsers)
+                .GET("/getUser", userHandler::getUser)
+                .POST("/add", userHandler::add)
+                .PUT("/update", userHandler::update)
+                .POST("/update", userHandler::update)
+                .DELETE("/delete/{id}", userHandler::delete)
+                .GET("/exportUsers", accept(MediaType.TEXT_EVENT_STREAM), userHandler::exportEvents)
+                .GET("/exportUsers", userHandler::export)
+                .build();
+    }
+}
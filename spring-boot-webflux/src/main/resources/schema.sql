@@ -0,0 +1,8 @@
+CREATE TABLE IF NOT EXISTS users (
+  id bigint NOT NULL AUTO_INCREMENT,
+  userName varchar(32) DEFAULT NULL,
+  passWord varchar(32) DEFAULT NULL,
+  user_sex varchar(32) DEFAULT NULL,
+  nick_name varchar(32) DEFAULT NULL,
+  PRIMARY KEY (id)
+);
@@ -0,0 +1,111 @@
+package com.neo.cache;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.ReactiveRedisOperations;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+public class ReactiveRedisCacheTests {
+
+    private ReactiveValueOperations<String, String> values;
+
+    private ReactiveRedisCache<String> cache;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        ReactiveRedisOperations<String, String> operations = Mockito.mock(ReactiveRedisOperations.class);
+        values = Mockito.mock(ReactiveValueOperations.class);
+        Mockito.when(operations.opsForValue()).thenReturn(values);
+        Mockito.when(values.set(anyString(), anyString(), any(Duration.class))).thenReturn(Mono.just(true));
+        Mockito.when(values.delete(anyString())).thenReturn(Mono.just(true));
+        cache = new ReactiveRedisCache<>("user", operations, Duration.ofMinutes(10));
+    }
+
+    @Test
+    public void concurrentMissesLoadOnce() {
+        Sinks.One<String> lookup = Sinks.one();
+        Mockito.when(values.get("user::1")).thenReturn(lookup.asMono());
+        AtomicInteger loads = new AtomicInteger();
+        Mono<String> source = Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return "neo";
+        });
+
+        Mono<List<String>> results = Flux.range(0, 100).flatMap(i -> cache.get("1", source)).collectList().cache();
+        results.subscribe();
+        // 100 个订阅者都在等同一次 Redis 查询
+        Mockito.verify(values, Mockito.times(1)).get("user::1");
+        lookup.tryEmitEmpty();
+
+        List<String> users = results.block(Duration.ofSeconds(5));
+        Assert.assertEquals(100, users.size());
+        Assert.assertTrue(users.stream().allMatch("neo"::equals));
+        Assert.assertEquals(1, loads.get());
+        Mockito.verify(values, Mockito.times(1)).set(eq("user::1"), eq("neo"), eq(Duration.ofMinutes(10)));
+    }
+
+    @Test
+    public void hitDoesNotSubscribeSource() {
+        Mockito.when(values.get("user::1")).thenReturn(Mono.just("cached"));
+        AtomicInteger loads = new AtomicInteger();
+        Mono<String> source = Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return "neo";
+        });
+
+        Assert.assertEquals("cached", Mono.just(0).then(source.transform(cache.cached("1"))).block());
+        Assert.assertEquals(0, loads.get());
+    }
+
+    @Test
+    public void redisFailureFallsBackToSource() {
+        Mockito.when(values.get("user::1")).thenReturn(Mono.error(new RedisConnectionFailureException("down")));
+        Mockito.when(values.set(anyString(), anyString(), any(Duration.class)))
+                .thenReturn(Mono.error(new RedisConnectionFailureException("down")));
+
+        Assert.assertEquals("neo", cache.get("1", Mono.just("neo")).block());
+        // 失败的结果不会留在飞行表中
+        Mockito.when(values.get("user::1")).thenReturn(Mono.just("cached"));
+        Assert.assertEquals("cached", cache.get("1", Mono.just("neo")).block());
+    }
+
+    @Test
+    public void emptySourceIsNotCached() {
+        Mockito.when(values.get("user::2")).thenReturn(Mono.empty());
+
+        Assert.assertNull(cache.get("2", Mono.empty()).block());
+        Mockito.verify(values, Mockito.never()).set(anyString(), anyString(), any(Duration.class));
+    }
+
+    @Test
+    public void loadStartedBeforeEvictIsNotWrittenBack() {
+        Mockito.when(values.get("user::1")).thenReturn(Mono.empty());
+        Sinks.One<String> row = Sinks.one();
+
+        Mono<String> stale = cache.get("1", row.asMono()).cache();
+        stale.subscribe();
+        // 更新提交后删除缓存，此时之前开始的加载还没有返回
+        cache.evict("1").block();
+        row.tryEmitValue("old");
+
+        Assert.assertEquals("old", stale.block(Duration.ofSeconds(5)));
+        Mockito.verify(values, Mockito.never()).set(anyString(), anyString(), any(Duration.class));
+        Assert.assertEquals("new", cache.get("1", Mono.just("new")).block());
+        Mockito.verify(values, Mockito.times(1)).set(eq("user::1"), eq("new"), eq(Duration.ofMinutes(10)));
+    }
+}
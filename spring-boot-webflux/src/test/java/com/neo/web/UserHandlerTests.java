@@ -0,0 +1,61 @@
+package com.neo.web;
+
+import com.neo.model.User;
+import com.neo.repository.UserRepository;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+
+public class UserHandlerTests {
+
+    private static final int TOTAL = 10_000;
+
+    @Test
+    public void exportQueriesNextPageOnlyOnDemand() {
+        AtomicInteger queries = new AtomicInteger();
+        UserRepository repository = Mockito.mock(UserRepository.class);
+        Mockito.when(repository.findPage(anyLong(), anyInt())).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            int limit = invocation.getArgument(1);
+            queries.incrementAndGet();
+            return Flux.range((int) afterId + 1, (int) Math.max(0, Math.min(limit, TOTAL - afterId))).map(id -> {
+                User user = new User();
+                user.setId((long) id);
+                return user;
+            });
+        });
+        UserHandler handler = new UserHandler(repository, null, 10);
+
+        List<Long> ids = new ArrayList<>();
+        BaseSubscriber<User> subscriber = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                request(15);
+            }
+
+            @Override
+            protected void hookOnNext(User user) {
+                ids.add(user.getId());
+            }
+        };
+        handler.exportUsers().subscribe(subscriber);
+        Assert.assertEquals(15, ids.size());
+        // 只预取下一页，不会把后面的页都查出来
+        Assert.assertTrue(queries.get() <= 3);
+
+        subscriber.requestUnbounded();
+        Assert.assertEquals(TOTAL, ids.size());
+        Assert.assertEquals(Long.valueOf(TOTAL), ids.get(TOTAL - 1));
+        Assert.assertEquals(TOTAL / 10 + 1, queries.get());
+    }
+}
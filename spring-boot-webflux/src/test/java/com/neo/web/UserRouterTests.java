@@ -0,0 +1,94 @@
+package com.neo.web;
+
+import com.neo.cache.ReactiveRedisCache;
+import com.neo.enums.UserSexEnum;
+import com.neo.model.User;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "user.export.page-size=7")
+@AutoConfigureWebTestClient
+public class UserRouterTests {
+
+    @Autowired
+    WebTestClient client;
+
+    /**
+     * 不连接 Redis：H2 的 id 每次启动都从 1 开始，本地 Redis 里上次运行留下的 user::{id} 会被当成命中
+     */
+    @MockBean
+    ReactiveRedisCache<User> userCache;
+
+    @Before
+    public void passThroughCache() {
+        Mockito.when(userCache.get(anyString(), any())).thenAnswer(invocation -> invocation.getArgument(1));
+        Mockito.when(userCache.evict(anyString())).thenReturn(Mono.just(true));
+    }
+
+    @Test
+    public void crud() {
+        User saved = client.post().uri("/add").bodyValue(new User("aa", "a123456", UserSexEnum.MAN))
+                .exchange().expectStatus().isOk()
+                .expectBody(User.class).returnResult().getResponseBody();
+        Assert.assertNotNull(saved.getId());
+
+        client.get().uri("/getUser?id={id}", saved.getId()).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.userName").isEqualTo("aa").jsonPath("$.userSex").isEqualTo("MAN");
+
+        saved.setNickName("neo");
+        client.put().uri("/update").bodyValue(saved).exchange().expectStatus().isOk();
+        client.get().uri("/getUsers").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$[?(@.id == " + saved.getId() + ")].nickName").isEqualTo("neo");
+
+        client.delete().uri("/delete/{id}", saved.getId()).exchange().expectStatus().isOk();
+        client.get().uri("/getUser?id={id}", saved.getId()).exchange().expectStatus().isNotFound();
+        client.put().uri("/update").bodyValue(saved).exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    public void invalidId() {
+        client.get().uri("/getUser?id=abc").exchange().expectStatus().isBadRequest();
+        client.get().uri("/getUser").exchange().expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void export() {
+        for (int i = 0; i < 20; i++) {
+            client.post().uri("/add").bodyValue(new User("export" + i, "a123456", UserSexEnum.WOMAN))
+                    .exchange().expectStatus().isOk();
+        }
+        List<User> users = client.get().uri("/exportUsers").accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(User.class).getResponseBody().collectList().block();
+        Assert.assertTrue(users.size() >= 20);
+        for (int i = 1; i < users.size(); i++) {
+            Assert.assertTrue(users.get(i - 1).getId() < users.get(i).getId());
+        }
+
+        List<User> events = client.get().uri("/exportUsers").accept(MediaType.TEXT_EVENT_STREAM).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .returnResult(User.class).getResponseBody().collectList().block();
+        Assert.assertEquals(users.size(), events.size());
+    }
+}